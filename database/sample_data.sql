@@ -31,6 +31,9 @@ INSERT OR IGNORE INTO comments (id, user_id, post_id, content, created_at) VALUE
 (9, 3, 6, '推薦使用 OpenAPI (Swagger) 來文件化 API，自動生成的文件很方便。', '2024-01-22 17:00:00'),
 (10, 1, 4, 'matplotlib 很強大，不過我最近在學 D3.js，想做更互動式的視覺化。', '2024-01-23 09:20:00');
 
+-- 同步發文的留言數量
+UPDATE posts SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id);
+
 -- 更新序列值（SQLite 自動處理，但為了確保一致性）
 UPDATE sqlite_sequence SET seq = 4 WHERE name = 'users';
 UPDATE sqlite_sequence SET seq = 6 WHERE name = 'posts';
@@ -1,11 +1,18 @@
 package com.esun.socialmedia.config;
 
+import com.esun.socialmedia.security.BoundedPasswordEncoder;
 import com.esun.socialmedia.security.CustomUserDetailsService;
 import com.esun.socialmedia.security.JwtAuthenticationEntryPoint;
 import com.esun.socialmedia.security.JwtAuthenticationFilter;
+import com.esun.socialmedia.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -14,12 +21,14 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -42,32 +51,47 @@ public class SecurityConfig {
     private final CustomUserDetailsService userDetailsService;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(CustomUserDetailsService userDetailsService,
                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
-                         JwtAuthenticationFilter jwtAuthenticationFilter) {
+                         JwtAuthenticationFilter jwtAuthenticationFilter,
+                         RateLimitFilter rateLimitFilter) {
         this.userDetailsService = userDetailsService;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     /**
      * 密碼編碼器
+     * 
+     * BCrypt 雜湊在專用且有上限的執行緒池執行，不占用請求執行緒的 CPU
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.password.bcrypt-strength:12}") int strength,
+            @Value("${app.password.hashing-threads:0}") int threads,
+            @Value("${app.password.hashing-queue-capacity:32}") int queueCapacity,
+            @Value("${app.password.retry-after:1}") long retryAfterSeconds,
+            MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                poolSize, queueCapacity, retryAfterSeconds, meterRegistry);
     }
 
     /**
      * 認證提供者
+     * 
+     * 登入成功時若密碼雜湊成本低於設定值，以新成本重新雜湊並儲存
      */
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -88,6 +112,8 @@ public class SecurityConfig {
         configuration.setAllowedOriginPatterns(List.of("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of(RateLimitFilter.LIMIT_HEADER, RateLimitFilter.REMAINING_HEADER,
+                RateLimitFilter.RESET_HEADER, HttpHeaders.RETRY_AFTER, HttpHeaders.ETAG));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -96,11 +122,42 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * 上傳檔案為公開且不可變的內容，完全略過安全過濾器鏈
+     */
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> web.ignoring().requestMatchers(new AntPathRequestMatcher("/uploads/**", "GET"),
+                new AntPathRequestMatcher("/uploads/**", "HEAD"));
+    }
+
+    /**
+     * JWT 過濾器只在安全過濾器鏈中執行，不另外註冊為 Servlet 過濾器
+     */
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration =
+                new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    /**
+     * 限流過濾器只在安全過濾器鏈中執行，不另外註冊為 Servlet 過濾器
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration() {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
     /**
      * 安全過濾器鏈配置
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           AuthenticationProvider authenticationProvider) throws Exception {
         http
             // 禁用 CSRF（使用 JWT 時不需要）
             .csrf(AbstractHttpConfigurer::disable)
@@ -121,6 +178,9 @@ public class SecurityConfig {
 
             // 配置授權規則
             .authorizeHttpRequests(authz -> authz
+                // 非同步處理完成後的再次分派（串流輸出），原請求已通過授權
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // 公開端點 (因為 context-path 是 /api，所以這裡不需要再加 /api 前綴)
                 .requestMatchers("/auth/login", "/auth/register").permitAll()
                 .requestMatchers("/auth/check-username", "/auth/check-email").permitAll()
@@ -139,18 +199,18 @@ public class SecurityConfig {
                 // H2 控制台 (僅開發環境)
                 .requestMatchers("/h2-console/**").permitAll()
 
-                // 靜態資源
-                .requestMatchers("/uploads/**").permitAll()
-
                 // 其他所有請求需要認證
                 .anyRequest().authenticated()
             )
 
             // 設置認證提供者
-            .authenticationProvider(authenticationProvider())
+            .authenticationProvider(authenticationProvider)
 
             // 添加 JWT 過濾器
-            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+
+            // 添加限流過濾器（需要 JWT 過濾器設置的使用者）
+            .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
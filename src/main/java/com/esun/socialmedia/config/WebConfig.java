@@ -0,0 +1,37 @@
+package com.esun.socialmedia.config;
+
+import com.esun.socialmedia.controller.UploadedFileServlet;
+import com.esun.socialmedia.service.FileStorageService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Web 配置類別
+ * 
+ * 上傳檔案由專用的 Servlet 直接提供，不經過 Spring MVC
+ * 
+ * @author 開發團隊
+ */
+@Configuration
+public class WebConfig {
+
+    private final FileStorageService fileStorageService;
+
+    @Autowired
+    public WebConfig(FileStorageService fileStorageService) {
+        this.fileStorageService = fileStorageService;
+    }
+
+    /**
+     * 上傳檔案存取 Servlet
+     */
+    @Bean
+    public ServletRegistrationBean<UploadedFileServlet> uploadedFileServlet() {
+        ServletRegistrationBean<UploadedFileServlet> registration = new ServletRegistrationBean<>(
+                new UploadedFileServlet(fileStorageService.getRoot()), FileStorageService.URL_PREFIX + "*");
+        registration.setName("uploadedFileServlet");
+        return registration;
+    }
+}
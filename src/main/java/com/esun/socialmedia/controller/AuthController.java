@@ -5,6 +5,7 @@ import com.esun.socialmedia.dto.auth.LoginRequest;
 import com.esun.socialmedia.dto.auth.RegisterRequest;
 import com.esun.socialmedia.dto.user.UpdateProfileRequest;
 import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.exception.ServiceUnavailableException;
 import com.esun.socialmedia.security.UserPrincipal;
 import com.esun.socialmedia.service.AuthService;
 import com.esun.socialmedia.service.UserService;
@@ -15,6 +16,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -52,7 +54,8 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "201", description = "註冊成功"),
         @ApiResponse(responseCode = "400", description = "請求參數錯誤"),
-        @ApiResponse(responseCode = "409", description = "使用者名稱或電子郵件已存在")
+        @ApiResponse(responseCode = "409", description = "使用者名稱或電子郵件已存在"),
+        @ApiResponse(responseCode = "503", description = "系統忙碌，請依 Retry-After 稍後重試")
     })
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
         try {
@@ -71,12 +74,15 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "登入成功"),
         @ApiResponse(responseCode = "400", description = "請求參數錯誤"),
-        @ApiResponse(responseCode = "401", description = "使用者名稱或密碼錯誤")
+        @ApiResponse(responseCode = "401", description = "使用者名稱或密碼錯誤"),
+        @ApiResponse(responseCode = "503", description = "系統忙碌，請依 Retry-After 稍後重試")
     })
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
         try {
             AuthResponse response = authService.login(request);
             return ResponseEntity.ok(response);
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -177,14 +183,22 @@ public class AuthController {
     }
 
     /**
-     * 登出（客戶端處理）
+     * 登出
      */
     @PostMapping("/logout")
-    @Operation(summary = "使用者登出", description = "登出當前使用者（客戶端需清除 Token）")
+    @Operation(summary = "使用者登出", description = "撤銷當前的 Access Token，並可一併撤銷 Refresh Token")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "登出成功")
+        @ApiResponse(responseCode = "200", description = "登出成功"),
+        @ApiResponse(responseCode = "401", description = "未授權")
     })
-    public ResponseEntity<Map<String, String>> logout() {
+    public ResponseEntity<Map<String, String>> logout(
+            @Parameter(hidden = true) @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        String refreshToken = request != null ? request.get("refreshToken") : null;
+        authService.logout(accessToken, refreshToken);
+
         Map<String, String> response = new HashMap<>();
         response.put("message", "登出成功");
         return ResponseEntity.ok(response);
@@ -2,8 +2,12 @@ package com.esun.socialmedia.controller;
 
 import com.esun.socialmedia.dto.comment.CommentResponse;
 import com.esun.socialmedia.dto.comment.CreateCommentRequest;
+import com.esun.socialmedia.dto.common.CursorPage;
 import com.esun.socialmedia.security.UserPrincipal;
 import com.esun.socialmedia.service.CommentService;
+import com.esun.socialmedia.service.JsonLinesWriter;
+import com.esun.socialmedia.service.ResourceVersionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,13 +17,17 @@ import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * 留言控制器
@@ -34,10 +42,16 @@ import java.util.Map;
 public class CommentController {
 
     private final CommentService commentService;
+    private final ResourceVersionService resourceVersionService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public CommentController(CommentService commentService) {
+    public CommentController(CommentService commentService,
+                             ResourceVersionService resourceVersionService,
+                             ObjectMapper objectMapper) {
         this.commentService = commentService;
+        this.resourceVersionService = resourceVersionService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -89,32 +103,66 @@ public class CommentController {
      * 根據發文 ID 獲取留言列表
      */
     @GetMapping("/posts/{postId}")
-    @Operation(summary = "獲取發文留言", description = "獲取指定發文的所有留言")
+    @Operation(summary = "獲取發文留言", description = "獲取指定發文的所有留言；支援 If-None-Match / If-Modified-Since")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "獲取成功")
+        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "304", description = "內容未修改")
     })
     public ResponseEntity<List<CommentResponse>> getCommentsByPostId(
-            @Parameter(description = "發文 ID") @PathVariable Long postId) {
+            @Parameter(description = "發文 ID") @PathVariable Long postId,
+            @Parameter(hidden = true) WebRequest webRequest) {
         
-        List<CommentResponse> comments = commentService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+        return ConditionalGet.respond(webRequest, Optional.of(resourceVersionService.commentThreadVersion(postId)),
+                () -> Optional.of(commentService.getCommentsByPostId(postId)));
+    }
+
+    /**
+     * 根據發文 ID 串流輸出所有留言
+     */
+    @GetMapping(value = "/posts/{postId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "串流輸出發文留言",
+               description = "以 NDJSON（每行一則留言 JSON）逐筆輸出指定發文的所有留言，記憶體用量不隨留言數量成長；" +
+                             "順序與欄位同「獲取發文留言」；支援 If-None-Match / If-Modified-Since")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "開始輸出"),
+        @ApiResponse(responseCode = "304", description = "內容未修改")
+    })
+    public ResponseEntity<StreamingResponseBody> streamCommentsByPostId(
+            @Parameter(description = "發文 ID") @PathVariable Long postId,
+            @Parameter(hidden = true) WebRequest webRequest) {
+        
+        StreamingResponseBody body = out -> commentService.streamCommentsByPostId(
+                postId, new JsonLinesWriter(objectMapper, out));
+        return ConditionalGet.respond(webRequest, Optional.of(resourceVersionService.commentThreadVersion(postId)),
+                MediaType.APPLICATION_NDJSON, () -> Optional.of(body));
     }
 
     /**
      * 根據發文 ID 獲取留言列表（分頁）
      */
     @GetMapping("/posts/{postId}/page")
-    @Operation(summary = "獲取發文留言（分頁）", description = "獲取指定發文的留言分頁列表")
+    @Operation(summary = "獲取發文留言（分頁）", description = "獲取指定發文的留言分頁列表；帶入 cursor 參數時改用游標分頁；支援 If-None-Match / If-Modified-Since")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "獲取成功")
+        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "304", description = "內容未修改"),
+        @ApiResponse(responseCode = "400", description = "無效的分頁游標")
     })
-    public ResponseEntity<Page<CommentResponse>> getCommentsByPostIdPaged(
+    public ResponseEntity<?> getCommentsByPostIdPaged(
             @Parameter(description = "發文 ID") @PathVariable Long postId,
             @Parameter(description = "頁碼（從 0 開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "20") int size) {
+            @Parameter(description = "每頁大小（上限 100）") @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "分頁游標（第一頁傳空字串）") @RequestParam(required = false) String cursor,
+            @Parameter(hidden = true) WebRequest webRequest) {
         
-        Page<CommentResponse> comments = commentService.getCommentsByPostId(postId, page, size);
-        return ResponseEntity.ok(comments);
+        return ConditionalGet.respond(webRequest, Optional.of(resourceVersionService.commentThreadVersion(postId)), () -> {
+            if (cursor != null) {
+                CursorPage<CommentResponse> comments = commentService.getCommentsByPostIdByCursor(postId, cursor, size);
+                return Optional.of(comments);
+            }
+            
+            Page<CommentResponse> comments = commentService.getCommentsByPostId(postId, page, size);
+            return Optional.of(comments);
+        });
     }
 
     /**
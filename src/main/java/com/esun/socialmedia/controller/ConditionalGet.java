@@ -0,0 +1,70 @@
+package com.esun.socialmedia.controller;
+
+import com.esun.socialmedia.service.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 條件式 GET 輔助工具
+ *
+ * 先比對資源版本與請求的 If-None-Match / If-Modified-Since，未修改時直接回應 304，
+ * 不建立回應內容。版本須在讀取內容之前取得：兩者之間發生的變更只會讓用戶端多下載一次。
+ * 回應內容可能含個人資料，因此使用 private, no-cache，要求用戶端每次重新驗證。
+ * 回應內容可為 DTO、已序列化的 JSON 位元組（回應快取）或串流輸出。
+ *
+ * @author 開發團隊
+ */
+final class ConditionalGet {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * 依資源版本回應 304 或完整內容
+     *
+     * @param request 目前請求
+     * @param version 資源版本；為空表示資源不存在
+     * @param body 讀取回應內容；為空表示資源不存在
+     * @return 304、200 或 404 回應
+     */
+    static <T> ResponseEntity<T> respond(WebRequest request,
+                                         Optional<ResourceVersion> version,
+                                         Supplier<Optional<T>> body) {
+        return respond(request, version, MediaType.APPLICATION_JSON, body);
+    }
+
+    /**
+     * 依資源版本回應 304 或指定內容類型的完整內容
+     *
+     * @param request 目前請求
+     * @param version 資源版本；為空表示資源不存在
+     * @param contentType 回應內容類型
+     * @param body 讀取回應內容；為空表示資源不存在
+     * @return 304、200 或 404 回應
+     */
+    static <T> ResponseEntity<T> respond(WebRequest request,
+                                         Optional<ResourceVersion> version,
+                                         MediaType contentType,
+                                         Supplier<Optional<T>> body) {
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(version.get().getEtag(), version.get().getLastModified())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return body.get()
+                .map(content -> ResponseEntity.ok()
+                        .cacheControl(REVALIDATE)
+                        .contentType(contentType)
+                        .body(content))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
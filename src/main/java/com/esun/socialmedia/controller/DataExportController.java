@@ -0,0 +1,112 @@
+package com.esun.socialmedia.controller;
+
+import com.esun.socialmedia.dto.export.DataExportStatus;
+import com.esun.socialmedia.security.UserPrincipal;
+import com.esun.socialmedia.service.DataExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * 個人資料匯出控制器
+ *
+ * 處理目前使用者個人資料匯出的 HTTP 請求
+ *
+ * @author 開發團隊
+ */
+@RestController
+@RequestMapping("/exports")
+@Tag(name = "個人資料匯出", description = "匯出目前使用者的個人資料、發文與留言")
+public class DataExportController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final DataExportService dataExportService;
+
+    @Autowired
+    public DataExportController(DataExportService dataExportService) {
+        this.dataExportService = dataExportService;
+    }
+
+    /**
+     * 開始匯出
+     */
+    @PostMapping
+    @Operation(summary = "開始匯出", description = "於背景將個人資料、發文與留言匯出為 gzip 壓縮的 JSON Lines 檔；已有進行中的匯出時回傳其狀態")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "已排入匯出"),
+        @ApiResponse(responseCode = "401", description = "未授權"),
+        @ApiResponse(responseCode = "503", description = "匯出工作已滿，請稍後再試")
+    })
+    public ResponseEntity<DataExportStatus> requestExport(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        DataExportStatus status = dataExportService.requestExport(currentUser.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(status);
+    }
+
+    /**
+     * 獲取匯出狀態
+     */
+    @GetMapping
+    @Operation(summary = "獲取匯出狀態", description = "獲取最近一次匯出的狀態與進度")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "401", description = "未授權"),
+        @ApiResponse(responseCode = "404", description = "尚未匯出")
+    })
+    public ResponseEntity<DataExportStatus> getStatus(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        return dataExportService.getStatus(currentUser.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * 下載匯出檔
+     */
+    @GetMapping("/download")
+    @Operation(summary = "下載匯出檔", description = "下載最近一次完成的匯出檔（每行一筆 JSON：type 為 profile、post 或 comment）")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "下載成功"),
+        @ApiResponse(responseCode = "401", description = "未授權"),
+        @ApiResponse(responseCode = "404", description = "尚未匯出或匯出檔已過期"),
+        @ApiResponse(responseCode = "409", description = "匯出尚未完成")
+    })
+    public ResponseEntity<Resource> download(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+
+        Optional<Path> file = dataExportService.getExportFile(currentUser.getId());
+        if (file.isEmpty()) {
+            boolean pending = dataExportService.getStatus(currentUser.getId())
+                    .map(status -> status.getState() == DataExportStatus.State.QUEUED
+                            || status.getState() == DataExportStatus.State.RUNNING)
+                    .orElse(false);
+            return ResponseEntity.status(pending ? HttpStatus.CONFLICT : HttpStatus.NOT_FOUND).build();
+        }
+
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("export-" + currentUser.getId() + ".jsonl.gz")
+                .build();
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(new FileSystemResource(file.get()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.esun.socialmedia.controller;
+
+import com.esun.socialmedia.dto.upload.ImageUploadResponse;
+import com.esun.socialmedia.service.FileStorageService;
+import com.esun.socialmedia.service.ImageVariantService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 檔案控制器
+ * 
+ * 處理圖片上傳相關的 HTTP 請求
+ * 
+ * @author 開發團隊
+ */
+@RestController
+@RequestMapping("/files")
+@Tag(name = "檔案管理", description = "圖片上傳相關 API")
+public class FileController {
+
+    private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
+
+    @Autowired
+    public FileController(FileStorageService fileStorageService,
+                          ImageVariantService imageVariantService) {
+        this.fileStorageService = fileStorageService;
+        this.imageVariantService = imageVariantService;
+    }
+
+    /**
+     * 上傳圖片
+     * 
+     * 超過 spring.servlet.multipart.file-size-threshold 的檔案由容器暫存於磁碟，
+     * 此處再以串流方式讀出並寫入內容定址的儲存位置；縮圖於背景產生
+     */
+    @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "上傳圖片", description = "上傳 JPEG、PNG 或 GIF 圖片，回傳可存入發文 image 欄位的 URL；相同內容重複上傳回傳相同 URL。縮圖於背景產生，完成後出現在發文的 image_variants")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "201", description = "上傳成功"),
+        @ApiResponse(responseCode = "400", description = "檔案為空或格式不支援"),
+        @ApiResponse(responseCode = "401", description = "未授權"),
+        @ApiResponse(responseCode = "413", description = "檔案超過大小上限")
+    })
+    public ResponseEntity<ImageUploadResponse> uploadImage(
+            @Parameter(description = "圖片檔案") @RequestParam("file") MultipartFile file,
+            HttpServletRequest request) throws IOException {
+        
+        try (InputStream in = file.getInputStream()) {
+            ImageUploadResponse response = fileStorageService.storeImage(in, request.getContextPath());
+            imageVariantService.enqueue(response.getSha256(), response.getContentType());
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        }
+    }
+}
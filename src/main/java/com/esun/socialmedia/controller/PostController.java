@@ -1,12 +1,17 @@
 package com.esun.socialmedia.controller;
 
+import com.esun.socialmedia.dto.common.CursorPage;
 import com.esun.socialmedia.dto.post.CreatePostRequest;
 import com.esun.socialmedia.dto.post.PostResponse;
 import com.esun.socialmedia.dto.post.UpdatePostRequest;
 import com.esun.socialmedia.security.UserPrincipal;
 import com.esun.socialmedia.service.PostService;
+import com.esun.socialmedia.service.ResourceVersionService;
+import com.esun.socialmedia.service.ResponseCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -15,14 +20,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * 發文控制器
@@ -37,10 +46,16 @@ import java.util.Map;
 public class PostController {
 
     private final PostService postService;
+    private final ResourceVersionService resourceVersionService;
+    private final ResponseCacheService responseCacheService;
 
     @Autowired
-    public PostController(PostService postService) {
+    public PostController(PostService postService,
+                          ResourceVersionService resourceVersionService,
+                          ResponseCacheService responseCacheService) {
         this.postService = postService;
+        this.resourceVersionService = resourceVersionService;
+        this.responseCacheService = responseCacheService;
     }
 
     /**
@@ -65,13 +80,25 @@ public class PostController {
      * 獲取所有發文
      */
     @GetMapping
-    @Operation(summary = "獲取發文列表", description = "獲取所有發文的分頁列表")
+    @Operation(summary = "獲取發文列表", description = "獲取所有發文的分頁列表；帶入 cursor 參數時改用游標分頁；未登入的請求由回應快取提供")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "獲取成功")
+        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "400", description = "無效的分頁游標")
     })
-    public ResponseEntity<Page<PostResponse>> getAllPosts(
+    public ResponseEntity<?> getAllPosts(
             @Parameter(description = "頁碼（從 0 開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小（上限 100）") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標（第一頁傳空字串）") @RequestParam(required = false) String cursor,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        if (currentUser == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(cachedPosts(page, size, cursor));
+        }
+        
+        if (cursor != null) {
+            CursorPage<PostResponse> posts = postService.getAllPostsByCursor(cursor, size);
+            return ResponseEntity.ok(posts);
+        }
         
         Page<PostResponse> posts = postService.getAllPosts(page, size);
         return ResponseEntity.ok(posts);
@@ -81,17 +108,29 @@ public class PostController {
      * 根據 ID 獲取發文
      */
     @GetMapping("/{id}")
-    @Operation(summary = "獲取發文詳情", description = "根據 ID 獲取發文的詳細資訊")
+    @Operation(summary = "獲取發文詳情", description = "根據 ID 獲取發文的詳細資訊；支援 If-None-Match / If-Modified-Since；未登入的請求由回應快取提供")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "200", description = "獲取成功",
+                content = @Content(schema = @Schema(implementation = PostResponse.class))),
+        @ApiResponse(responseCode = "304", description = "內容未修改"),
         @ApiResponse(responseCode = "404", description = "發文不存在")
     })
-    public ResponseEntity<PostResponse> getPostById(
-            @Parameter(description = "發文 ID") @PathVariable Long id) {
+    public ResponseEntity<?> getPostById(
+            @Parameter(description = "發文 ID") @PathVariable Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser,
+            @Parameter(hidden = true) WebRequest webRequest) {
         
-        return postService.getPostById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        if (currentUser == null) {
+            // 以與快取內容一起保存的版本比對，版本與內容一致
+            Optional<ResponseCacheService.CachedResponse> cached = responseCacheService.getWithVersion("posts/" + id,
+                    () -> resourceVersionService.postVersion(id),
+                    () -> postService.getPostById(id),
+                    post -> ResponseCacheService.postTags(List.of(post)));
+            return ConditionalGet.respond(webRequest, cached.map(ResponseCacheService.CachedResponse::getVersion),
+                    () -> cached.map(ResponseCacheService.CachedResponse::getBody));
+        }
+        return ConditionalGet.respond(webRequest, resourceVersionService.postVersion(id),
+                () -> postService.getPostById(id));
     }
 
     /**
@@ -160,14 +199,21 @@ public class PostController {
      * 根據作者獲取發文
      */
     @GetMapping("/author/{authorId}")
-    @Operation(summary = "獲取使用者發文", description = "獲取指定使用者的發文列表")
+    @Operation(summary = "獲取使用者發文", description = "獲取指定使用者的發文列表；帶入 cursor 參數時改用游標分頁")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "獲取成功")
+        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "400", description = "無效的分頁游標")
     })
-    public ResponseEntity<Page<PostResponse>> getPostsByAuthor(
+    public ResponseEntity<?> getPostsByAuthor(
             @Parameter(description = "作者 ID") @PathVariable Long authorId,
             @Parameter(description = "頁碼（從 0 開始）") @RequestParam(defaultValue = "0") int page,
-            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+            @Parameter(description = "每頁大小（上限 100）") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標（第一頁傳空字串）") @RequestParam(required = false) String cursor) {
+        
+        if (cursor != null) {
+            CursorPage<PostResponse> posts = postService.getPostsByAuthorByCursor(authorId, cursor, size);
+            return ResponseEntity.ok(posts);
+        }
         
         Page<PostResponse> posts = postService.getPostsByAuthor(authorId, page, size);
         return ResponseEntity.ok(posts);
@@ -224,4 +270,32 @@ public class PostController {
         List<PostResponse> posts = postService.getLatestPosts(limit);
         return ResponseEntity.ok(posts);
     }
+
+    /**
+     * 未登入請求的發文列表，由回應快取提供
+     * 
+     * 頁碼分頁與游標第一頁會因新增發文而位移，另加動態牆標記；
+     * 之後的游標分頁依建立時間定位，新增發文不影響其內容
+     */
+    private byte[] cachedPosts(int page, int size, String cursor) {
+        int pageSize = CursorPage.clampSize(size);
+        if (cursor != null) {
+            return responseCacheService.get("posts?cursor=" + cursor + "&size=" + pageSize,
+                    () -> Optional.of(postService.getAllPostsByCursor(cursor, pageSize)),
+                    posts -> {
+                        Set<String> tags = ResponseCacheService.postTags(posts.getContent());
+                        if (cursor.isBlank()) {
+                            tags.add(ResponseCacheService.FEED_TAG);
+                        }
+                        return tags;
+                    }).orElseThrow();
+        }
+        return responseCacheService.get("posts?page=" + page + "&size=" + pageSize,
+                () -> Optional.of(postService.getAllPosts(page, pageSize)),
+                posts -> {
+                    Set<String> tags = ResponseCacheService.postTags(posts.getContent());
+                    tags.add(ResponseCacheService.FEED_TAG);
+                    return tags;
+                }).orElseThrow();
+    }
 }
@@ -0,0 +1,54 @@
+package com.esun.socialmedia.controller;
+
+import com.esun.socialmedia.dto.common.CursorPage;
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.security.UserPrincipal;
+import com.esun.socialmedia.service.PostService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 時間軸控制器
+ * 
+ * 處理追蹤時間軸相關的 HTTP 請求
+ * 
+ * @author 開發團隊
+ */
+@RestController
+@RequestMapping("/timeline")
+@Tag(name = "時間軸", description = "追蹤對象發文的時間軸 API")
+public class TimelineController {
+
+    private final PostService postService;
+
+    @Autowired
+    public TimelineController(PostService postService) {
+        this.postService = postService;
+    }
+
+    /**
+     * 獲取追蹤時間軸
+     */
+    @GetMapping
+    @Operation(summary = "獲取追蹤時間軸", description = "獲取目前使用者追蹤對象的發文（游標分頁，由新到舊）")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "400", description = "無效的分頁游標"),
+        @ApiResponse(responseCode = "401", description = "未授權")
+    })
+    public ResponseEntity<CursorPage<PostResponse>> getTimeline(
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser,
+            @Parameter(description = "每頁大小（上限 100）") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "分頁游標（第一頁可省略）") @RequestParam(required = false) String cursor) {
+        
+        CursorPage<PostResponse> posts = postService.getTimeline(currentUser.getId(), cursor, size);
+        return ResponseEntity.ok(posts);
+    }
+}
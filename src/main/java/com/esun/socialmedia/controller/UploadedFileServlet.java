@@ -0,0 +1,192 @@
+package com.esun.socialmedia.controller;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 上傳檔案存取 Servlet
+ *
+ * 直接對應 /uploads/*，不經過 DispatcherServlet 與 Spring Security。
+ * 檔案以內容 SHA-256 命名（縮圖另加寬度），內容永不改變，因此 ETag 直接取自檔名，
+ * 並回應一年且 immutable 的 Cache-Control，不需讀取檔案內容。
+ * 支援單一範圍的 Range 請求（多重範圍時回應完整內容）。
+ *
+ * 容器支援 sendfile 時（Tomcat NIO）交由容器以零複製方式傳送，
+ * 否則以 FileChannel.transferTo 寫入回應，都不會把檔案內容讀入 Java 堆積。
+ *
+ * @author 開發團隊
+ */
+public class UploadedFileServlet extends HttpServlet {
+
+    // Tomcat sendfile 請求屬性
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // /{雜湊前兩碼}/{雜湊}[_w{縮圖寬度}].{副檔名}，同時避免路徑穿越
+    private static final Pattern FILE_PATH =
+            Pattern.compile("/([0-9a-f]{2})/(\\1[0-9a-f]{62})(_w[0-9]{1,4})?\\.(jpg|png|gif)");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private final Path root;
+
+    /**
+     * @param root 上傳檔案的根目錄
+     */
+    public UploadedFileServlet(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, true);
+    }
+
+    @Override
+    protected void doHead(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(request, response, false);
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, boolean sendBody)
+            throws IOException {
+        String pathInfo = request.getPathInfo();
+        Matcher matcher = pathInfo != null ? FILE_PATH.matcher(pathInfo) : null;
+        if (matcher == null || !matcher.matches()) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String name = matcher.group(3) != null ? matcher.group(2) + matcher.group(3) : matcher.group(2);
+        Path file = root.resolve(matcher.group(1)).resolve(name + "." + matcher.group(4));
+        long length;
+        try {
+            length = Files.size(file);
+        } catch (NoSuchFileException e) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + name + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            Matcher rangeMatcher = RANGE.matcher(range.trim());
+            if (rangeMatcher.matches()) {
+                String first = rangeMatcher.group(1);
+                String last = rangeMatcher.group(2);
+                if (first.isEmpty() && last.isEmpty()) {
+                    rangeNotSatisfiable(response, length);
+                    return;
+                }
+                if (first.isEmpty()) {
+                    // 最後 N 個位元組
+                    start = Math.max(0, length - parse(last));
+                } else {
+                    start = parse(first);
+                    if (!last.isEmpty()) {
+                        end = Math.min(end, parse(last));
+                    }
+                }
+                if (start > end || start >= length) {
+                    rangeNotSatisfiable(response, length);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType(matcher.group(4)));
+        response.setContentLengthLong(count);
+        if (!sendBody || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // 回應提交後由容器以 sendfile 傳送
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void rangeNotSatisfiable(HttpServletResponse response, long length) {
+        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+    }
+
+    private static long parse(String digits) {
+        // 超過 long 範圍的數字視為無限大
+        return digits.length() > 18 ? Long.MAX_VALUE : Long.parseLong(digits);
+    }
+
+    private static String contentType(String extension) {
+        switch (extension) {
+            case "jpg":
+                return "image/jpeg";
+            case "png":
+                return "image/png";
+            default:
+                return "image/gif";
+        }
+    }
+}
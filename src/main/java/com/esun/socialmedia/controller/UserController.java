@@ -1,6 +1,10 @@
 package com.esun.socialmedia.controller;
 
 import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.dto.user.UserSuggestion;
+import com.esun.socialmedia.security.UserPrincipal;
+import com.esun.socialmedia.service.FollowService;
+import com.esun.socialmedia.service.ResourceVersionService;
 import com.esun.socialmedia.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -8,10 +12,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 使用者控制器
@@ -26,27 +35,34 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final FollowService followService;
+    private final ResourceVersionService resourceVersionService;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          FollowService followService,
+                          ResourceVersionService resourceVersionService) {
         this.userService = userService;
+        this.followService = followService;
+        this.resourceVersionService = resourceVersionService;
     }
 
     /**
      * 根據 ID 獲取使用者資訊
      */
     @GetMapping("/{id}")
-    @Operation(summary = "獲取使用者資訊", description = "根據使用者 ID 獲取使用者詳細資訊")
+    @Operation(summary = "獲取使用者資訊", description = "根據使用者 ID 獲取使用者詳細資訊；支援 If-None-Match / If-Modified-Since")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "獲取成功"),
+        @ApiResponse(responseCode = "304", description = "內容未修改"),
         @ApiResponse(responseCode = "404", description = "使用者不存在")
     })
     public ResponseEntity<UserResponse> getUserById(
-            @Parameter(description = "使用者 ID") @PathVariable Long id) {
+            @Parameter(description = "使用者 ID") @PathVariable Long id,
+            @Parameter(hidden = true) WebRequest webRequest) {
         
-        return userService.getUserProfile(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+        return ConditionalGet.respond(webRequest, resourceVersionService.userVersion(id),
+                () -> userService.getUserProfile(id));
     }
 
     /**
@@ -86,4 +102,92 @@ public class UserController {
         List<UserResponse> users = userService.searchUsers(keyword.trim());
         return ResponseEntity.ok(users);
     }
+
+    /**
+     * 分頁搜尋使用者（使用者名稱前綴）
+     */
+    @GetMapping(value = "/search", params = "page")
+    @Operation(summary = "分頁搜尋使用者", description = "帶有 page 參數時，以使用者名稱前綴（不分大小寫）分頁搜尋使用者，依使用者名稱排序")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "搜尋完成")
+    })
+    public ResponseEntity<Page<UserResponse>> searchUsersPaged(
+            @Parameter(description = "使用者名稱前綴") @RequestParam String keyword,
+            @Parameter(description = "頁碼（從 0 開始）") @RequestParam int page,
+            @Parameter(description = "每頁大小") @RequestParam(defaultValue = "10") int size) {
+        
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return ResponseEntity.ok(Page.empty());
+        }
+        
+        Page<UserResponse> users = userService.searchUsersByPrefix(keyword.trim(), page, size);
+        return ResponseEntity.ok(users);
+    }
+
+    /**
+     * 使用者名稱自動完成
+     */
+    @GetMapping("/autocomplete")
+    @Operation(summary = "使用者名稱自動完成", description = "回傳使用者名稱以指定前綴開頭（不分大小寫）的使用者，最多 20 筆")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "查詢完成")
+    })
+    public ResponseEntity<List<UserSuggestion>> autocomplete(
+            @Parameter(description = "使用者名稱前綴") @RequestParam String prefix,
+            @Parameter(description = "數量限制") @RequestParam(defaultValue = "10") int limit) {
+        
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+        
+        return ResponseEntity.ok(userService.suggestUsernames(prefix.trim(), limit));
+    }
+
+    /**
+     * 追蹤使用者
+     */
+    @PostMapping("/{id}/follow")
+    @Operation(summary = "追蹤使用者", description = "追蹤指定的使用者，其新發文會出現在自己的時間軸")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "追蹤成功"),
+        @ApiResponse(responseCode = "400", description = "不能追蹤自己或已經追蹤"),
+        @ApiResponse(responseCode = "401", description = "未授權"),
+        @ApiResponse(responseCode = "404", description = "使用者不存在")
+    })
+    public ResponseEntity<Map<String, String>> followUser(
+            @Parameter(description = "被追蹤的使用者 ID") @PathVariable Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        try {
+            followService.follow(currentUser.getId(), id);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "追蹤成功");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            if (e.getMessage().contains("找不到使用者")) {
+                return ResponseEntity.notFound().build();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 取消追蹤使用者
+     */
+    @DeleteMapping("/{id}/follow")
+    @Operation(summary = "取消追蹤使用者", description = "取消追蹤指定的使用者")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "取消追蹤成功"),
+        @ApiResponse(responseCode = "400", description = "尚未追蹤此使用者"),
+        @ApiResponse(responseCode = "401", description = "未授權")
+    })
+    public ResponseEntity<Map<String, String>> unfollowUser(
+            @Parameter(description = "被追蹤的使用者 ID") @PathVariable Long id,
+            @Parameter(hidden = true) @AuthenticationPrincipal UserPrincipal currentUser) {
+        
+        followService.unfollow(currentUser.getId(), id);
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "取消追蹤成功");
+        return ResponseEntity.ok(response);
+    }
 }
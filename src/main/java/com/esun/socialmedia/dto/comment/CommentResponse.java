@@ -22,6 +22,9 @@ public class CommentResponse {
     public CommentResponse() {
     }
 
+    /**
+     * 唯讀映射：所屬發文只讀取 ID，不會觸發發文或其集合的延遲載入
+     */
     public CommentResponse(Comment comment) {
         this.id = comment.getId();
         this.content = comment.getContent();
@@ -35,6 +38,22 @@ public class CommentResponse {
         return new CommentResponse(comment);
     }
 
+    /**
+     * 複製一份並替換作者資訊，已發布的實例不會被修改
+     * 
+     * @param author 作者資訊
+     * @return 新的留言回應
+     */
+    public CommentResponse withAuthor(UserResponse author) {
+        CommentResponse copy = new CommentResponse();
+        copy.id = this.id;
+        copy.content = this.content;
+        copy.author = author;
+        copy.postId = this.postId;
+        copy.createdAt = this.createdAt;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,102 @@
+package com.esun.socialmedia.dto.common;
+
+import com.esun.socialmedia.entity.BaseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 游標分頁回應 DTO
+ * 
+ * @author 開發團隊
+ */
+public class CursorPage<T> {
+
+    /**
+     * 每頁筆數上限（游標與傳統分頁共用）
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private List<T> content;
+    private String nextCursor;
+    private int size;
+    private boolean hasNext;
+
+    // Constructors
+    public CursorPage() {
+    }
+
+    public CursorPage(List<T> content, String nextCursor, int size, boolean hasNext) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.size = size;
+        this.hasNext = hasNext;
+    }
+
+    /**
+     * 由多查一筆的查詢結果建立游標分頁
+     * 
+     * @param rows 查詢結果（最多 size + 1 筆）
+     * @param size 每頁大小
+     * @param mapper 實體轉換函式
+     * @return 游標分頁
+     */
+    public static <E extends BaseEntity, T> CursorPage<T> from(List<E> rows, int size, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        List<T> content = pageRows.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (hasNext) {
+            E last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new PageCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new CursorPage<>(content, nextCursor, size, hasNext);
+    }
+
+    /**
+     * 將每頁大小限制在 1 到 {@link #MAX_PAGE_SIZE} 之間
+     * 
+     * @param size 請求的每頁大小
+     * @return 實際使用的每頁大小
+     */
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+}
@@ -0,0 +1,106 @@
+package com.esun.socialmedia.dto.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * 個人資料匯出狀態 DTO
+ *
+ * total_records 為開始匯出時統計的筆數（個人資料、發文與留言），匯出期間新增的內容
+ * 可能使 exported_records 略多於此數；完成後 size_bytes 為壓縮檔大小
+ *
+ * @author 開發團隊
+ */
+public class DataExportStatus {
+
+    /**
+     * 匯出工作狀態
+     */
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private State state;
+    private long exportedRecords;
+    private long totalRecords;
+    private int progressPercent;
+    private LocalDateTime requestedAt;
+    private LocalDateTime completedAt;
+    private Long sizeBytes;
+
+    // Constructors
+    public DataExportStatus() {
+    }
+
+    public DataExportStatus(State state, long exportedRecords, long totalRecords,
+                            LocalDateTime requestedAt, LocalDateTime completedAt, Long sizeBytes) {
+        this.state = state;
+        this.exportedRecords = exportedRecords;
+        this.totalRecords = totalRecords;
+        this.progressPercent = state == State.COMPLETED ? 100
+                : totalRecords == 0 ? 0 : (int) Math.min(99, exportedRecords * 100 / totalRecords);
+        this.requestedAt = requestedAt;
+        this.completedAt = completedAt;
+        this.sizeBytes = sizeBytes;
+    }
+
+    // Getters and Setters
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public long getExportedRecords() {
+        return exportedRecords;
+    }
+
+    public void setExportedRecords(long exportedRecords) {
+        this.exportedRecords = exportedRecords;
+    }
+
+    public long getTotalRecords() {
+        return totalRecords;
+    }
+
+    public void setTotalRecords(long totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+
+    public int getProgressPercent() {
+        return progressPercent;
+    }
+
+    public void setProgressPercent(int progressPercent) {
+        this.progressPercent = progressPercent;
+    }
+
+    public LocalDateTime getRequestedAt() {
+        return requestedAt;
+    }
+
+    public void setRequestedAt(LocalDateTime requestedAt) {
+        this.requestedAt = requestedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public boolean isDownloadable() {
+        return state == State.COMPLETED;
+    }
+}
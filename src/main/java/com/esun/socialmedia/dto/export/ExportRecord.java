@@ -0,0 +1,44 @@
+package com.esun.socialmedia.dto.export;
+
+/**
+ * 個人資料匯出檔的一行
+ *
+ * type 為 profile、post 或 comment，data 為對應的回應 DTO（不含重複的作者資訊）
+ *
+ * @author 開發團隊
+ */
+public class ExportRecord {
+
+    public static final String PROFILE = "profile";
+    public static final String POST = "post";
+    public static final String COMMENT = "comment";
+
+    private String type;
+    private Object data;
+
+    // Constructors
+    public ExportRecord() {
+    }
+
+    public ExportRecord(String type, Object data) {
+        this.type = type;
+        this.data = data;
+    }
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Object getData() {
+        return data;
+    }
+
+    public void setData(Object data) {
+        this.data = data;
+    }
+}
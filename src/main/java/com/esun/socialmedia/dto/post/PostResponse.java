@@ -1,7 +1,9 @@
 package com.esun.socialmedia.dto.post;
 
+import com.esun.socialmedia.dto.upload.ImageVariants;
 import com.esun.socialmedia.dto.user.UserResponse;
 import com.esun.socialmedia.entity.Post;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 
@@ -24,12 +26,16 @@ public class PostResponse {
     public PostResponse() {
     }
 
+    /**
+     * 唯讀映射：只讀取發文本身欄位與作者，不會初始化 comments 延遲載入集合；
+     * 留言數量預設為反正規化欄位（不含尚未寫回的增減量），需要即時數量時由呼叫端另外提供
+     */
     public PostResponse(Post post) {
         this.id = post.getId();
         this.content = post.getContent();
         this.image = post.getImage();
         this.author = UserResponse.from(post.getAuthor());
-        this.commentCount = (long) post.getComments().size();
+        this.commentCount = post.getCommentCount();
         this.createdAt = post.getCreatedAt();
         this.updatedAt = post.getUpdatedAt();
     }
@@ -45,6 +51,42 @@ public class PostResponse {
         return response;
     }
 
+    /**
+     * 複製一份並替換留言數量，已發布的實例不會被修改
+     * 
+     * @param commentCount 留言數量
+     * @return 新的發文回應
+     */
+    public PostResponse withCommentCount(Long commentCount) {
+        PostResponse copy = copy();
+        copy.commentCount = commentCount;
+        return copy;
+    }
+
+    /**
+     * 複製一份並替換作者資訊，已發布的實例不會被修改
+     * 
+     * @param author 作者資訊
+     * @return 新的發文回應
+     */
+    public PostResponse withAuthor(UserResponse author) {
+        PostResponse copy = copy();
+        copy.author = author;
+        return copy;
+    }
+
+    private PostResponse copy() {
+        PostResponse copy = new PostResponse();
+        copy.id = this.id;
+        copy.content = this.content;
+        copy.image = this.image;
+        copy.author = this.author;
+        copy.commentCount = this.commentCount;
+        copy.createdAt = this.createdAt;
+        copy.updatedAt = this.updatedAt;
+        return copy;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -70,6 +112,14 @@ public class PostResponse {
         this.image = image;
     }
 
+    /**
+     * 圖片縮圖 URL，縮圖完成前不出現
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public ImageVariants getImageVariants() {
+        return ImageVariants.of(image);
+    }
+
     public UserResponse getAuthor() {
         return author;
     }
@@ -0,0 +1,65 @@
+package com.esun.socialmedia.dto.upload;
+
+/**
+ * 圖片上傳回應 DTO
+ *
+ * url 可直接存入發文的 image 或使用者的 cover_image
+ *
+ * @author 開發團隊
+ */
+public class ImageUploadResponse {
+
+    private String url;
+    private String sha256;
+    private long size;
+    private String contentType;
+
+    // Constructors
+    public ImageUploadResponse() {
+    }
+
+    public ImageUploadResponse(String url, String sha256, long size, String contentType) {
+        this.url = url;
+        this.sha256 = sha256;
+        this.size = size;
+        this.contentType = contentType;
+    }
+
+    // Getters and Setters
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ImageUploadResponse{url='%s', size=%d, contentType='%s'}", url, size, contentType);
+    }
+}
@@ -0,0 +1,34 @@
+package com.esun.socialmedia.dto.upload;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * 圖片縮圖 URL
+ *
+ * 只保存原圖 URL，序列化時才由 ImageVariantsSerializer 查詢已完成的縮圖，
+ * 因此已快取的回應物件在縮圖完成後也會帶出縮圖 URL。
+ * JSON 格式為 {"寬度": "URL"}。
+ *
+ * @author 開發團隊
+ */
+@JsonSerialize(using = ImageVariantsSerializer.class)
+public final class ImageVariants {
+
+    private final String source;
+
+    private ImageVariants(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param imageUrl 原圖 URL
+     * @return 縮圖；沒有原圖時回傳 null
+     */
+    public static ImageVariants of(String imageUrl) {
+        return imageUrl == null || imageUrl.isEmpty() ? null : new ImageVariants(imageUrl);
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
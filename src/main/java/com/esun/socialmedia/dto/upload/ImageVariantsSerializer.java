@@ -0,0 +1,56 @@
+package com.esun.socialmedia.dto.upload;
+
+import com.esun.socialmedia.service.ImageVariantService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 圖片縮圖序列化器
+ *
+ * 由 Spring 建立（SpringHandlerInstantiator）時注入 ImageVariantService；
+ * 在 Spring 之外建立時沒有縮圖資訊，一律視為空值
+ *
+ * @author 開發團隊
+ */
+public class ImageVariantsSerializer extends StdSerializer<ImageVariants> {
+
+    private final ImageVariantService imageVariantService;
+
+    public ImageVariantsSerializer() {
+        this(null);
+    }
+
+    @Autowired
+    public ImageVariantsSerializer(ImageVariantService imageVariantService) {
+        super(ImageVariants.class);
+        this.imageVariantService = imageVariantService;
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider, ImageVariants value) {
+        return variants(value).isEmpty();
+    }
+
+    @Override
+    public void serialize(ImageVariants value, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject();
+        for (Map.Entry<Integer, String> variant : variants(value).entrySet()) {
+            generator.writeStringField(String.valueOf(variant.getKey()), variant.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    private Map<Integer, String> variants(ImageVariants value) {
+        if (value == null || imageVariantService == null) {
+            return Collections.emptyMap();
+        }
+        return imageVariantService.variants(value.getSource());
+    }
+}
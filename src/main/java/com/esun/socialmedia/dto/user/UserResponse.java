@@ -1,6 +1,8 @@
 package com.esun.socialmedia.dto.user;
 
+import com.esun.socialmedia.dto.upload.ImageVariants;
 import com.esun.socialmedia.entity.User;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.time.LocalDateTime;
 
@@ -80,6 +82,14 @@ public class UserResponse {
         this.coverImage = coverImage;
     }
 
+    /**
+     * 封面圖片縮圖 URL，縮圖完成前不出現
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public ImageVariants getCoverImageVariants() {
+        return ImageVariants.of(coverImage);
+    }
+
     public String getBiography() {
         return biography;
     }
@@ -0,0 +1,45 @@
+package com.esun.socialmedia.dto.user;
+
+/**
+ * 使用者名稱自動完成建議 DTO
+ *
+ * 只包含自動完成需要的欄位，直接由記憶體中的前綴索引產生
+ *
+ * @author 開發團隊
+ */
+public class UserSuggestion {
+
+    private Long id;
+    private String username;
+
+    // Constructors
+    public UserSuggestion() {
+    }
+
+    public UserSuggestion(Long id, String username) {
+        this.id = id;
+        this.username = username;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("UserSuggestion{id=%d, username='%s'}", id, username);
+    }
+}
@@ -12,7 +12,10 @@ import jakarta.validation.constraints.NotNull;
  * @author 開發團隊
  */
 @Entity
-@Table(name = "comments")
+@Table(name = "comments",
+       indexes = {
+           @Index(name = "idx_comments_post_created_at_id", columnList = "post_id, created_at, id")
+       })
 public class Comment extends BaseEntity {
 
     @NotBlank(message = "留言內容不能為空")
@@ -0,0 +1,69 @@
+package com.esun.socialmedia.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * 追蹤關係實體類別
+ * 
+ * 對應資料庫 follows 表格
+ * 
+ * @author 開發團隊
+ */
+@Entity
+@Table(name = "follows",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_follows_follower_followee", columnNames = {"follower_id", "followee_id"})
+       },
+       indexes = {
+           @Index(name = "idx_follows_followee_id", columnList = "followee_id")
+       })
+public class Follow extends BaseEntity {
+
+    // 多對一關聯：追蹤者
+    @NotNull(message = "追蹤者不能為空")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "follower_id", nullable = false, foreignKey = @ForeignKey(name = "fk_follows_follower_id"))
+    private User follower;
+
+    // 多對一關聯：被追蹤者
+    @NotNull(message = "被追蹤者不能為空")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "followee_id", nullable = false, foreignKey = @ForeignKey(name = "fk_follows_followee_id"))
+    private User followee;
+
+    // Constructors
+    public Follow() {
+    }
+
+    public Follow(User follower, User followee) {
+        this.follower = follower;
+        this.followee = followee;
+    }
+
+    // Getters and Setters
+    public User getFollower() {
+        return follower;
+    }
+
+    public void setFollower(User follower) {
+        this.follower = follower;
+    }
+
+    public User getFollowee() {
+        return followee;
+    }
+
+    public void setFollowee(User followee) {
+        this.followee = followee;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Follow{id=%d, followerId=%d, followeeId=%d, createdAt=%s}", 
+            getId(),
+            follower != null ? follower.getId() : null,
+            followee != null ? followee.getId() : null,
+            getCreatedAt());
+    }
+}
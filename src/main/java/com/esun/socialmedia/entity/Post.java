@@ -3,6 +3,8 @@ package com.esun.socialmedia.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,10 +14,19 @@ import java.util.List;
  * 
  * 對應資料庫 posts 表格
  * 
+ * 啟用二級快取（區域 posts）；留言數量以原生 SQL 批次寫回，提交後只失效被更新的發文
+ * 
  * @author 開發團隊
  */
 @Entity
-@Table(name = "posts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "posts")
+@Table(name = "posts",
+       indexes = {
+           @Index(name = "idx_posts_created_at_id", columnList = "created_at DESC, id DESC"),
+           @Index(name = "idx_posts_user_created_at_id", columnList = "user_id, created_at DESC, id DESC"),
+           @Index(name = "idx_posts_comment_count", columnList = "comment_count DESC, created_at DESC")
+       })
 public class Post extends BaseEntity {
 
     @NotBlank(message = "文章內容不能為空")
@@ -25,6 +36,10 @@ public class Post extends BaseEntity {
     @Column(name = "image")
     private String image;
 
+    // 反正規化的留言數量，由 CommentCountService 批次維護
+    @Column(name = "comment_count", nullable = false)
+    private long commentCount = 0L;
+
     // 多對一關聯：文章作者
     @NotNull(message = "文章作者不能為空")
     @ManyToOne(fetch = FetchType.LAZY)
@@ -68,6 +83,14 @@ public class Post extends BaseEntity {
         this.image = image;
     }
 
+    public long getCommentCount() {
+        return commentCount;
+    }
+
+    public void setCommentCount(long commentCount) {
+        this.commentCount = commentCount;
+    }
+
     public User getAuthor() {
         return author;
     }
@@ -95,21 +118,18 @@ public class Post extends BaseEntity {
         comment.setPost(null);
     }
 
-    public int getCommentCount() {
-        return comments.size();
-    }
-
     public boolean isAuthor(User user) {
         return author != null && author.equals(user);
     }
 
+    // 留言數量取自反正規化欄位，記錄日誌時不會初始化 comments 延遲載入集合
     @Override
     public String toString() {
         return String.format("Post{id=%d, content='%s', author='%s', commentCount=%d, createdAt=%s}", 
             getId(), 
             content.length() > 50 ? content.substring(0, 50) + "..." : content,
             author != null ? author.getUsername() : "null",
-            getCommentCount(),
+            commentCount,
             getCreatedAt());
     }
 }
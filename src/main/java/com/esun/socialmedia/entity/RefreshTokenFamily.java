@@ -0,0 +1,92 @@
+package com.esun.socialmedia.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * Refresh Token 家族實體類別
+ * 
+ * 同一次登入輪替產生的 Refresh Token 屬於同一家族，只有最新的一個（current_token_id）有效。
+ * 對應資料庫 refresh_token_families 表格
+ * 
+ * @author 開發團隊
+ */
+@Entity
+@Table(name = "refresh_token_families",
+       indexes = {
+           @Index(name = "idx_refresh_token_families_expires_at", columnList = "expires_at")
+       })
+public class RefreshTokenFamily extends BaseEntity {
+
+    // 多對一關聯：使用者
+    @NotNull(message = "使用者不能為空")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_refresh_token_families_user_id"))
+    private User user;
+
+    // 目前有效的 Refresh Token ID（jti）
+    @NotNull
+    @Column(name = "current_token_id", nullable = false, length = 36)
+    private String currentTokenId;
+
+    @NotNull
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked", nullable = false)
+    private boolean revoked = false;
+
+    // Constructors
+    public RefreshTokenFamily() {
+    }
+
+    public RefreshTokenFamily(User user, String currentTokenId, LocalDateTime expiresAt) {
+        this.user = user;
+        this.currentTokenId = currentTokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public String getCurrentTokenId() {
+        return currentTokenId;
+    }
+
+    public void setCurrentTokenId(String currentTokenId) {
+        this.currentTokenId = currentTokenId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RefreshTokenFamily{id=%d, userId=%d, expiresAt=%s, revoked=%s}", 
+            getId(),
+            user != null ? user.getId() : null,
+            expiresAt,
+            revoked);
+    }
+}
@@ -4,6 +4,9 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,9 +16,16 @@ import java.util.List;
  * 
  * 對應資料庫 users 表格
  * 
+ * 發文列表的作者反覆由二級快取載入（區域 users），更新在交易提交時同步失效
+ * 發文與留言列表中尚未載入的作者代理以批次載入：每頁最多 100 筆（分頁上限）合併為一次 IN 查詢，
+ * 已在二級快取中的作者不會查詢資料庫
+ * 
  * @author 開發團隊
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@BatchSize(size = 100)
 @Table(name = "users", 
        uniqueConstraints = {
            @UniqueConstraint(columnNames = "username"),
@@ -44,6 +54,10 @@ public class User extends BaseEntity {
     @Column(name = "biography", columnDefinition = "TEXT")
     private String biography;
 
+    // 反正規化的追蹤者數量，由追蹤/取消追蹤時原子更新
+    @Column(name = "follower_count", nullable = false)
+    private long followerCount = 0L;
+
     // 一對多關聯：使用者的發文
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Post> posts = new ArrayList<>();
@@ -103,6 +117,14 @@ public class User extends BaseEntity {
         this.biography = biography;
     }
 
+    public long getFollowerCount() {
+        return followerCount;
+    }
+
+    public void setFollowerCount(long followerCount) {
+        this.followerCount = followerCount;
+    }
+
     public List<Post> getPosts() {
         return posts;
     }
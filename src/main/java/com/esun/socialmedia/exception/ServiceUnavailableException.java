@@ -0,0 +1,25 @@
+package com.esun.socialmedia.exception;
+
+/**
+ * 服務暫時無法處理請求例外
+ * 
+ * 資源已達上限時快速拒絕請求，回應 503 並以 Retry-After 告知用戶端稍後重試
+ * 
+ * @author 開發團隊
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * @return 建議的重試等待秒數
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -3,22 +3,31 @@ package com.esun.socialmedia.repository;
 import com.esun.socialmedia.entity.Comment;
 import com.esun.socialmedia.entity.Post;
 import com.esun.socialmedia.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 留言資料存取介面
  * 
  * 提供留言相關的資料庫操作方法
  * 
+ * 列表查詢只查詢留言本身，作者於轉換回應時以批次載入（見 User 的 @BatchSize），
+ * 每頁一次 IN 查詢，分頁的總數查詢不 JOIN 作者。
+ * 留言的所屬發文只讀取 ID，不會初始化發文代理。
+ * 
  * @author 開發團隊
  */
 @Repository
@@ -40,6 +49,21 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     List<Comment> findByPostIdOrderByCreatedAtAsc(Long postId);
 
+    /**
+     * 以僅能向前的游標逐列讀取發文的所有留言及其作者欄位，按建立時間與 ID 升序排列
+     * 
+     * 只選取欄位不建立實體，持久化內容不會隨讀取列數成長；每次向資料庫取回 500 列。
+     * 必須在交易內讀取並關閉串流
+     * 
+     * @param postId 發文 ID
+     * @return 每列為 [留言 ID, 內容, 建立時間, 作者 ID, 使用者名稱, 電子郵件, 封面圖片, 自我介紹, 作者建立時間, 作者更新時間]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c.id, c.content, c.createdAt, a.id, a.username, a.email, a.coverImage, a.biography, " +
+           "a.createdAt, a.updatedAt FROM Comment c JOIN c.author a WHERE c.post.id = :postId " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    Stream<Object[]> streamThreadRows(@Param("postId") Long postId);
+
     /**
      * 根據發文查詢留言（分頁）
      * 
@@ -58,6 +82,44 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
      */
     Page<Comment> findByPostIdOrderByCreatedAtAsc(Long postId, Pageable pageable);
 
+    /**
+     * 根據發文 ID 查詢第一頁留言（游標分頁），按建立時間與 ID 升序排列
+     * 
+     * @param postId 發文 ID
+     * @param pageable 筆數限制
+     * @return 留言列表
+     */
+    List<Comment> findByPostIdOrderByCreatedAtAscIdAsc(Long postId, Pageable pageable);
+
+    /**
+     * 根據發文 ID 查詢指定游標之後的留言（游標分頁）
+     * 
+     * @param postId 發文 ID
+     * @param createdAt 游標的建立時間
+     * @param id 游標的留言 ID
+     * @param pageable 筆數限制
+     * @return 留言列表
+     */
+    @Query("SELECT c FROM Comment c WHERE c.post.id = :postId " +
+           "AND (c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id)) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Comment> findCommentsByPostAfter(@Param("postId") Long postId,
+                                          @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id,
+                                          Pageable pageable);
+
+    /**
+     * 以僅能向前的游標逐列讀取使用者的所有留言欄位（個人資料匯出用），按 ID 升序排列
+     * 
+     * 只選取欄位不建立實體，每次向資料庫取回 500 列；必須在交易內讀取並關閉串流
+     * 
+     * @param authorId 作者 ID
+     * @return 每列為 [留言 ID, 發文 ID, 內容, 建立時間]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c.id, c.post.id, c.content, c.createdAt FROM Comment c WHERE c.author.id = :authorId ORDER BY c.id")
+    Stream<Object[]> streamExportRows(@Param("authorId") Long authorId);
+
     /**
      * 根據作者查詢留言
      * 
@@ -141,13 +203,41 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     @Query("SELECT c FROM Comment c WHERE c.content LIKE %:keyword% ORDER BY c.createdAt DESC")
     Page<Comment> findByContentContaining(@Param("keyword") String keyword, Pageable pageable);
 
+    /**
+     * 根據 ID 集合查詢留言及其作者資訊
+     * 
+     * @param commentIds 留言 ID 集合
+     * @return 留言列表（包含作者）
+     */
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author WHERE c.id IN :commentIds")
+    List<Comment> findAllWithAuthorByIdIn(@Param("commentIds") Collection<Long> commentIds);
+
+    /**
+     * 查詢指定發文的所有留言 ID
+     * 
+     * @param postId 發文 ID
+     * @return 留言 ID 列表
+     */
+    @Query("SELECT c.id FROM Comment c WHERE c.post.id = :postId")
+    List<Long> findIdsByPostId(@Param("postId") Long postId);
+
+    /**
+     * 依主鍵遞增批次讀取留言 ID 與內容（建立全文檢索索引用）
+     * 
+     * @param afterId 上一批最後的留言 ID
+     * @param pageable 批次大小
+     * @return 每列為 [留言 ID, 內容]
+     */
+    @Query("SELECT c.id, c.content FROM Comment c WHERE c.id > :afterId ORDER BY c.id")
+    List<Object[]> findContentBatch(@Param("afterId") Long afterId, Pageable pageable);
+
     /**
      * 查詢最新的留言
      * 
      * @param limit 數量限制
      * @return 最新留言列表
      */
-    @Query("SELECT c FROM Comment c ORDER BY c.createdAt DESC LIMIT :limit")
+    @Query("SELECT c FROM Comment c JOIN FETCH c.author ORDER BY c.createdAt DESC, c.id DESC LIMIT :limit")
     List<Comment> findLatestComments(@Param("limit") int limit);
 
     /**
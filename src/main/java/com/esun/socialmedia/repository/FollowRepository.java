@@ -0,0 +1,48 @@
+package com.esun.socialmedia.repository;
+
+import com.esun.socialmedia.entity.Follow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 追蹤關係資料存取介面
+ * 
+ * 提供追蹤關係相關的資料庫操作方法
+ * 
+ * @author 開發團隊
+ */
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    /**
+     * 查詢追蹤關係
+     * 
+     * @param followerId 追蹤者 ID
+     * @param followeeId 被追蹤者 ID
+     * @return 追蹤關係（如果存在）
+     */
+    Optional<Follow> findByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+
+    /**
+     * 檢查是否已追蹤
+     * 
+     * @param followerId 追蹤者 ID
+     * @param followeeId 被追蹤者 ID
+     * @return 是否已追蹤
+     */
+    boolean existsByFollowerIdAndFolloweeId(Long followerId, Long followeeId);
+
+    /**
+     * 查詢使用者所有追蹤者的 ID
+     * 
+     * @param followeeId 被追蹤者 ID
+     * @return 追蹤者 ID 列表
+     */
+    @Query("SELECT f.follower.id FROM Follow f WHERE f.followee.id = :followeeId")
+    List<Long> findFollowerIds(@Param("followeeId") Long followeeId);
+}
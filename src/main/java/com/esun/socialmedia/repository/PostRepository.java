@@ -2,22 +2,31 @@ package com.esun.socialmedia.repository;
 
 import com.esun.socialmedia.entity.Post;
 import com.esun.socialmedia.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 發文資料存取介面
  * 
  * 提供發文相關的資料庫操作方法
  * 
+ * 列表查詢只查詢發文本身，作者於轉換回應時以批次載入（見 User 的 @BatchSize），
+ * 每頁一次 IN 查詢，分頁的總數查詢不 JOIN 作者。
+ * 
  * @author 開發團隊
  */
 @Repository
@@ -26,11 +35,64 @@ public interface PostRepository extends JpaRepository<Post, Long> {
     /**
      * 查詢所有發文，按建立時間降序排列
      * 
+     * 結果（含總數查詢）使用查詢快取，posts 表格有寫入時失效
+     * 
      * @param pageable 分頁參數
      * @return 發文分頁列表
      */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Page<Post> findAllByOrderByCreatedAtDesc(Pageable pageable);
 
+    /**
+     * 查詢第一頁發文（游標分頁），按建立時間與 ID 降序排列
+     * 
+     * @param pageable 筆數限制
+     * @return 發文列表
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Post> findAllByOrderByCreatedAtDescIdDesc(Pageable pageable);
+
+    /**
+     * 查詢指定游標之後的發文（游標分頁）
+     * 
+     * @param createdAt 游標的建立時間
+     * @param id 游標的發文 ID
+     * @param pageable 筆數限制
+     * @return 發文列表
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT p FROM Post p WHERE p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findPostsBefore(@Param("createdAt") LocalDateTime createdAt,
+                               @Param("id") Long id,
+                               Pageable pageable);
+
+    /**
+     * 根據作者查詢第一頁發文（游標分頁）
+     * 
+     * @param authorId 作者 ID
+     * @param pageable 筆數限制
+     * @return 發文列表
+     */
+    List<Post> findByAuthorIdOrderByCreatedAtDescIdDesc(Long authorId, Pageable pageable);
+
+    /**
+     * 根據作者查詢指定游標之後的發文（游標分頁）
+     * 
+     * @param authorId 作者 ID
+     * @param createdAt 游標的建立時間
+     * @param id 游標的發文 ID
+     * @param pageable 筆數限制
+     * @return 發文列表
+     */
+    @Query("SELECT p FROM Post p WHERE p.author.id = :authorId " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findPostsByAuthorBefore(@Param("authorId") Long authorId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
     /**
      * 根據作者查詢發文
      * 
@@ -49,6 +111,19 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      */
     Page<Post> findByAuthorIdOrderByCreatedAtDesc(Long authorId, Pageable pageable);
 
+    /**
+     * 以僅能向前的游標逐列讀取使用者的所有發文欄位（個人資料匯出用），按 ID 升序排列
+     * 
+     * 只選取欄位不建立實體，每次向資料庫取回 500 列；必須在交易內讀取並關閉串流
+     * 
+     * @param authorId 作者 ID
+     * @return 每列為 [發文 ID, 內容, 圖片, 留言數量, 建立時間, 更新時間]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id, p.content, p.image, p.commentCount, p.createdAt, p.updatedAt " +
+           "FROM Post p WHERE p.author.id = :authorId ORDER BY p.id")
+    Stream<Object[]> streamExportRows(@Param("authorId") Long authorId);
+
     /**
      * 查詢發文及其作者資訊
      * 
@@ -113,17 +188,94 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      * @param limit 數量限制
      * @return 最新發文列表
      */
-    @Query("SELECT p FROM Post p ORDER BY p.createdAt DESC LIMIT :limit")
+    @Query("SELECT p FROM Post p JOIN FETCH p.author ORDER BY p.createdAt DESC, p.id DESC LIMIT :limit")
     List<Post> findLatestPosts(@Param("limit") int limit);
 
     /**
-     * 查詢熱門發文（根據留言數量）
+     * 查詢留言數量最多的發文及其作者資訊，用於熱門排行冷啟動
      * 
-     * @param pageable 分頁參數
-     * @return 熱門發文分頁列表
+     * @param pageable 筆數限制
+     * @return 發文列表（包含作者）
      */
-    @Query("SELECT p FROM Post p LEFT JOIN p.comments c GROUP BY p ORDER BY COUNT(c) DESC, p.createdAt DESC")
-    Page<Post> findPopularPosts(Pageable pageable);
+    @Query("SELECT p FROM Post p JOIN FETCH p.author ORDER BY p.commentCount DESC, p.createdAt DESC")
+    List<Post> findPopularPosts(Pageable pageable);
+
+    /**
+     * 根據 ID 集合查詢發文及其作者資訊
+     * 
+     * @param postIds 發文 ID 集合
+     * @return 發文列表（包含作者）
+     */
+    @Query("SELECT p FROM Post p JOIN FETCH p.author WHERE p.id IN :postIds")
+    List<Post> findAllWithAuthorByIdIn(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * 依主鍵遞增批次讀取發文 ID 與內容（建立全文檢索索引用）
+     * 
+     * @param afterId 上一批最後的發文 ID
+     * @param pageable 批次大小
+     * @return 每列為 [發文 ID, 內容]
+     */
+    @Query("SELECT p.id, p.content FROM Post p WHERE p.id > :afterId ORDER BY p.id")
+    List<Object[]> findContentBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 批次調整發文的留言數量
+     * 
+     * 以原生 SQL 執行並宣告不影響任何快取的表格，避免 Hibernate 清空整個 posts 區域與相關查詢快取；
+     * 呼叫端須於提交後自行失效被更新的發文（見 EntityCacheService）
+     * 
+     * @param postIds 發文 ID 集合
+     * @param delta 調整量（可為負數）
+     * @return 更新筆數
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ""))
+    @Query(value = "UPDATE posts SET comment_count = comment_count + :delta WHERE id IN (:postIds)",
+           nativeQuery = true)
+    int addToCommentCount(@Param("postIds") Collection<Long> postIds, @Param("delta") long delta);
+
+    /**
+     * 校正與實際留言數不符的發文留言數量
+     * 
+     * @return 被校正的發文數量
+     */
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = (SELECT COUNT(c) FROM Comment c WHERE c.post.id = p.id) " +
+           "WHERE p.commentCount <> (SELECT COUNT(c) FROM Comment c WHERE c.post.id = p.id)")
+    int reconcileCommentCounts();
+
+    /**
+     * 查詢追蹤對象中低於扇出門檻作者的發文 ID，用於重建使用者的時間軸
+     * 
+     * @param followerId 追蹤者 ID
+     * @param threshold 扇出門檻（追蹤者數量）
+     * @param pageable 筆數限制
+     * @return 發文 ID 列表（由新到舊）
+     */
+    @Query("SELECT p.id FROM Follow f JOIN Post p ON p.author = f.followee " +
+           "WHERE f.follower.id = :followerId AND f.followee.followerCount < :threshold " +
+           "ORDER BY p.id DESC")
+    List<Long> findFanoutTimelinePostIds(@Param("followerId") Long followerId,
+                                         @Param("threshold") long threshold,
+                                         Pageable pageable);
+
+    /**
+     * 查詢追蹤對象中達到扇出門檻作者在指定 ID 之前的發文 ID，於讀取時間軸時合併
+     * 
+     * @param followerId 追蹤者 ID
+     * @param threshold 扇出門檻（追蹤者數量）
+     * @param beforeId 只查詢小於此 ID 的發文
+     * @param pageable 筆數限制
+     * @return 發文 ID 列表（由新到舊）
+     */
+    @Query("SELECT p.id FROM Follow f JOIN Post p ON p.author = f.followee " +
+           "WHERE f.follower.id = :followerId AND f.followee.followerCount >= :threshold AND p.id < :beforeId " +
+           "ORDER BY p.id DESC")
+    List<Long> findHighFanoutPostIdsBefore(@Param("followerId") Long followerId,
+                                           @Param("threshold") long threshold,
+                                           @Param("beforeId") long beforeId,
+                                           Pageable pageable);
 
     /**
      * 檢查使用者是否為發文作者
@@ -134,4 +286,14 @@ public interface PostRepository extends JpaRepository<Post, Long> {
      */
     @Query("SELECT COUNT(p) > 0 FROM Post p WHERE p.id = :postId AND p.author.id = :userId")
     boolean isAuthor(@Param("postId") Long postId, @Param("userId") Long userId);
+
+    /**
+     * 讀取計算發文版本所需的欄位（條件式 GET 用，不載入實體）
+     * 
+     * @param postId 發文 ID
+     * @return 存在時為一列 [發文更新時間, 留言數量, 圖片, 作者更新時間, 作者封面圖片]
+     */
+    @Query("SELECT p.updatedAt, p.commentCount, p.image, a.updatedAt, a.coverImage " +
+           "FROM Post p JOIN p.author a WHERE p.id = :postId")
+    List<Object[]> findVersionById(@Param("postId") Long postId);
 }
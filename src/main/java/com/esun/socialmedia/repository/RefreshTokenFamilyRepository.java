@@ -0,0 +1,73 @@
+package com.esun.socialmedia.repository;
+
+import com.esun.socialmedia.entity.RefreshTokenFamily;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Refresh Token 家族資料存取介面
+ * 
+ * @author 開發團隊
+ */
+@Repository
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, Long> {
+
+    /**
+     * 輪替家族目前有效的 Token，只有目前 Token 相符且未撤銷時才會更新
+     * 
+     * @param id 家族 ID
+     * @param currentTokenId 呈現的 Token ID
+     * @param nextTokenId 新的 Token ID
+     * @param expiresAt 新的過期時間
+     * @return 更新筆數（0 表示已被輪替或撤銷）
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.currentTokenId = :nextTokenId, f.expiresAt = :expiresAt, " +
+           "f.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE f.id = :id AND f.currentTokenId = :currentTokenId AND f.revoked = false")
+    int rotate(@Param("id") Long id,
+               @Param("currentTokenId") String currentTokenId,
+               @Param("nextTokenId") String nextTokenId,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * 撤銷整個家族
+     * 
+     * @param id 家族 ID
+     * @return 更新筆數
+     */
+    @Modifying
+    @Query("UPDATE RefreshTokenFamily f SET f.revoked = true, f.updatedAt = CURRENT_TIMESTAMP WHERE f.id = :id")
+    int revoke(@Param("id") Long id);
+
+    /**
+     * 刪除已過期的家族
+     * 
+     * @param now 目前時間
+     * @return 刪除筆數
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshTokenFamily f WHERE f.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * 依 ID 順序批次查詢尚未過期的家族（建立記憶體索引用）
+     * 
+     * @param afterId 上一批最後的家族 ID
+     * @param now 目前時間
+     * @param pageable 批次大小
+     * @return [家族 ID, 使用者 ID, 目前 Token ID, 過期時間, 是否撤銷]
+     */
+    @Query("SELECT f.id, f.user.id, f.currentTokenId, f.expiresAt, f.revoked FROM RefreshTokenFamily f " +
+           "WHERE f.id > :afterId AND f.expiresAt > :now ORDER BY f.id")
+    List<Object[]> findActiveBatch(@Param("afterId") Long afterId,
+                                   @Param("now") LocalDateTime now,
+                                   Pageable pageable);
+}
@@ -1,11 +1,18 @@
 package com.esun.socialmedia.repository;
 
 import com.esun.socialmedia.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -103,4 +110,68 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     @Query("SELECT u FROM User u WHERE u.username LIKE %:username%")
     java.util.List<User> findByUsernameContaining(@Param("username") String username);
+
+    /**
+     * 根據使用者名稱前綴查詢（不分大小寫，依使用者名稱排序）
+     * 
+     * @param prefix 使用者名稱前綴
+     * @param pageable 分頁參數
+     * @return 符合條件的使用者分頁列表
+     */
+    @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE CONCAT(LOWER(:prefix), '%') ORDER BY LOWER(u.username), u.id")
+    Page<User> findByUsernamePrefix(@Param("prefix") String prefix, Pageable pageable);
+
+    /**
+     * 依主鍵遞增批次讀取使用者 ID 與名稱（建立使用者名稱索引用）
+     * 
+     * @param afterId 上一批最後的使用者 ID
+     * @param pageable 批次大小
+     * @return 每列為 [使用者 ID, 使用者名稱]
+     */
+    @Query("SELECT u.id, u.username FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findUsernameBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 依主鍵遞增批次讀取使用者 ID、名稱與電子郵件（建立可用性過濾器用）
+     * 
+     * @param afterId 上一批最後的使用者 ID
+     * @param pageable 批次大小
+     * @return 每列為 [使用者 ID, 使用者名稱, 電子郵件]
+     */
+    @Query("SELECT u.id, u.username, u.email FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Object[]> findUsernameAndEmailBatch(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 調整使用者的追蹤者數量
+     * 
+     * 以原生 SQL 執行並宣告不影響任何快取的表格，避免 Hibernate 清空整個 users 區域；
+     * 呼叫端須於提交後自行失效該使用者（見 EntityCacheService）
+     * 
+     * @param userId 使用者 ID
+     * @param delta 調整量（可為負數）
+     * @return 更新筆數
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = ""))
+    @Query(value = "UPDATE users SET follower_count = follower_count + :delta WHERE id = :userId",
+           nativeQuery = true)
+    int addToFollowerCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    /**
+     * 查詢使用者目前的追蹤者數量（讀取資料庫，不經過二級快取）
+     * 
+     * @param userId 使用者 ID
+     * @return 追蹤者數量
+     */
+    @Query("SELECT u.followerCount FROM User u WHERE u.id = :userId")
+    long findFollowerCountById(@Param("userId") Long userId);
+
+    /**
+     * 讀取計算使用者版本所需的欄位（條件式 GET 用，不載入實體）
+     * 
+     * @param userId 使用者 ID
+     * @return 存在時為一列 [更新時間, 封面圖片]
+     */
+    @Query("SELECT u.updatedAt, u.coverImage FROM User u WHERE u.id = :userId")
+    List<Object[]> findVersionById(@Param("userId") Long userId);
 }
@@ -4,6 +4,7 @@ import com.esun.socialmedia.entity.User;
 import com.esun.socialmedia.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,18 +13,21 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * 自定義 UserDetailsService 實作
  * 
- * 從資料庫載入使用者資訊以供 Spring Security 使用
+ * 從資料庫載入使用者資訊以供 Spring Security 使用，
+ * 並於登入時儲存以新成本重新雜湊的密碼
  * 
  * @author 開發團隊
  */
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserPrincipalCache principalCache;
 
     @Autowired
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserPrincipalCache principalCache) {
         this.userRepository = userRepository;
+        this.principalCache = principalCache;
     }
 
     /**
@@ -59,6 +63,26 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new UserPrincipal(user);
     }
 
+    /**
+     * 儲存重新雜湊的密碼
+     * 
+     * @param userDetails 已通過驗證的使用者
+     * @param newPassword 以目前設定成本產生的密碼雜湊
+     * @return 更新後的使用者詳細資訊
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        Long userId = ((UserPrincipal) userDetails).getId();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException(
+                    String.format("找不到使用者 ID: %d", userId)));
+        user.setPasswordHash(newPassword);
+        User savedUser = userRepository.save(user);
+        principalCache.invalidate(userId);
+        return new UserPrincipal(savedUser);
+    }
+
     /**
      * 檢查使用者是否存在
      * 
@@ -27,11 +27,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final UserPrincipalCache principalCache;
+    private final TokenRevocationService revocationService;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   UserPrincipalCache principalCache,
+                                   TokenRevocationService revocationService,
+                                   RefreshTokenService refreshTokenService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.principalCache = principalCache;
+        this.revocationService = revocationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @Override
@@ -42,15 +52,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && jwtUtil.isTokenValid(jwt)) {
-                String username = jwtUtil.extractUsername(jwt);
+            // 每個請求只驗證一次簽名，後續檢查都使用同一個已驗證的 Token
+            VerifiedToken token = StringUtils.hasText(jwt) ? verifyToken(jwt) : null;
+            
+            if (token != null) {
+                String username = token.getUsername();
                 
                 // 如果 Token 有效且當前沒有認證資訊
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    UserDetails userDetails = loadUser(token);
                     
                     // 驗證 Token
-                    if (jwtUtil.validateToken(jwt, userDetails)) {
+                    if (jwtUtil.validateToken(token, userDetails)) {
                         UsernamePasswordAuthenticationToken authentication = 
                             new UsernamePasswordAuthenticationToken(
                                 userDetails, 
@@ -70,6 +83,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * 驗證 JWT Token
+     * 
+     * @param jwt JWT Token
+     * @return 已驗證的 Token；格式、簽名錯誤、已過期、已登出或所屬家族已撤銷時回傳 null
+     */
+    private VerifiedToken verifyToken(String jwt) {
+        try {
+            VerifiedToken token = jwtUtil.verify(jwt);
+            boolean revoked = revocationService.isRevoked(token.getTokenId())
+                    || refreshTokenService.isRevoked(token.getFamilyId());
+            return revoked ? null : token;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 載入 Token 所屬使用者
+     * 
+     * Token 帶有使用者 ID 時由快取取得，未命中才依 ID 查詢；
+     * 舊版未帶 ID 的 Token 仍依使用者名稱查詢
+     * 
+     * @param token 已驗證的 Token
+     * @return 使用者詳細資訊
+     */
+    private UserDetails loadUser(VerifiedToken token) {
+        Long userId = token.getUserId();
+        if (userId == null) {
+            return userDetailsService.loadUserByUsername(token.getUsername());
+        }
+        return principalCache.get(userId, id -> (UserPrincipal) userDetailsService.loadUserById(id));
+    }
+
     /**
      * 從請求中提取 JWT Token
      * 
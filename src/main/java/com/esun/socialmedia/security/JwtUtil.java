@@ -1,5 +1,8 @@
 package com.esun.socialmedia.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -7,21 +10,56 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 /**
  * JWT 工具類別
  * 
- * 提供 JWT Token 的產生、解析和驗證功能
+ * 提供 JWT Token 的產生、解析和驗證功能。
+ * 簽名密鑰與 JwtParser 只建立一次；驗證成功的 Token 以其 SHA-256 摘要為鍵快取到過期為止，
+ * 同一 Token 的後續請求不需重新驗證簽名與解析 JSON。
  * 
  * @author 開發團隊
  */
 @Component
 public class JwtUtil {
 
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    // 快取項目於 Token 本身的 exp 時移除，不佔用容量到被淘汰為止
+    private static final Expiry<ByteBuffer, VerifiedToken> UNTIL_TOKEN_EXPIRES = new Expiry<>() {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken token, long currentTime) {
+            long remainingMillis = token.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0L, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    };
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -31,6 +69,46 @@ public class JwtUtil {
     @Value("${jwt.refresh-expiration}")
     private Long refreshExpiration;
 
+    @Value("${jwt.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    // 延遲建立，第一次使用後重複使用（皆為不可變且執行緒安全）
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+
+    // 已驗證 Token 快取（Caffeine，讀取不需取得鎖），延遲建立以套用設定的上限
+    private volatile Cache<ByteBuffer, VerifiedToken> verifiedTokens;
+
+    /**
+     * 驗證 Token 簽名並解析聲明
+     * 
+     * 驗證成功的結果會快取到 Token 過期為止；過期或無效的 Token 不會被快取
+     * 
+     * @param token JWT Token
+     * @return 已驗證且尚未過期的 Token
+     * @throws IllegalArgumentException Token 格式、簽名錯誤或已過期
+     */
+    public VerifiedToken verify(String token) {
+        if (cacheSize <= 0) {
+            return new VerifiedToken(extractAllClaims(token));
+        }
+
+        ByteBuffer key = digest(token);
+        Cache<ByteBuffer, VerifiedToken> cache = getVerifiedTokens();
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                return cached;
+            }
+            cache.invalidate(key);
+            throw new IllegalArgumentException("無效的 JWT Token");
+        }
+
+        VerifiedToken verified = new VerifiedToken(extractAllClaims(token));
+        cache.put(key, verified);
+        return verified;
+    }
+
     /**
      * 從 Token 中提取使用者名稱
      */
@@ -49,7 +127,7 @@ public class JwtUtil {
      * 從 Token 中提取指定的聲明
      */
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token).getClaims();
         return claimsResolver.apply(claims);
     }
 
@@ -58,9 +136,7 @@ public class JwtUtil {
      */
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
+            return getParser()
                     .parseSignedClaims(token)
                     .getPayload();
         } catch (JwtException e) {
@@ -69,17 +145,23 @@ public class JwtUtil {
     }
 
     /**
-     * 檢查 Token 是否過期
+     * 產生 Access Token
+     * 
+     * 包含使用者 ID，認證時可依 ID 取得快取的使用者資訊
      */
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public String generateToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        putUserId(claims, userDetails);
+        return createToken(claims, userDetails.getUsername(), expiration);
     }
 
     /**
-     * 產生 Access Token
+     * 產生屬於指定 Refresh Token 家族的 Access Token，家族撤銷時一併失效
      */
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(UserDetails userDetails, Long familyId) {
         Map<String, Object> claims = new HashMap<>();
+        putUserId(claims, userDetails);
+        claims.put("fid", familyId);
         return createToken(claims, userDetails.getUsername(), expiration);
     }
 
@@ -89,25 +171,57 @@ public class JwtUtil {
     public String generateRefreshToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "refresh");
+        putUserId(claims, userDetails);
         return createToken(claims, userDetails.getUsername(), refreshExpiration);
     }
 
+    /**
+     * 產生屬於指定家族的 Refresh Token
+     * 
+     * @param userDetails 使用者
+     * @param familyId 家族 ID
+     * @param tokenId Token ID（jti），由家族記錄為目前有效的 Token
+     */
+    public String generateRefreshToken(UserDetails userDetails, Long familyId, String tokenId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("type", "refresh");
+        putUserId(claims, userDetails);
+        claims.put("fid", familyId);
+        return createToken(claims, userDetails.getUsername(), refreshExpiration, tokenId);
+    }
+
     /**
      * 產生帶有額外聲明的 Token
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return createToken(extraClaims, userDetails.getUsername(), expiration);
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        putUserId(claims, userDetails);
+        return createToken(claims, userDetails.getUsername(), expiration);
+    }
+
+    /**
+     * 加入使用者 ID 聲明
+     */
+    private static void putUserId(Map<String, Object> claims, UserDetails userDetails) {
+        if (userDetails instanceof UserPrincipal principal && principal.getId() != null) {
+            claims.put("userId", principal.getId());
+        }
     }
 
     /**
      * 建立 Token
      */
     private String createToken(Map<String, Object> claims, String subject, Long expiration) {
+        return createToken(claims, subject, expiration, UUID.randomUUID().toString());
+    }
+
+    private String createToken(Map<String, Object> claims, String subject, Long expiration, String tokenId) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
                 .claims(claims)
+                .id(tokenId)
                 .subject(subject)
                 .issuedAt(now)
                 .expiration(expiryDate)
@@ -120,20 +234,25 @@ public class JwtUtil {
      */
     public Boolean validateToken(String token, UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
-            return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+            return validateToken(verify(token), userDetails);
         } catch (Exception e) {
             return false;
         }
     }
 
+    /**
+     * 驗證已解析的 Token 是否屬於指定使用者且尚未過期
+     */
+    public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+        return userDetails.getUsername().equals(token.getUsername()) && !token.isExpired();
+    }
+
     /**
      * 驗證 Token 格式和簽名
      */
     public Boolean isTokenValid(String token) {
         try {
-            extractAllClaims(token);
-            return !isTokenExpired(token);
+            return !verify(token).isExpired();
         } catch (Exception e) {
             return false;
         }
@@ -144,8 +263,7 @@ public class JwtUtil {
      */
     public Boolean isRefreshToken(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            return "refresh".equals(claims.get("type"));
+            return verify(token).isRefreshToken();
         } catch (Exception e) {
             return false;
         }
@@ -155,8 +273,55 @@ public class JwtUtil {
      * 獲取簽名密鑰
      */
     private SecretKey getSigningKey() {
-        byte[] keyBytes = java.util.Base64.getDecoder().decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        SecretKey key = signingKey;
+        if (key == null) {
+            byte[] keyBytes = java.util.Base64.getDecoder().decode(secret);
+            key = Keys.hmacShaKeyFor(keyBytes);
+            signingKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * 獲取 Token 解析器
+     */
+    private JwtParser getParser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parser()
+                    .verifyWith(getSigningKey())
+                    .build();
+            parser = current;
+        }
+        return current;
+    }
+
+    /**
+     * 獲取已驗證 Token 快取
+     */
+    private Cache<ByteBuffer, VerifiedToken> getVerifiedTokens() {
+        Cache<ByteBuffer, VerifiedToken> current = verifiedTokens;
+        if (current == null) {
+            synchronized (this) {
+                current = verifiedTokens;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .maximumSize(cacheSize)
+                            .expireAfter(UNTIL_TOKEN_EXPIRES)
+                            .build();
+                    verifiedTokens = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 計算 Token 的 SHA-256 摘要作為快取鍵，快取中不保存原始 Token
+     */
+    private static ByteBuffer digest(String token) {
+        // 以 UTF-8 編碼：US-ASCII 會把所有非 ASCII 字元換成 '?'，使不同的字串得到相同的鍵
+        return ByteBuffer.wrap(SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
     }
 
     /**
@@ -171,17 +336,23 @@ public class JwtUtil {
         }
     }
 
+    /**
+     * 從 Token 中提取 Token ID（jti），無效或舊版 Token 回傳 null
+     */
+    public String extractTokenId(String token) {
+        try {
+            return verify(token).getTokenId();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * 從 Token 中提取使用者 ID（如果存在）
      */
     public Long extractUserId(String token) {
         try {
-            Claims claims = extractAllClaims(token);
-            Object userIdObj = claims.get("userId");
-            if (userIdObj instanceof Number) {
-                return ((Number) userIdObj).longValue();
-            }
-            return null;
+            return verify(token).getUserId();
         } catch (Exception e) {
             return null;
         }
@@ -0,0 +1,213 @@
+package com.esun.socialmedia.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 請求限流過濾器
+ *
+ * 依端點分為三組各自限流：認證（POST /auth/**）、讀取（GET/HEAD）與寫入（其他方法）。
+ * 認證組一律以用戶端 IP 為鍵值，避免以不同帳號暴力嘗試登入；其他組已登入時以使用者 ID、
+ * 未登入時以 IP 為鍵值。因此本過濾器必須排在 JwtAuthenticationFilter 之後。
+ * 回應附上 RateLimit-Limit、RateLimit-Remaining、RateLimit-Reset 標頭，
+ * 超過限制時回應 429 並附 Retry-After。
+ *
+ * 用戶端 IP 取自 request.getRemoteAddr()，位於反向代理之後時需設定 server.forward-headers-strategy。
+ *
+ * @author 開發團隊
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_HEADER = "RateLimit-Limit";
+    public static final String REMAINING_HEADER = "RateLimit-Remaining";
+    public static final String RESET_HEADER = "RateLimit-Reset";
+
+    // 常用的標頭數值預先轉為字串
+    private static final String[] NUMBERS = new String[1024];
+
+    static {
+        for (int i = 0; i < NUMBERS.length; i++) {
+            NUMBERS[i] = Integer.toString(i);
+        }
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Group auth;
+    private Group reads;
+    private Group writes;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.rate-limit.auth.capacity:10}")
+    private int authCapacity = 10;
+
+    @Value("${app.rate-limit.auth.refill-interval:6000}")
+    private long authRefillInterval = 6000L;
+
+    @Value("${app.rate-limit.reads.capacity:100}")
+    private int readsCapacity = 100;
+
+    @Value("${app.rate-limit.reads.refill-interval:100}")
+    private long readsRefillInterval = 100L;
+
+    @Value("${app.rate-limit.writes.capacity:30}")
+    private int writesCapacity = 30;
+
+    @Value("${app.rate-limit.writes.refill-interval:1000}")
+    private long writesRefillInterval = 1000L;
+
+    @Autowired
+    public RateLimitFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 依設定建立各組權杖桶
+     */
+    @PostConstruct
+    public void init() {
+        auth = new Group("auth", authCapacity, authRefillInterval, meterRegistry);
+        reads = new Group("reads", readsCapacity, readsRefillInterval, meterRegistry);
+        writes = new Group("writes", writesCapacity, writesRefillInterval, meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Group group = groupOf(request);
+        Object key = group == auth ? request.getRemoteAddr() : clientKey(request);
+        long result = group.limiter.acquire(key, System.nanoTime());
+
+        response.setHeader(LIMIT_HEADER, group.limitHeader);
+        if (result < 0) {
+            group.rejected.increment();
+            long retryAfter = toSeconds(-result);
+            response.setHeader(REMAINING_HEADER, NUMBERS[0]);
+            response.setHeader(RESET_HEADER, number(retryAfter));
+            response.setHeader(HttpHeaders.RETRY_AFTER, number(retryAfter));
+            writeTooManyRequests(request, response);
+            return;
+        }
+        response.setHeader(REMAINING_HEADER, number(group.limiter.remaining(result)));
+        response.setHeader(RESET_HEADER, number(toSeconds(result)));
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * 不限流的請求：CORS 預檢、文件、健康檢查、H2 控制台與靜態檔案
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || "OPTIONS".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return path.startsWith("/actuator") ||
+               path.startsWith("/swagger-ui") ||
+               path.startsWith("/docs") ||
+               path.startsWith("/v3/api-docs") ||
+               path.startsWith("/h2-console") ||
+               path.startsWith("/uploads/");
+    }
+
+    /**
+     * 移除已補滿的權杖桶，記憶體用量只與近期活躍的用戶端數量有關
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.evict-interval:60000}",
+               initialDelayString = "${app.rate-limit.evict-interval:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        int evicted = auth.limiter.evictIdle(now) + reads.limiter.evictIdle(now) + writes.limiter.evictIdle(now);
+        if (evicted > 0) {
+            logger.debug("已移除 " + evicted + " 個閒置的限流權杖桶");
+        }
+    }
+
+    private Group groupOf(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            return reads;
+        }
+        return request.getServletPath().startsWith("/auth/") ? auth : writes;
+    }
+
+    /**
+     * 已登入時為使用者 ID，否則為用戶端 IP
+     */
+    private Object clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void writeTooManyRequests(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setStatus(429);
+
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now().toString());
+        errorResponse.put("status", 429);
+        errorResponse.put("error", "Too Many Requests");
+        errorResponse.put("message", "請求過於頻繁，請稍後再試");
+        errorResponse.put("path", request.getRequestURI());
+
+        response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
+    }
+
+    private static long toSeconds(long nanos) {
+        return Math.max(1L, (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static String number(long value) {
+        return value < NUMBERS.length ? NUMBERS[(int) value] : Long.toString(value);
+    }
+
+    private static final class Group {
+        private final RateLimiter limiter;
+        private final String limitHeader;
+        private final Counter rejected;
+
+        private Group(String name, int capacity, long refillIntervalMillis, MeterRegistry meterRegistry) {
+            this.limiter = new RateLimiter(capacity, TimeUnit.MILLISECONDS.toNanos(refillIntervalMillis));
+            this.limitHeader = Integer.toString(limiter.capacity());
+            this.rejected = Counter.builder("http.rate.limit.rejected")
+                    .description("超過限流而拒絕的請求數")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.rate.limit.buckets", limiter, RateLimiter::size)
+                    .description("限流權杖桶數量")
+                    .tag("group", name)
+                    .register(meterRegistry);
+        }
+    }
+}
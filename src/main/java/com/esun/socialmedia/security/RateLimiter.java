@@ -0,0 +1,106 @@
+package com.esun.socialmedia.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 權杖桶（token bucket）限流器
+ *
+ * 每個鍵值（使用者 ID 或 IP）一個權杖桶，容量為 capacity，每 interval 補充一個權杖。
+ * 權杖桶以「理論到達時間」（GCRA）表示：只需一個 long，取用權杖即以 CAS 將其往後推一個間隔，
+ * 不需鎖定，已存在的鍵值取用時也不配置任何物件。
+ * 理論到達時間早於現在代表權杖桶已滿，與新建的權杖桶相同，可以直接移除。
+ *
+ * @author 開發團隊
+ */
+final class RateLimiter {
+
+    // 新建的權杖桶：已滿
+    private static final long FULL = Long.MIN_VALUE;
+
+    private final int capacity;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    // 鍵值 -> 理論到達時間（奈秒）
+    private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param capacity 權杖桶容量（可連續發出的請求數）
+     * @param intervalNanos 補充一個權杖的間隔（奈秒）
+     */
+    RateLimiter(int capacity, long intervalNanos) {
+        this.capacity = Math.max(1, capacity);
+        this.intervalNanos = Math.max(1L, intervalNanos);
+        this.burstNanos = this.capacity * this.intervalNanos;
+    }
+
+    /**
+     * 取用一個權杖
+     *
+     * @param key 鍵值，必須實作 equals/hashCode
+     * @param now 目前時間（System.nanoTime）
+     * @return 成功時為權杖桶補滿所需的奈秒數（&gt;= 0）；
+     *         失敗時為負值，其絕對值是可取得下一個權杖的等待奈秒數
+     */
+    long acquire(Object key, long now) {
+        AtomicLong state = buckets.get(key);
+        if (state == null) {
+            state = buckets.computeIfAbsent(key, k -> new AtomicLong(FULL));
+        }
+        while (true) {
+            long tat = state.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            long wait = next - burstNanos - now;
+            if (wait > 0) {
+                return -wait;
+            }
+            if (state.compareAndSet(tat, next)) {
+                return next - now;
+            }
+        }
+    }
+
+    /**
+     * 依 acquire 的成功結果計算剩餘權杖數
+     *
+     * @param refillNanos acquire 回傳的補滿時間
+     * @return 剩餘權杖數
+     */
+    int remaining(long refillNanos) {
+        return (int) ((burstNanos - refillNanos) / intervalNanos);
+    }
+
+    /**
+     * 移除已補滿的權杖桶
+     *
+     * 與取用同時發生時，最多讓該鍵值多取得一個權杖
+     *
+     * @param now 目前時間（System.nanoTime）
+     * @return 移除數量
+     */
+    int evictIdle(long now) {
+        int evicted = 0;
+        for (Map.Entry<Object, AtomicLong> entry : buckets.entrySet()) {
+            if (entry.getValue().get() <= now && buckets.remove(entry.getKey(), entry.getValue())) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * @return 權杖桶容量
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return 權杖桶數量
+     */
+    int size() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,311 @@
+package com.esun.socialmedia.security;
+
+import com.esun.socialmedia.entity.RefreshTokenFamily;
+import com.esun.socialmedia.repository.RefreshTokenFamilyRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import com.esun.socialmedia.service.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Refresh Token 輪替服務
+ *
+ * 每次登入建立一個 Refresh Token 家族，每次刷新都以新的 Token 取代舊的，舊 Token 即失效（只能使用一次）。
+ * 再次出現已被取代的 Token 代表 Token 可能外洩，整個家族連同其 Access Token 一併撤銷。
+ * 家族狀態保存在記憶體索引中，刷新時不需查詢資料庫即可判定；
+ * 每次變更同步寫入資料庫（以條件更新避免重複輪替），輪替於交易提交後才更新記憶體，重新啟動時由資料庫載入。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class RefreshTokenService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private final RefreshTokenFamilyRepository familyRepository;
+    private final UserRepository userRepository;
+    private final JwtUtil jwtUtil;
+    private final TransactionTemplate readOnlyTemplate;
+    private final TransactionTemplate writeTemplate;
+
+    // 家族 ID -> 狀態
+    private final Map<Long, Family> families = new ConcurrentHashMap<>();
+
+    private final Counter rotated;
+    private final Counter reused;
+    private final Counter rejected;
+
+    @Value("${jwt.refresh-expiration}")
+    private Long refreshExpiration;
+
+    @Value("${app.refresh-token.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Autowired
+    public RefreshTokenService(RefreshTokenFamilyRepository familyRepository,
+                               UserRepository userRepository,
+                               JwtUtil jwtUtil,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.familyRepository = familyRepository;
+        this.userRepository = userRepository;
+        this.jwtUtil = jwtUtil;
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+        // 撤銷必須在拒絕請求（交易回滾）後仍然生效，使用獨立交易
+        this.writeTemplate = new TransactionTemplate(transactionManager);
+        this.writeTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.rotated = Counter.builder("auth.refresh.rotations")
+                .description("Refresh Token 刷新次數")
+                .tag("result", "rotated")
+                .register(meterRegistry);
+        this.reused = Counter.builder("auth.refresh.rotations")
+                .description("Refresh Token 刷新次數")
+                .tag("result", "reused")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.refresh.rotations")
+                .description("Refresh Token 刷新次數")
+                .tag("result", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("auth.refresh.families", families, Map::size)
+                .description("記憶體中的 Refresh Token 家族數量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 由資料庫載入尚未過期的家族
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            Pageable batch = PageRequest.of(0, batchSize);
+            long afterId = 0L;
+            while (true) {
+                long cursor = afterId;
+                List<Object[]> rows = readOnlyTemplate.execute(status ->
+                        familyRepository.findActiveBatch(cursor, now, batch));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    Family family = new Family((Long) row[1], (String) row[2], toMillis((LocalDateTime) row[3]));
+                    family.revoked = (Boolean) row[4];
+                    families.putIfAbsent((Long) row[0], family);
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                if (rows.size() < batchSize) {
+                    break;
+                }
+            }
+            log.info("Refresh Token 家族已載入：{} 個", families.size());
+        } catch (RuntimeException e) {
+            log.warn("Refresh Token 家族載入失敗，將於使用時逐一查詢資料庫: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 登入時建立新家族並發出第一個 Refresh Token
+     *
+     * @param principal 使用者
+     * @return 家族 ID 與 Refresh Token
+     */
+    @Transactional
+    public IssuedToken issue(UserPrincipal principal) {
+        String tokenId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + refreshExpiration;
+        RefreshTokenFamily entity = familyRepository.save(new RefreshTokenFamily(
+                userRepository.getReferenceById(principal.getId()), tokenId, toLocalDateTime(expiresAt)));
+
+        families.put(entity.getId(), new Family(principal.getId(), tokenId, expiresAt));
+        String token = jwtUtil.generateRefreshToken(principal, entity.getId(), tokenId);
+        return new IssuedToken(entity.getId(), token);
+    }
+
+    /**
+     * 以目前的 Refresh Token 換發新的 Refresh Token
+     *
+     * 呈現的不是家族目前的 Token 時視為重複使用，撤銷整個家族
+     *
+     * @param presented 已驗證的 Refresh Token
+     * @param principal Token 所屬使用者
+     * @return 家族 ID 與新的 Refresh Token
+     * @throws IllegalArgumentException Token 不屬於任何有效家族、已被使用或家族已撤銷
+     */
+    @Transactional
+    public IssuedToken rotate(VerifiedToken presented, UserPrincipal principal) {
+        Long familyId = presented.getFamilyId();
+        Family family = familyId != null ? find(familyId) : null;
+        if (family == null || !family.userId.equals(principal.getId())) {
+            rejected.increment();
+            throw new IllegalArgumentException("無效的 Refresh Token");
+        }
+
+        String nextTokenId = UUID.randomUUID().toString();
+        long expiresAt = System.currentTimeMillis() + refreshExpiration;
+        synchronized (family) {
+            if (family.revoked || family.expiresAt <= System.currentTimeMillis()) {
+                rejected.increment();
+                throw new IllegalArgumentException("無效的 Refresh Token");
+            }
+            if (!family.currentTokenId.equals(presented.getTokenId())
+                    || familyRepository.rotate(familyId, presented.getTokenId(), nextTokenId,
+                                               toLocalDateTime(expiresAt)) == 0) {
+                reused.increment();
+                markRevoked(familyId, family);
+                log.warn("Refresh Token 重複使用，已撤銷家族 {}（使用者 {}）", familyId, family.userId);
+                throw new IllegalArgumentException("無效的 Refresh Token");
+            }
+        }
+        // 資料庫的輪替隨呼叫端交易提交；交易回滾時記憶體維持原狀，用戶端仍可用原本的 Token 重試
+        String presentedTokenId = presented.getTokenId();
+        AfterCommit.run(() -> {
+            synchronized (family) {
+                if (family.currentTokenId.equals(presentedTokenId)) {
+                    family.currentTokenId = nextTokenId;
+                    family.expiresAt = expiresAt;
+                }
+            }
+        });
+        rotated.increment();
+        return new IssuedToken(familyId, jwtUtil.generateRefreshToken(principal, familyId, nextTokenId));
+    }
+
+    /**
+     * 撤銷整個家族（登出）
+     *
+     * @param familyId 家族 ID，舊版 Token 沒有家族時為 null
+     */
+    public void revoke(Long familyId) {
+        if (familyId == null) {
+            return;
+        }
+        Family family = find(familyId);
+        if (family != null) {
+            synchronized (family) {
+                markRevoked(familyId, family);
+            }
+        }
+    }
+
+    /**
+     * 檢查 Token 所屬家族是否已撤銷（只查詢記憶體）
+     *
+     * @param familyId 家族 ID
+     * @return 是否已撤銷
+     */
+    public boolean isRevoked(Long familyId) {
+        if (familyId == null) {
+            return false;
+        }
+        Family family = families.get(familyId);
+        return family != null && family.revoked;
+    }
+
+    /**
+     * 移除已過期的家族
+     */
+    @Scheduled(fixedDelayString = "${app.refresh-token.purge-interval:3600000}",
+               initialDelayString = "${app.refresh-token.purge-interval:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        families.values().removeIf(family -> family.expiresAt <= now);
+        try {
+            Integer deleted = writeTemplate.execute(status -> familyRepository.deleteExpired(toLocalDateTime(now)));
+            log.debug("已刪除 {} 個過期的 Refresh Token 家族", deleted);
+        } catch (RuntimeException e) {
+            log.warn("過期的 Refresh Token 家族刪除失敗: {}", e.getMessage());
+        }
+    }
+
+    private void markRevoked(Long familyId, Family family) {
+        if (!family.revoked) {
+            family.revoked = true;
+            writeTemplate.execute(status -> familyRepository.revoke(familyId));
+        }
+    }
+
+    /**
+     * 查詢家族狀態，記憶體中沒有時（例如其他執行個體建立）由資料庫載入
+     */
+    private Family find(Long familyId) {
+        Family family = families.get(familyId);
+        if (family != null) {
+            return family;
+        }
+        return familyRepository.findById(familyId)
+                .map(entity -> {
+                    Family loaded = new Family(entity.getUser().getId(), entity.getCurrentTokenId(),
+                            toMillis(entity.getExpiresAt()));
+                    loaded.revoked = entity.isRevoked();
+                    Family existing = families.putIfAbsent(familyId, loaded);
+                    return existing != null ? existing : loaded;
+                })
+                .orElse(null);
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 發出的 Refresh Token
+     */
+    public static final class IssuedToken {
+        private final Long familyId;
+        private final String token;
+
+        public IssuedToken(Long familyId, String token) {
+            this.familyId = familyId;
+            this.token = token;
+        }
+
+        public Long getFamilyId() {
+            return familyId;
+        }
+
+        public String getToken() {
+            return token;
+        }
+    }
+
+    private static final class Family {
+        private final Long userId;
+        private volatile String currentTokenId;
+        private volatile long expiresAt;
+        private volatile boolean revoked;
+
+        private Family(Long userId, String currentTokenId, long expiresAt) {
+            this.userId = userId;
+            this.currentTokenId = currentTokenId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.esun.socialmedia.security;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 雜湊時間輪（hashed timing wheel）
+ *
+ * 依到期時間將鍵值放入對應的時間槽，每次推進只檢查經過的時間槽，
+ * 加入為 O(1)，到期處理的成本只與經過的時間槽及其中的項目數量有關。
+ * 到期時間超過一圈的項目留在槽中，待之後轉到時再處理。
+ *
+ * @author 開發團隊
+ */
+final class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<Entry<K>>[] buckets;
+    private int size;
+
+    // 下一個要處理的時間刻度
+    private long currentTick;
+
+    /**
+     * @param tickMillis 每個時間槽的長度（毫秒）
+     * @param wheelSize 時間槽數量（調整為 2 的次方）
+     * @param now 目前時間（毫秒）
+     */
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int wheelSize, long now) {
+        int slots = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickMillis = Math.max(1L, tickMillis);
+        this.mask = slots - 1;
+        this.buckets = new List[slots];
+        for (int i = 0; i < slots; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.currentTick = now / this.tickMillis;
+    }
+
+    /**
+     * 加入項目
+     *
+     * @param key 鍵值
+     * @param expiresAt 到期時間（毫秒）
+     */
+    synchronized void add(K key, long expiresAt) {
+        // 放在到期時間之後的第一個刻度，該刻度處理時項目必定已到期
+        long tick = Math.max(Math.floorDiv(expiresAt + tickMillis - 1, tickMillis), currentTick);
+        buckets[(int) (tick & mask)].add(new Entry<>(key, expiresAt));
+        size++;
+    }
+
+    /**
+     * 推進到目前時間，移除並回報已到期的項目
+     *
+     * @param now 目前時間（毫秒）
+     * @param onExpired 到期項目的處理
+     */
+    synchronized void advance(long now, Consumer<K> onExpired) {
+        long target = now / tickMillis;
+        if (target < currentTick) {
+            return;
+        }
+        // 超過一圈時每個槽只需處理一次
+        long steps = Math.min(target - currentTick + 1, buckets.length);
+        for (long i = 0; i < steps; i++) {
+            Iterator<Entry<K>> it = buckets[(int) ((currentTick + i) & mask)].iterator();
+            while (it.hasNext()) {
+                Entry<K> entry = it.next();
+                if (entry.expiresAt <= now) {
+                    it.remove();
+                    size--;
+                    onExpired.accept(entry.key);
+                }
+            }
+        }
+        currentTick = target + 1;
+    }
+
+    /**
+     * @return 尚未到期的項目數量
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    private static final class Entry<K> {
+        private final K key;
+        private final long expiresAt;
+
+        private Entry(K key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.esun.socialmedia.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token 撤銷服務
+ *
+ * 登出時以 Token ID（jti）記錄撤銷，認證時只需查詢記憶體中的雜湊表，不需存取資料庫。
+ * 撤銷紀錄保留到 Token 本身過期為止，由時間輪移除，記憶體用量只與尚未過期的撤銷數量有關。
+ * 每筆撤銷附加寫入檔案（8 位元組到期時間、2 位元組長度、UTF-8 jti），重新啟動時重播未過期的紀錄；
+ * 檔案中過期紀錄過多時改寫為只含有效紀錄的新檔。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final int FILE_MAGIC = 0x52564B31; // "RVK1"
+    private static final int COMPACT_MIN_RECORDS = 1024;
+
+    // jti -> 到期時間（毫秒）
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private TimingWheel<String> wheel;
+
+    private FileChannel channel;
+    private long fileRecords;
+
+    @Value("${app.revocation.file:./data/revoked-tokens.log}")
+    private String revocationFile = "./data/revoked-tokens.log";
+
+    @Value("${app.revocation.tick:60000}")
+    private long tickMillis = 60000L;
+
+    @Value("${app.revocation.wheel-size:1024}")
+    private int wheelSize = 1024;
+
+    @Autowired
+    public TokenRevocationService(MeterRegistry meterRegistry) {
+        Gauge.builder("auth.revoked.tokens", revoked, Map::size)
+                .description("尚未過期的已撤銷 Token 數量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 重播撤銷紀錄檔並開啟附加寫入
+     */
+    @PostConstruct
+    public synchronized void open() {
+        long now = System.currentTimeMillis();
+        wheel = new TimingWheel<>(tickMillis, wheelSize, now);
+        Path path = Paths.get(revocationFile);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            fileRecords = replay(path, now);
+            channel = openForAppend(path);
+            log.info("已載入 {} 筆未過期的 Token 撤銷紀錄", revoked.size());
+        } catch (IOException e) {
+            channel = null;
+            log.warn("Token 撤銷紀錄檔無法開啟，撤銷只保留在記憶體中: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 撤銷 Token
+     *
+     * @param tokenId Token ID（jti）
+     * @param expiresAtMillis Token 過期時間（毫秒）
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revoked.putIfAbsent(tokenId, expiresAtMillis) != null) {
+            return;
+        }
+        synchronized (this) {
+            wheel.add(tokenId, expiresAtMillis);
+            append(tokenId, expiresAtMillis);
+        }
+    }
+
+    /**
+     * 檢查 Token 是否已撤銷
+     *
+     * @param tokenId Token ID（jti），舊版 Token 沒有 ID 時為 null
+     * @return 是否已撤銷
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * 移除已過期的撤銷紀錄，必要時壓縮紀錄檔
+     */
+    @Scheduled(fixedDelayString = "${app.revocation.tick:60000}",
+               initialDelayString = "${app.revocation.tick:60000}")
+    public synchronized void expire() {
+        wheel.advance(System.currentTimeMillis(), revoked::remove);
+        if (channel != null && fileRecords >= COMPACT_MIN_RECORDS && fileRecords > 2L * revoked.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * @return 尚未過期的撤銷數量
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Token 撤銷紀錄檔關閉失敗: {}", e.getMessage());
+            }
+            channel = null;
+        }
+    }
+
+    private long replay(Path path, long now) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            return 0L;
+        }
+        long records = 0L;
+        long validLength;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("格式不符: " + path);
+            }
+            validLength = Integer.BYTES;
+            while (true) {
+                long expiresAt;
+                byte[] tokenId;
+                try {
+                    expiresAt = in.readLong();
+                    tokenId = new byte[in.readUnsignedShort()];
+                    in.readFully(tokenId);
+                } catch (EOFException e) {
+                    break;
+                }
+                records++;
+                validLength += Long.BYTES + Short.BYTES + tokenId.length;
+                String key = new String(tokenId, StandardCharsets.UTF_8);
+                if (expiresAt > now && revoked.putIfAbsent(key, expiresAt) == null) {
+                    wheel.add(key, expiresAt);
+                }
+            }
+        }
+        // 寫入中斷留下的不完整紀錄，截斷後才能繼續附加
+        if (Files.size(path) > validLength) {
+            try (FileChannel truncating = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                truncating.truncate(validLength);
+            }
+        }
+        return records;
+    }
+
+    private FileChannel openForAppend(Path path) throws IOException {
+        FileChannel opened = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (opened.size() == 0) {
+            opened.write(ByteBuffer.allocate(Integer.BYTES).putInt(FILE_MAGIC).flip());
+        }
+        return opened;
+    }
+
+    private void append(String tokenId, long expiresAt) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            byte[] key = tokenId.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = ByteBuffer.allocate(Long.BYTES + Short.BYTES + key.length)
+                    .putLong(expiresAt)
+                    .putShort((short) key.length)
+                    .put(key)
+                    .flip();
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            channel.force(false);
+            fileRecords++;
+        } catch (IOException e) {
+            log.warn("Token 撤銷紀錄寫入失敗，重新啟動後此撤銷將失效: {}", e.getMessage());
+        }
+    }
+
+    private void compact() {
+        Path target = Paths.get(revocationFile);
+        long now = System.currentTimeMillis();
+        try {
+            Path dir = target.toAbsolutePath().getParent();
+            Path temp = Files.createTempFile(dir, "revoked-tokens", ".tmp");
+            long records = 0L;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(FILE_MAGIC);
+                for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+                    if (entry.getValue() > now) {
+                        byte[] key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                        out.writeLong(entry.getValue());
+                        out.writeShort(key.length);
+                        out.write(key);
+                        records++;
+                    }
+                }
+            }
+            channel.close();
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel = openForAppend(target);
+            fileRecords = records;
+        } catch (IOException e) {
+            log.warn("Token 撤銷紀錄檔壓縮失敗: {}", e.getMessage());
+            try {
+                channel = openForAppend(target);
+            } catch (IOException reopen) {
+                channel = null;
+                log.warn("Token 撤銷紀錄檔無法重新開啟，撤銷只保留在記憶體中: {}", reopen.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.esun.socialmedia.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 使用者認證主體快取
+ *
+ * 以使用者 ID 快取 JWT 認證時建立的 UserPrincipal，命中時認證過濾器不需查詢資料庫。
+ * 每筆資料於存活時間後過期，數量超過上限時由 Caffeine 淘汰較少使用者；
+ * 個人資料變更後由 UserService 於交易提交後移除。
+ *
+ * @author 開發團隊
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Value("${app.principal-cache.ttl:300000}")
+    private long ttlMillis = 300000L;
+
+    @Value("${app.principal-cache.max-size:10000}")
+    private int maxSize = 10000;
+
+    // Caffeine 快取（讀取不需取得鎖），延遲建立以套用設定的存活時間與上限
+    private volatile Cache<Long, UserPrincipal> entries;
+
+    // 每次移除時遞增；載入期間發生移除時不保留載入結果，避免放回變更前的資料
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public UserPrincipalCache(MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("auth.principal.cache.requests")
+                .description("認證主體快取查詢次數")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("auth.principal.cache.requests")
+                .description("認證主體快取查詢次數")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.hit.ratio", this, UserPrincipalCache::hitRatio)
+                .description("認證主體快取命中率")
+                .register(meterRegistry);
+        Gauge.builder("auth.principal.cache.size", this, UserPrincipalCache::size)
+                .description("認證主體快取筆數")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 取得使用者認證主體，未命中或已過期時以 loader 載入並快取
+     *
+     * @param userId 使用者 ID
+     * @param loader 載入方式（通常查詢資料庫）
+     * @return 使用者認證主體
+     */
+    public UserPrincipal get(Long userId, Function<Long, UserPrincipal> loader) {
+        if (ttlMillis <= 0 || maxSize <= 0) {
+            misses.increment();
+            return loader.apply(userId);
+        }
+
+        Cache<Long, UserPrincipal> cache = getEntries();
+        UserPrincipal cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long loadingGeneration = generation.get();
+        UserPrincipal principal = loader.apply(userId);
+        cache.put(userId, principal);
+        // 寫入前後發生移除時撤回，移除晚於此檢查時會自行移除這筆資料
+        if (generation.get() != loadingGeneration) {
+            cache.invalidate(userId);
+        }
+        return principal;
+    }
+
+    /**
+     * 移除使用者的快取資料
+     *
+     * @param userId 使用者 ID
+     */
+    public void invalidate(Long userId) {
+        generation.incrementAndGet();
+        Cache<Long, UserPrincipal> cache = entries;
+        if (cache != null) {
+            cache.invalidate(userId);
+        }
+    }
+
+    /**
+     * @return 快取筆數
+     */
+    public long size() {
+        Cache<Long, UserPrincipal> cache = entries;
+        if (cache == null) {
+            return 0;
+        }
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * @return 命中率
+     */
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private Cache<Long, UserPrincipal> getEntries() {
+        Cache<Long, UserPrincipal> current = entries;
+        if (current == null) {
+            synchronized (this) {
+                current = entries;
+                if (current == null) {
+                    current = Caffeine.newBuilder()
+                            .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                            .maximumSize(maxSize)
+                            .build();
+                    entries = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,89 @@
+package com.esun.socialmedia.security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * 已驗證簽名的 JWT Token
+ *
+ * 一次解析後保存所需的聲明，同一請求中的後續檢查不需重新驗證簽名
+ *
+ * @author 開發團隊
+ */
+public final class VerifiedToken {
+
+    private final Claims claims;
+    private final long expiresAtMillis;
+
+    VerifiedToken(Claims claims) {
+        this.claims = claims;
+        Date expiration = claims.getExpiration();
+        this.expiresAtMillis = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * @return 使用者名稱（subject）
+     */
+    public String getUsername() {
+        return claims.getSubject();
+    }
+
+    /**
+     * @return Token ID（jti）；舊版 Token 未包含時回傳 null
+     */
+    public String getTokenId() {
+        return claims.getId();
+    }
+
+    /**
+     * @return Refresh Token 家族 ID；Token 未包含時回傳 null
+     */
+    public Long getFamilyId() {
+        Object familyId = claims.get("fid");
+        return familyId instanceof Number ? ((Number) familyId).longValue() : null;
+    }
+
+    /**
+     * @return 使用者 ID；Token 未包含時回傳 null
+     */
+    public Long getUserId() {
+        Object userId = claims.get("userId");
+        return userId instanceof Number ? ((Number) userId).longValue() : null;
+    }
+
+    /**
+     * @return 過期時間
+     */
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    /**
+     * @return 過期時間（毫秒）
+     */
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    /**
+     * @return 是否已過期
+     */
+    public boolean isExpired() {
+        return expiresAtMillis < System.currentTimeMillis();
+    }
+
+    /**
+     * @return 是否為 Refresh Token
+     */
+    public boolean isRefreshToken() {
+        return "refresh".equals(claims.get("type"));
+    }
+
+    /**
+     * @return 所有聲明
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+}
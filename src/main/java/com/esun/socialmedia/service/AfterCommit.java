@@ -0,0 +1,36 @@
+package com.esun.socialmedia.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 交易提交後執行的輔助工具
+ * 
+ * 記憶體中的衍生狀態（計數、排行、快取）只應反映已提交的資料，
+ * 沒有進行中的交易時則立即執行
+ * 
+ * @author 開發團隊
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * 於目前交易提交後執行
+     * 
+     * @param action 要執行的動作
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -6,7 +6,11 @@ import com.esun.socialmedia.dto.auth.RegisterRequest;
 import com.esun.socialmedia.dto.user.UserResponse;
 import com.esun.socialmedia.entity.User;
 import com.esun.socialmedia.security.JwtUtil;
+import com.esun.socialmedia.security.RefreshTokenService;
+import com.esun.socialmedia.security.RefreshTokenService.IssuedToken;
+import com.esun.socialmedia.security.TokenRevocationService;
 import com.esun.socialmedia.security.UserPrincipal;
+import com.esun.socialmedia.security.VerifiedToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +19,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -31,6 +36,8 @@ public class AuthService {
     private final UserService userService;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final TokenRevocationService revocationService;
+    private final RefreshTokenService refreshTokenService;
 
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
@@ -38,10 +45,14 @@ public class AuthService {
     @Autowired
     public AuthService(UserService userService,
                       AuthenticationManager authenticationManager,
-                      JwtUtil jwtUtil) {
+                      JwtUtil jwtUtil,
+                      TokenRevocationService revocationService,
+                      RefreshTokenService refreshTokenService) {
         this.userService = userService;
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.revocationService = revocationService;
+        this.refreshTokenService = refreshTokenService;
     }
 
     /**
@@ -66,12 +77,12 @@ public class AuthService {
 
         // 產生 JWT Token
         UserPrincipal userPrincipal = new UserPrincipal(user);
-        String accessToken = jwtUtil.generateToken(userPrincipal);
-        String refreshToken = jwtUtil.generateRefreshToken(userPrincipal);
+        IssuedToken refreshToken = refreshTokenService.issue(userPrincipal);
+        String accessToken = jwtUtil.generateToken(userPrincipal, refreshToken.getFamilyId());
 
         // 建立回應
         UserResponse userResponse = UserResponse.fromWithCounts(user, 0L, 0L);
-        return new AuthResponse(accessToken, refreshToken, jwtExpiration / 1000, userResponse);
+        return new AuthResponse(accessToken, refreshToken.getToken(), jwtExpiration / 1000, userResponse);
     }
 
     /**
@@ -95,14 +106,14 @@ public class AuthService {
             User user = userPrincipal.getUser();
 
             // 產生 JWT Token
-            String accessToken = jwtUtil.generateToken(userPrincipal);
-            String refreshToken = jwtUtil.generateRefreshToken(userPrincipal);
+            IssuedToken refreshToken = refreshTokenService.issue(userPrincipal);
+            String accessToken = jwtUtil.generateToken(userPrincipal, refreshToken.getFamilyId());
 
             // 獲取使用者統計資料
             UserResponse userResponse = userService.getUserProfile(user.getId())
                     .orElse(UserResponse.from(user));
 
-            return new AuthResponse(accessToken, refreshToken, jwtExpiration / 1000, userResponse);
+            return new AuthResponse(accessToken, refreshToken.getToken(), jwtExpiration / 1000, userResponse);
 
         } catch (AuthenticationException e) {
             throw new BadCredentialsException("使用者名稱或密碼錯誤");
@@ -112,12 +123,16 @@ public class AuthService {
     /**
      * 刷新 Token
      * 
+     * Refresh Token 只能使用一次，每次刷新都換發新的 Refresh Token；
+     * 已使用過的 Refresh Token 再次出現時撤銷整個登入工作階段
+     * 
      * @param refreshToken 刷新 Token
      * @return 新的認證回應
      */
     public AuthResponse refreshToken(String refreshToken) {
         // 驗證 Refresh Token
-        if (!jwtUtil.isTokenValid(refreshToken) || !jwtUtil.isRefreshToken(refreshToken)) {
+        if (!jwtUtil.isTokenValid(refreshToken) || !jwtUtil.isRefreshToken(refreshToken)
+                || revocationService.isRevoked(jwtUtil.extractTokenId(refreshToken))) {
             throw new IllegalArgumentException("無效的 Refresh Token");
         }
 
@@ -126,16 +141,44 @@ public class AuthService {
         User user = userService.findByUsernameOrEmail(username)
                 .orElseThrow(() -> new IllegalArgumentException("找不到使用者: " + username));
 
-        // 產生新的 Token
+        // 輪替 Refresh Token 並產生新的 Access Token
         UserPrincipal userPrincipal = new UserPrincipal(user);
-        String newAccessToken = jwtUtil.generateToken(userPrincipal);
-        String newRefreshToken = jwtUtil.generateRefreshToken(userPrincipal);
+        IssuedToken newRefreshToken = refreshTokenService.rotate(jwtUtil.verify(refreshToken), userPrincipal);
+        String newAccessToken = jwtUtil.generateToken(userPrincipal, newRefreshToken.getFamilyId());
 
         // 獲取使用者統計資料
         UserResponse userResponse = userService.getUserProfile(user.getId())
                 .orElse(UserResponse.from(user));
 
-        return new AuthResponse(newAccessToken, newRefreshToken, jwtExpiration / 1000, userResponse);
+        return new AuthResponse(newAccessToken, newRefreshToken.getToken(), jwtExpiration / 1000, userResponse);
+    }
+
+    /**
+     * 使用者登出
+     * 
+     * 撤銷 Access Token 與 Refresh Token 直到其原本的過期時間，並撤銷其所屬的 Refresh Token 家族；
+     * 無效或已過期的 Token 略過
+     * 
+     * @param accessToken Access Token
+     * @param refreshToken Refresh Token，未提供時為 null
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public void logout(String accessToken, String refreshToken) {
+        revoke(accessToken);
+        revoke(refreshToken);
+    }
+
+    private void revoke(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            VerifiedToken verified = jwtUtil.verify(token);
+            revocationService.revoke(verified.getTokenId(), verified.getExpiresAtMillis());
+            refreshTokenService.revoke(verified.getFamilyId());
+        } catch (IllegalArgumentException e) {
+            // 無效或已過期的 Token 不需撤銷
+        }
     }
 
     /**
@@ -184,7 +227,7 @@ public class AuthService {
      * @param username 使用者名稱
      * @return 是否可用
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isUsernameAvailable(String username) {
         return userService.isUsernameAvailable(username);
     }
@@ -195,7 +238,7 @@ public class AuthService {
      * @param email 電子郵件
      * @return 是否可用
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isEmailAvailable(String email) {
         return userService.isEmailAvailable(email);
     }
@@ -0,0 +1,267 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * 使用者名稱與電子郵件可用性過濾服務
+ *
+ * 註冊頁面每次輸入都會檢查使用者名稱與電子郵件是否可用，
+ * 以布隆過濾器記錄所有已使用的值：過濾器判定不存在即可直接回覆可用，
+ * 只有可能重複時才查詢資料庫。
+ * 過濾器於應用程式開始接收請求前由資料庫建立，註冊與修改個人資料時於交易提交後加入新值；
+ * 舊值無法移除，加入數量超過容量時於背景重建。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class AvailabilityFilterService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityFilterService.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Field usernames;
+    private final Field emails;
+
+    @Value("${app.availability-filter.expected-insertions:100000}")
+    private long expectedInsertions = 100000L;
+
+    @Value("${app.availability-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${app.availability-filter.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Autowired
+    public AvailabilityFilterService(UserRepository userRepository,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.usernames = new Field("username", meterRegistry);
+        this.emails = new Field("email", meterRegistry);
+    }
+
+    /**
+     * 由資料庫建立過濾器
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * 加入數量超過容量時重建過濾器，同時清除已變更的舊值
+     */
+    @Scheduled(fixedDelayString = "${app.availability-filter.check-interval:60000}",
+               initialDelayString = "${app.availability-filter.check-interval:60000}")
+    public void rebuildIfSaturated() {
+        if (usernames.saturated() || emails.saturated()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 檢查使用者名稱是否可用
+     *
+     * @param username 使用者名稱
+     * @param exists 資料庫檢查（只在過濾器判定可能重複時呼叫）
+     * @return 是否可用
+     */
+    public boolean isUsernameAvailable(String username, Predicate<String> exists) {
+        return usernames.isAvailable(username, exists);
+    }
+
+    /**
+     * 檢查電子郵件是否可用
+     *
+     * @param email 電子郵件
+     * @param exists 資料庫檢查（只在過濾器判定可能重複時呼叫）
+     * @return 是否可用
+     */
+    public boolean isEmailAvailable(String email, Predicate<String> exists) {
+        return emails.isAvailable(email, exists);
+    }
+
+    /**
+     * 記錄已使用的使用者名稱與電子郵件（於目前交易提交後生效）
+     *
+     * @param username 使用者名稱，未變更時為 null
+     * @param email 電子郵件，未變更時為 null
+     */
+    public void onUserSaved(String username, String email) {
+        AfterCommit.run(() -> {
+            if (username != null) {
+                usernames.put(username);
+            }
+            if (email != null) {
+                emails.put(email);
+            }
+        });
+    }
+
+    private synchronized void rebuild() {
+        try {
+            long capacity = Math.max(expectedInsertions,
+                    2 * transactionTemplate.execute(status -> userRepository.count()));
+            // 重建期間提交的新值同時寫入新舊過濾器，切換後不會遺漏
+            usernames.beginRebuild(BloomFilter.create(capacity, falsePositiveRate));
+            emails.beginRebuild(BloomFilter.create(capacity, falsePositiveRate));
+
+            Pageable batch = PageRequest.of(0, batchSize);
+            long afterId = 0L;
+            while (true) {
+                long cursor = afterId;
+                List<Object[]> rows = transactionTemplate.execute(status ->
+                        userRepository.findUsernameAndEmailBatch(cursor, batch));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    usernames.rebuilding.put(normalize((String) row[1]));
+                    if (row[2] != null) {
+                        emails.rebuilding.put(normalize((String) row[2]));
+                    }
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                if (rows.size() < batchSize) {
+                    break;
+                }
+            }
+
+            usernames.finishRebuild();
+            emails.finishRebuild();
+            log.info("可用性過濾器已建立：容量 {}，{} 位元，{} 個雜湊函式",
+                    capacity, usernames.filter.bitSize(), usernames.filter.hashCount());
+        } catch (RuntimeException e) {
+            usernames.abortRebuild();
+            emails.abortRebuild();
+            log.warn("可用性過濾器建立失敗，可用性檢查將直接查詢資料庫: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 比對用的格式：去除前後空白並轉為小寫
+     *
+     * 只要資料庫判定相同的兩個值正規化後也相同即可，
+     * 因此不分大小寫或忽略尾端空白的資料庫定序也不會造成漏判
+     */
+    static String normalize(String value) {
+        return value.strip().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 單一欄位的過濾器與統計
+     */
+    private static final class Field {
+        // 建立完成前為 null，一律查詢資料庫
+        private volatile BloomFilter filter;
+        private volatile BloomFilter rebuilding;
+
+        private final Counter filtered;
+        private final Counter taken;
+        private final Counter falsePositives;
+
+        private Field(String type, MeterRegistry meterRegistry) {
+            this.filtered = Counter.builder("availability.checks")
+                    .description("可用性檢查次數")
+                    .tags("type", type, "result", "filtered")
+                    .register(meterRegistry);
+            this.taken = Counter.builder("availability.checks")
+                    .description("可用性檢查次數")
+                    .tags("type", type, "result", "taken")
+                    .register(meterRegistry);
+            this.falsePositives = Counter.builder("availability.checks")
+                    .description("可用性檢查次數")
+                    .tags("type", type, "result", "false_positive")
+                    .register(meterRegistry);
+
+            Gauge.builder("availability.filter.bits", this, f -> f.filter != null ? f.filter.bitSize() : 0)
+                    .description("布隆過濾器位元數")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("availability.filter.insertions", this, f -> f.filter != null ? f.filter.insertions() : 0)
+                    .description("布隆過濾器累計加入次數")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            Gauge.builder("availability.filter.false.positive.rate", this,
+                            f -> f.filter != null ? f.filter.expectedFalsePositiveRate() : 0)
+                    .description("依加入數量估算的誤判率")
+                    .tags("type", type, "kind", "expected")
+                    .register(meterRegistry);
+            Gauge.builder("availability.filter.false.positive.rate", this, Field::observedFalsePositiveRate)
+                    .description("實際觀察到的誤判率（誤判次數 / 不存在的查詢次數）")
+                    .tags("type", type, "kind", "observed")
+                    .register(meterRegistry);
+        }
+
+        private boolean isAvailable(String value, Predicate<String> exists) {
+            BloomFilter current = filter;
+            if (current != null && !current.mightContain(normalize(value))) {
+                filtered.increment();
+                return true;
+            }
+            if (exists.test(value)) {
+                taken.increment();
+                return false;
+            }
+            if (current != null) {
+                falsePositives.increment();
+            }
+            return true;
+        }
+
+        private synchronized void put(String value) {
+            String key = normalize(value);
+            if (filter != null) {
+                filter.put(key);
+            }
+            if (rebuilding != null) {
+                rebuilding.put(key);
+            }
+        }
+
+        private boolean saturated() {
+            BloomFilter current = filter;
+            return current != null && current.insertions() > current.expectedInsertions();
+        }
+
+        private synchronized void beginRebuild(BloomFilter next) {
+            rebuilding = next;
+        }
+
+        private synchronized void finishRebuild() {
+            filter = rebuilding;
+            rebuilding = null;
+        }
+
+        private synchronized void abortRebuild() {
+            rebuilding = null;
+        }
+
+        private double observedFalsePositiveRate() {
+            double negatives = filtered.count() + falsePositives.count();
+            return negatives == 0 ? 0 : falsePositives.count() / negatives;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.esun.socialmedia.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 無鎖布隆過濾器（Bloom filter）
+ *
+ * mightContain 回傳 false 時代表一定沒有加入過；回傳 true 時可能是誤判。
+ * 位元以 AtomicLongArray 保存，加入與查詢都不需加鎖。
+ * 雜湊採 64 位元 FNV-1a 加上 murmur3 fmix64 混合，再以雙重雜湊產生 k 個位置。
+ *
+ * @author 開發團隊
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashCount;
+    private final long expectedInsertions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long bitSize, int hashCount, long expectedInsertions) {
+        long wordCount = (bitSize + 63) >>> 6;
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bitSize = wordCount << 6;
+        this.hashCount = hashCount;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * 依預期加入數量與目標誤判率建立過濾器
+     *
+     * @param expectedInsertions 預期加入數量
+     * @param falsePositiveRate 目標誤判率
+     * @return 布隆過濾器
+     */
+    static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1L, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        // AtomicLongArray 以 int 索引
+        bits = Math.min(Math.max(64L, bits), (long) Integer.MAX_VALUE << 6);
+        int k = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new BloomFilter(bits, k, n);
+    }
+
+    /**
+     * 加入鍵值
+     *
+     * @param key 鍵值
+     */
+    void put(String key) {
+        long hash = hash(key);
+        long h1 = fmix64(hash);
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * 檢查鍵值是否可能已加入
+     *
+     * @param key 鍵值
+     * @return false 代表一定沒有加入過
+     */
+    boolean mightContain(String key) {
+        long hash = hash(key);
+        long h1 = fmix64(hash);
+        long h2 = fmix64(hash ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitSize);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 位元數
+     */
+    long bitSize() {
+        return bitSize;
+    }
+
+    /**
+     * @return 雜湊函式數量
+     */
+    int hashCount() {
+        return hashCount;
+    }
+
+    /**
+     * @return 建立時預期的加入數量
+     */
+    long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * @return 累計加入次數
+     */
+    long insertions() {
+        return insertions.get();
+    }
+
+    /**
+     * 依目前加入數量估算的誤判率
+     *
+     * @return 估計誤判率
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions.get() / bitSize), hashCount);
+    }
+
+    private static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
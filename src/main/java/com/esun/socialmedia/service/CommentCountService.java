@@ -0,0 +1,246 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 發文留言數量維護服務
+ *
+ * 留言新增/刪除時不直接更新 posts.comment_count，而是在交易提交後把增減量
+ * 累積在分段鎖保護的緩衝區中，再由排程批次寫回資料庫，
+ * 避免熱門發文的大量留言在同一筆資料列的鎖上排隊。
+ * 另有校正排程以實際留言數修正累積誤差。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class CommentCountService {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountService.class);
+
+    private static final int STRIPE_COUNT = 16;
+
+    private final PostRepository postRepository;
+    private final EntityCacheService entityCacheService;
+    private final TransactionTemplate transactionTemplate;
+
+    // 分段緩衝區：依發文 ID 雜湊分配到各段，每段以自身為鎖
+    private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+    // 已取出但尚未提交到資料庫的增減量，讓讀取端在寫回期間仍能看到
+    private volatile Map<Long, Long> flushing = Map.of();
+
+    // 寫回與校正互斥
+    private final Object flushLock = new Object();
+
+    @Autowired
+    public CommentCountService(PostRepository postRepository,
+                               EntityCacheService entityCacheService,
+                               PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.entityCacheService = entityCacheService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 記錄新增一則留言（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     */
+    public void recordCommentCreated(Long postId) {
+        AfterCommit.run(() -> add(postId, 1L));
+    }
+
+    /**
+     * 記錄刪除一則留言（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     */
+    public void recordCommentDeleted(Long postId) {
+        AfterCommit.run(() -> add(postId, -1L));
+    }
+
+    /**
+     * 發文刪除後捨棄其尚未寫回的增減量（留言已隨發文串聯刪除）
+     *
+     * @param postId 發文 ID
+     */
+    public void discard(Long postId) {
+        AfterCommit.run(() -> {
+            Stripe stripe = stripeFor(postId);
+            synchronized (stripe) {
+                stripe.deltas.remove(postId);
+            }
+        });
+    }
+
+    /**
+     * 獲取發文尚未寫回資料庫的留言增減量
+     *
+     * @param postId 發文 ID
+     * @return 增減量
+     */
+    public long pendingDelta(Long postId) {
+        Stripe stripe = stripeFor(postId);
+        long pending;
+        synchronized (stripe) {
+            pending = stripe.deltas.getOrDefault(postId, 0L);
+        }
+        return pending + flushing.getOrDefault(postId, 0L);
+    }
+
+    /**
+     * 獲取發文目前的留言數量（資料庫欄位加上尚未寫回的增減量）
+     *
+     * @param postId 發文 ID
+     * @param storedCount 資料庫中的留言數量
+     * @return 留言數量
+     */
+    public long currentCount(Long postId, long storedCount) {
+        return Math.max(0L, storedCount + pendingDelta(postId));
+    }
+
+    /**
+     * 將緩衝的增減量批次寫回資料庫
+     *
+     * 相同增減量的發文合併為一條 UPDATE ... WHERE id IN (...)，
+     * 提交後只自二級快取移除被更新的發文
+     *
+     * @return 被更新的發文數量
+     */
+    @Scheduled(fixedDelayString = "${app.comment-count.flush-interval:1000}")
+    public int flush() {
+        synchronized (flushLock) {
+            Map<Long, Long> drained = drain();
+            if (drained.isEmpty()) {
+                return 0;
+            }
+
+            flushing = drained;
+            try {
+                Map<Long, List<Long>> postIdsByDelta = new HashMap<>();
+                drained.forEach((postId, delta) ->
+                    postIdsByDelta.computeIfAbsent(delta, d -> new ArrayList<>()).add(postId));
+
+                transactionTemplate.executeWithoutResult(status -> {
+                    postIdsByDelta.forEach((delta, postIds) ->
+                        postRepository.addToCommentCount(postIds, delta));
+                    entityCacheService.evictAfterCommit(Post.class, drained.keySet());
+                    // 提交後資料庫欄位已含這批增減量，立即停止讓讀取端另外加上
+                    clearFlushingAfterCommit(drained);
+                });
+                return drained.size();
+            } catch (RuntimeException e) {
+                // 寫回失敗時把增減量放回緩衝區，下次排程重試
+                drained.forEach(this::add);
+                clearFlushing(drained);
+                log.warn("留言數量寫回失敗，將於下次排程重試: {}", e.getMessage());
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 以實際留言數校正 comment_count 欄位
+     *
+     * 緩衝區中的增減量在交易提交後才記錄，其留言已計入 UPDATE 的 COUNT(*)，
+     * 因此在同一交易中、UPDATE 之前取出並捨棄，不再另行寫回，避免重複累加。
+     * 取出後到 UPDATE 開始前才提交的留言仍可能重複計入一次，由下次校正修正。
+     *
+     * @return 被校正的發文數量
+     */
+    @Scheduled(fixedDelayString = "${app.comment-count.reconcile-interval:3600000}",
+               initialDelayString = "${app.comment-count.reconcile-initial-delay:60000}")
+    public int reconcile() {
+        synchronized (flushLock) {
+            try {
+                Integer fixed = transactionTemplate.execute(status -> {
+                    // 提交前讀取端仍以 flushing 看到這些增減量
+                    Map<Long, Long> drained = drain();
+                    flushing = drained;
+                    int updated = postRepository.reconcileCommentCounts();
+                    // 提交後資料庫欄位已是實際留言數，這些增減量不再計入
+                    clearFlushingAfterCommit(drained);
+                    return updated;
+                });
+                if (fixed != null && fixed > 0) {
+                    log.info("已校正 {} 篇發文的留言數量", fixed);
+                }
+                return fixed != null ? fixed : 0;
+            } catch (RuntimeException e) {
+                // 校正失敗時把增減量放回緩衝區，由寫回排程處理
+                Map<Long, Long> drained = flushing;
+                drained.forEach(this::add);
+                clearFlushing(drained);
+                log.warn("留言數量校正失敗，將於下次排程重試: {}", e.getMessage());
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 應用程式關閉前寫回剩餘的增減量
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void clearFlushingAfterCommit(Map<Long, Long> snapshot) {
+        AfterCommit.run(() -> clearFlushing(snapshot));
+    }
+
+    // 只清除仍是同一批的 flushing，避免清掉之後才取出的增減量
+    private void clearFlushing(Map<Long, Long> snapshot) {
+        if (flushing == snapshot) {
+            flushing = Map.of();
+        }
+    }
+
+    private void add(Long postId, long delta) {
+        Stripe stripe = stripeFor(postId);
+        synchronized (stripe) {
+            stripe.deltas.merge(postId, delta, (a, b) -> a + b == 0 ? null : a + b);
+        }
+    }
+
+    private Map<Long, Long> drain() {
+        Map<Long, Long> drained = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            Map<Long, Long> deltas;
+            synchronized (stripe) {
+                if (stripe.deltas.isEmpty()) {
+                    continue;
+                }
+                deltas = stripe.deltas;
+                stripe.deltas = new HashMap<>();
+            }
+            drained.putAll(deltas);
+        }
+        return drained;
+    }
+
+    private Stripe stripeFor(Long postId) {
+        return stripes[Long.hashCode(postId) & (STRIPE_COUNT - 1)];
+    }
+
+    private static final class Stripe {
+        private Map<Long, Long> deltas = new HashMap<>();
+    }
+}
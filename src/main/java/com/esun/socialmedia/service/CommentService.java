@@ -1,7 +1,11 @@
 package com.esun.socialmedia.service;
 
 import com.esun.socialmedia.dto.comment.CommentResponse;
+import com.esun.socialmedia.dto.common.CursorPage;
+import com.esun.socialmedia.dto.common.PageCursor;
 import com.esun.socialmedia.dto.comment.CreateCommentRequest;
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.dto.user.UserResponse;
 import com.esun.socialmedia.entity.Comment;
 import com.esun.socialmedia.entity.Post;
 import com.esun.socialmedia.entity.User;
@@ -10,16 +14,24 @@ import com.esun.socialmedia.repository.PostRepository;
 import com.esun.socialmedia.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 留言服務類別
@@ -35,14 +47,32 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final CommentCountService commentCountService;
+    private final PostRankingService postRankingService;
+    private final LatestContentService latestContentService;
+    private final SearchIndexService searchIndexService;
+    private final ResourceVersionService resourceVersionService;
+    private final ResponseCacheService responseCacheService;
 
     @Autowired
     public CommentService(CommentRepository commentRepository,
                          PostRepository postRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         CommentCountService commentCountService,
+                         PostRankingService postRankingService,
+                         LatestContentService latestContentService,
+                         SearchIndexService searchIndexService,
+                         ResourceVersionService resourceVersionService,
+                         ResponseCacheService responseCacheService) {
         this.commentRepository = commentRepository;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.commentCountService = commentCountService;
+        this.postRankingService = postRankingService;
+        this.latestContentService = latestContentService;
+        this.searchIndexService = searchIndexService;
+        this.resourceVersionService = resourceVersionService;
+        this.responseCacheService = responseCacheService;
     }
 
     /**
@@ -66,7 +96,16 @@ public class CommentService {
         comment.setAuthor(author);
 
         Comment savedComment = commentRepository.save(comment);
-        return CommentResponse.from(savedComment);
+        postRankingService.onCommentCreated(postId, savedComment.getCreatedAt(), () ->
+                PostResponse.fromWithCommentCount(post, commentCountService.currentCount(postId, post.getCommentCount())));
+        commentCountService.recordCommentCreated(postId);
+        CommentResponse response = CommentResponse.from(savedComment);
+        latestContentService.onCommentCreated(response);
+        searchIndexService.onCommentCreated(savedComment.getId(), savedComment.getContent());
+        resourceVersionService.onCommentChanged(postId, authorId);
+        // 發文回應含留言數量
+        responseCacheService.invalidate(ResponseCacheService.postTag(postId));
+        return response;
     }
 
     /**
@@ -95,6 +134,31 @@ public class CommentService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 以 JSON Lines 串流輸出發文的所有留言，每則留言一行
+     * 
+     * 逐列讀取資料庫游標並立即寫出，記憶體用量與留言數量無關；
+     * 寫出期間佔用一條資料庫連線，慢速用戶端會延長佔用時間
+     * 
+     * @param postId 發文 ID
+     * @param out 輸出
+     * @return 寫出的留言數量
+     * @throws IOException 寫出失敗（例如用戶端中斷連線）
+     */
+    @Transactional(readOnly = true)
+    public long streamCommentsByPostId(Long postId, JsonLinesWriter out) throws IOException {
+        long count = 0;
+        try (Stream<Object[]> rows = commentRepository.streamThreadRows(postId)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                out.write(toResponse(iterator.next(), postId));
+                count++;
+            }
+        }
+        out.flush();
+        return count;
+    }
+
     /**
      * 根據發文 ID 獲取留言列表（分頁）
      * 
@@ -105,12 +169,34 @@ public class CommentService {
      */
     @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByPostId(Long postId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").ascending());
+        Pageable pageable = PageRequest.of(page, CursorPage.clampSize(size), Sort.by("createdAt").ascending());
         Page<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtAsc(postId, pageable);
         
         return comments.map(CommentResponse::from);
     }
 
+    /**
+     * 根據發文 ID 獲取留言列表（游標分頁）
+     * 
+     * @param postId 發文 ID
+     * @param cursor 上一頁回傳的游標，空值表示第一頁
+     * @param size 每頁大小
+     * @return 留言游標分頁
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<CommentResponse> getCommentsByPostIdByCursor(Long postId, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findByPostIdOrderByCreatedAtAscIdAsc(postId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            comments = commentRepository.findCommentsByPostAfter(postId, position.getCreatedAt(), position.getId(), limit);
+        }
+        return CursorPage.from(comments, pageSize, CommentResponse::from);
+    }
+
     /**
      * 根據作者 ID 獲取留言列表
      * 
@@ -121,7 +207,7 @@ public class CommentService {
      */
     @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByAuthor(Long authorId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, CursorPage.clampSize(size), Sort.by("createdAt").descending());
         Page<Comment> comments = commentRepository.findByAuthorIdOrderByCreatedAtDesc(authorId, pageable);
         
         return comments.map(CommentResponse::from);
@@ -144,6 +230,12 @@ public class CommentService {
         }
 
         commentRepository.delete(comment);
+        commentCountService.recordCommentDeleted(comment.getPost().getId());
+        postRankingService.onCommentDeleted(comment.getPost().getId(), comment.getCreatedAt());
+        latestContentService.onCommentDeleted(commentId, comment.getPost().getId());
+        searchIndexService.onCommentDeleted(commentId);
+        resourceVersionService.onCommentChanged(comment.getPost().getId(), comment.getAuthor().getId());
+        responseCacheService.invalidate(ResponseCacheService.postTag(comment.getPost().getId()));
     }
 
     /**
@@ -171,6 +263,9 @@ public class CommentService {
     /**
      * 搜尋留言
      * 
+     * 由全文檢索索引取得依相關度排序的留言 ID，再以單一查詢載入該頁留言；
+     * 索引尚未就緒時改用資料庫關鍵字查詢（依建立時間排序）
+     * 
      * @param keyword 關鍵字
      * @param page 頁碼（從 0 開始）
      * @param size 每頁大小
@@ -178,7 +273,22 @@ public class CommentService {
      */
     @Transactional(readOnly = true)
     public Page<CommentResponse> searchComments(String keyword, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        int pageSize = CursorPage.clampSize(size);
+        SearchHits hits = searchIndexService.searchComments(keyword, page, pageSize);
+        if (hits != null) {
+            Map<Long, Comment> commentsById = hits.getIds().isEmpty()
+                    ? Map.of()
+                    : commentRepository.findAllWithAuthorByIdIn(hits.getIds()).stream()
+                            .collect(Collectors.toMap(Comment::getId, Function.identity()));
+            List<CommentResponse> content = hits.getIds().stream()
+                    .map(commentsById::get)
+                    .filter(Objects::nonNull)
+                    .map(CommentResponse::from)
+                    .collect(Collectors.toList());
+            return new PageImpl<>(content, PageRequest.of(page, pageSize), hits.getTotal());
+        }
+
+        Pageable pageable = PageRequest.of(page, pageSize, Sort.by("createdAt").descending());
         Page<Comment> comments = commentRepository.findByContentContaining(keyword, pageable);
         
         return comments.map(CommentResponse::from);
@@ -187,12 +297,19 @@ public class CommentService {
     /**
      * 獲取最新留言
      * 
+     * 優先由記憶體中的最新留言緩衝區提供，緩衝區無法完整提供時才查詢資料庫
+     * 
      * @param limit 數量限制
      * @return 最新留言列表
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<CommentResponse> getLatestComments(int limit) {
-        List<Comment> comments = commentRepository.findLatestComments(limit);
+        List<CommentResponse> cached = latestContentService.latestComments(CursorPage.clampSize(limit));
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Comment> comments = commentRepository.findLatestComments(CursorPage.clampSize(limit));
         
         return comments.stream()
                 .map(CommentResponse::from)
@@ -210,7 +327,7 @@ public class CommentService {
      */
     @Transactional(readOnly = true)
     public Page<CommentResponse> getCommentsByDateRange(LocalDateTime startTime, LocalDateTime endTime, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, CursorPage.clampSize(size), Sort.by("createdAt").descending());
         Page<Comment> comments = commentRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startTime, endTime, pageable);
         
         return comments.map(CommentResponse::from);
@@ -246,4 +363,26 @@ public class CommentService {
         return comment.getAuthor().getId().equals(userId) || 
                comment.getPost().getAuthor().getId().equals(userId);
     }
+
+    /**
+     * 將串流讀取的欄位轉換為留言回應，欄位順序見 {@link CommentRepository#streamThreadRows(Long)}
+     */
+    private static CommentResponse toResponse(Object[] row, Long postId) {
+        UserResponse author = new UserResponse();
+        author.setId((Long) row[3]);
+        author.setUsername((String) row[4]);
+        author.setEmail((String) row[5]);
+        author.setCoverImage((String) row[6]);
+        author.setBiography((String) row[7]);
+        author.setCreatedAt((LocalDateTime) row[8]);
+        author.setUpdatedAt((LocalDateTime) row[9]);
+
+        CommentResponse response = new CommentResponse();
+        response.setId((Long) row[0]);
+        response.setContent((String) row[1]);
+        response.setCreatedAt((LocalDateTime) row[2]);
+        response.setAuthor(author);
+        response.setPostId(postId);
+        return response;
+    }
 }
@@ -0,0 +1,403 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.comment.CommentResponse;
+import com.esun.socialmedia.dto.export.DataExportStatus;
+import com.esun.socialmedia.dto.export.ExportRecord;
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.exception.ServiceUnavailableException;
+import com.esun.socialmedia.repository.CommentRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 個人資料匯出服務
+ *
+ * 於背景將使用者的個人資料、發文與留言依序寫成 gzip 壓縮的 JSON Lines 檔
+ * （{export.dir}/{使用者 ID}.jsonl.gz，每行一筆 {@link ExportRecord}），完成後才以原子搬移取代上一份。
+ * 整份匯出在同一個唯讀交易內以僅能向前的游標逐列讀取，內容為同一時間點的快照。
+ *
+ * 記憶體用量固定：每次向資料庫取回 500 列、不建立實體，另有壓縮與 JSON 產生器的固定緩衝區，
+ * 與資料筆數無關。為避免影響線上查詢，匯出由單一低優先權執行緒依序處理
+ * （最多佔用一條資料庫連線），並限制每秒寫出的筆數。
+ *
+ * 工作狀態保存在記憶體中，每位使用者只保留最近一次；重新啟動後仍可下載已完成的匯出檔，
+ * 未完成的暫存檔則刪除。匯出檔超過保留時間後由定期清理刪除。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class DataExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(DataExportService.class);
+
+    private static final String FILE_SUFFIX = ".jsonl.gz";
+    private static final String PART_SUFFIX = ".part";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 每寫出這麼多筆檢查一次速率
+    private static final int PACE_INTERVAL = 100;
+
+    private final UserRepository userRepository;
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+
+    // 使用者 ID -> 最近一次匯出工作
+    private final Map<Long, Job> jobs = new ConcurrentHashMap<>();
+
+    private Path root;
+    private ThreadPoolExecutor executor;
+
+    private Timer duration;
+    private Counter exported;
+    private Counter failed;
+
+    @Value("${app.export.dir:./data/exports}")
+    private String exportDir = "./data/exports";
+
+    @Value("${app.export.records-per-second:2000}")
+    private int recordsPerSecond = 2000;
+
+    @Value("${app.export.queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    @Value("${app.export.retention:86400000}")
+    private long retentionMillis = 86400000L;
+
+    @Autowired
+    public DataExportService(UserRepository userRepository,
+                             PostRepository postRepository,
+                             CommentRepository commentRepository,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 建立匯出目錄與執行緒，並刪除上次未完成的暫存檔
+     */
+    @PostConstruct
+    public void init() {
+        root = Paths.get(exportDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(root);
+            try (DirectoryStream<Path> parts = Files.newDirectoryStream(root, "*" + PART_SUFFIX)) {
+                for (Path part : parts) {
+                    Files.deleteIfExists(part);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法建立匯出目錄: " + root, e);
+        }
+
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "data-export");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        duration = Timer.builder("data.export.duration")
+                .description("個人資料匯出耗時")
+                .register(meterRegistry);
+        exported = Counter.builder("data.export.records")
+                .description("個人資料匯出寫出的筆數")
+                .register(meterRegistry);
+        failed = Counter.builder("data.export.failed")
+                .description("個人資料匯出失敗次數")
+                .register(meterRegistry);
+        Gauge.builder("data.export.queue.size", executor, pool -> pool.getQueue().size())
+                .description("等待中的個人資料匯出工作數量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 停止匯出執行緒，進行中的匯出會中斷並刪除暫存檔
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 排入個人資料匯出；已有等待中或進行中的匯出時直接回傳其狀態
+     *
+     * @param userId 使用者 ID
+     * @return 匯出狀態
+     * @throws ServiceUnavailableException 等待中的匯出工作已達上限
+     */
+    public synchronized DataExportStatus requestExport(Long userId) {
+        Job current = jobs.get(userId);
+        if (current != null && current.isActive()) {
+            return current.status();
+        }
+
+        Job job = new Job();
+        jobs.put(userId, job);
+        try {
+            executor.execute(() -> run(userId, job));
+        } catch (RejectedExecutionException e) {
+            if (current != null) {
+                jobs.put(userId, current);
+            } else {
+                jobs.remove(userId);
+            }
+            throw new ServiceUnavailableException("匯出工作已滿，請稍後再試", 60);
+        }
+        return job.status();
+    }
+
+    /**
+     * 獲取最近一次匯出的狀態
+     *
+     * @param userId 使用者 ID
+     * @return 匯出狀態；從未匯出或匯出檔已過期時為空
+     */
+    public Optional<DataExportStatus> getStatus(Long userId) {
+        Job job = jobs.get(userId);
+        if (job != null) {
+            return Optional.of(job.status());
+        }
+        // 重新啟動前完成的匯出
+        return getExportFile(userId).map(file -> {
+            try {
+                LocalDateTime completedAt = LocalDateTime.ofInstant(
+                        Files.getLastModifiedTime(file).toInstant(), ZoneId.systemDefault());
+                return new DataExportStatus(DataExportStatus.State.COMPLETED, 0, 0,
+                        completedAt, completedAt, Files.size(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 獲取最近一次完成的匯出檔（重新匯出期間仍為上一份）
+     *
+     * @param userId 使用者 ID
+     * @return 匯出檔；不存在時為空
+     */
+    public Optional<Path> getExportFile(Long userId) {
+        Path file = exportFile(userId);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * 刪除超過保留時間的匯出檔與已結束的工作狀態
+     */
+    @Scheduled(fixedDelayString = "${app.export.sweep-interval:3600000}",
+               initialDelayString = "${app.export.sweep-interval:3600000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minusMillis(retentionMillis);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toInstant().isBefore(cutoff)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理過期匯出檔失敗: {}", e.getMessage());
+        }
+
+        LocalDateTime expired = LocalDateTime.ofInstant(cutoff, ZoneId.systemDefault());
+        jobs.values().removeIf(job -> !job.isActive() && job.completedAt.isBefore(expired));
+    }
+
+    private void run(Long userId, Job job) {
+        job.start();
+        Path part = root.resolve(userId + FILE_SUFFIX + PART_SUFFIX);
+        long started = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try {
+                    write(userId, job, part);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Path file = exportFile(userId);
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(Files.size(file));
+            log.info("使用者 {} 的個人資料匯出完成，共 {} 筆", userId, job.exported.get());
+        } catch (Exception e) {
+            // 先清除暫存檔再標記失敗，查詢到失敗狀態時不會留有不完整的檔案
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ignored) {
+                // 重新啟動時清除
+            }
+            job.fail();
+            failed.increment();
+            log.warn("使用者 {} 的個人資料匯出失敗: {}", userId, e.toString());
+        } finally {
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void write(Long userId, Job job, Path part) throws IOException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("使用者不存在"));
+        long postCount = postRepository.countByAuthorId(userId);
+        long commentCount = commentRepository.countByAuthorId(userId);
+        job.total = 1 + postCount + commentCount;
+
+        OutputStream file = new GZIPOutputStream(Files.newOutputStream(part), BUFFER_SIZE);
+        try (JsonLinesWriter out = new JsonLinesWriter(objectMapper, file)) {
+            out.write(new ExportRecord(ExportRecord.PROFILE, UserResponse.fromWithCounts(user, postCount, commentCount)));
+            pace(job);
+
+            try (Stream<Object[]> rows = postRepository.streamExportRows(userId)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    out.write(new ExportRecord(ExportRecord.POST, toPost(iterator.next())));
+                    pace(job);
+                }
+            }
+
+            try (Stream<Object[]> rows = commentRepository.streamExportRows(userId)) {
+                Iterator<Object[]> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    out.write(new ExportRecord(ExportRecord.COMMENT, toComment(iterator.next())));
+                    pace(job);
+                }
+            }
+        }
+    }
+
+    /**
+     * 記錄寫出一筆，超過速率上限時暫停
+     */
+    private void pace(Job job) throws InterruptedIOException {
+        long count = job.exported.incrementAndGet();
+        exported.increment();
+        if (recordsPerSecond <= 0 || count % PACE_INTERVAL != 0) {
+            return;
+        }
+        long aheadNanos = count * TimeUnit.SECONDS.toNanos(1) / recordsPerSecond - (System.nanoTime() - job.startedNanos);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("匯出已中斷");
+            }
+        }
+    }
+
+    /**
+     * 欄位順序見 {@link PostRepository#streamExportRows(Long)}
+     */
+    private static PostResponse toPost(Object[] row) {
+        PostResponse post = new PostResponse();
+        post.setId((Long) row[0]);
+        post.setContent((String) row[1]);
+        post.setImage((String) row[2]);
+        post.setCommentCount((Long) row[3]);
+        post.setCreatedAt((LocalDateTime) row[4]);
+        post.setUpdatedAt((LocalDateTime) row[5]);
+        return post;
+    }
+
+    /**
+     * 欄位順序見 {@link CommentRepository#streamExportRows(Long)}
+     */
+    private static CommentResponse toComment(Object[] row) {
+        CommentResponse comment = new CommentResponse();
+        comment.setId((Long) row[0]);
+        comment.setPostId((Long) row[1]);
+        comment.setContent((String) row[2]);
+        comment.setCreatedAt((LocalDateTime) row[3]);
+        return comment;
+    }
+
+    private Path exportFile(Long userId) {
+        return root.resolve(userId + FILE_SUFFIX);
+    }
+
+    /**
+     * 匯出工作狀態，只由匯出執行緒更新
+     */
+    private static final class Job {
+        private final LocalDateTime requestedAt = LocalDateTime.now();
+        private final AtomicLong exported = new AtomicLong();
+        private volatile DataExportStatus.State state = DataExportStatus.State.QUEUED;
+        private volatile long startedNanos;
+        private volatile long total;
+        private volatile LocalDateTime completedAt;
+        private volatile Long sizeBytes;
+
+        boolean isActive() {
+            return state == DataExportStatus.State.QUEUED || state == DataExportStatus.State.RUNNING;
+        }
+
+        void start() {
+            startedNanos = System.nanoTime();
+            state = DataExportStatus.State.RUNNING;
+        }
+
+        void complete(long size) {
+            sizeBytes = size;
+            completedAt = LocalDateTime.now();
+            state = DataExportStatus.State.COMPLETED;
+        }
+
+        void fail() {
+            completedAt = LocalDateTime.now();
+            state = DataExportStatus.State.FAILED;
+        }
+
+        DataExportStatus status() {
+            return new DataExportStatus(state, exported.get(), total, requestedAt, completedAt, sizeBytes);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.esun.socialmedia.service;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 二級快取的逐筆失效服務
+ *
+ * 計數欄位以原生 SQL 批次更新時不經過實體，Hibernate 無從得知哪些資料列被修改；
+ * 這類更新宣告不影響任何快取表格，改由呼叫端透過此服務只失效被更新的實體，
+ * 而不是讓 Hibernate 清空整個快取區域。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class EntityCacheService {
+
+    private final Cache cache;
+
+    @Autowired
+    public EntityCacheService(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache();
+    }
+
+    /**
+     * 於目前交易提交後自二級快取移除實體
+     *
+     * @param entityClass 實體類別
+     * @param id 實體 ID
+     */
+    public void evictAfterCommit(Class<?> entityClass, Object id) {
+        evictAfterCommit(entityClass, List.of(id));
+    }
+
+    /**
+     * 於目前交易提交後自二級快取移除多筆實體
+     *
+     * @param entityClass 實體類別
+     * @param ids 實體 ID 集合
+     */
+    public void evictAfterCommit(Class<?> entityClass, Collection<?> ids) {
+        List<?> snapshot = List.copyOf(ids);
+        AfterCommit.run(() -> snapshot.forEach(id -> cache.evict(entityClass, id)));
+    }
+}
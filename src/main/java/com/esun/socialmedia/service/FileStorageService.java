@@ -0,0 +1,198 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.upload.ImageUploadResponse;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 檔案儲存服務
+ *
+ * 上傳的圖片以內容的 SHA-256 作為檔名（內容定址），相同內容只會儲存一份。
+ * 檔案以固定大小的區塊串流寫入暫存檔並同時計算雜湊，不會整個讀入記憶體；
+ * 第一個區塊讀入後即以檔頭（magic bytes）判定格式，不信任用戶端提供的檔名與 Content-Type。
+ * 寫入完成後以原子性的重新命名移到最終位置，讀取端不會看到寫到一半的檔案。
+ *
+ * 儲存位置為 {upload.dir}/{雜湊前兩碼}/{雜湊}.{副檔名}，避免單一目錄檔案過多。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class FileStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStorageService.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * 上傳檔案對外的 URL 前綴（不含 context-path）
+     */
+    public static final String URL_PREFIX = "/uploads/";
+
+    @Value("${app.upload.dir:./uploads}")
+    private String uploadDir = "./uploads";
+
+    @Value("${app.upload.max-size:10485760}")
+    private long maxSize = 10485760L;
+
+    @Value("${app.upload.allowed-types:jpg,jpeg,png,gif}")
+    private String allowedTypes = "jpg,jpeg,png,gif";
+
+    private Path root;
+    private Path tempDir;
+    // 允許的副檔名（jpeg 視為 jpg）
+    private Set<String> allowed;
+
+    /**
+     * 建立上傳目錄
+     */
+    @PostConstruct
+    public void init() {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        // 暫存目錄與最終位置在同一個檔案系統，才能以重新命名完成搬移
+        tempDir = root.resolve(".tmp");
+        allowed = Arrays.stream(allowedTypes.split(","))
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .map(type -> "jpeg".equals(type) ? "jpg" : type)
+                .collect(Collectors.toSet());
+        try {
+            Files.createDirectories(tempDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法建立上傳目錄: " + root, e);
+        }
+    }
+
+    /**
+     * 儲存圖片
+     *
+     * @param in 檔案內容
+     * @param contextPath 應用程式 context-path，用於組成回傳的 URL
+     * @return 儲存結果
+     * @throws IllegalArgumentException 檔案為空或不是允許的圖片格式
+     * @throws MaxUploadSizeExceededException 檔案超過大小上限
+     */
+    public ImageUploadResponse storeImage(InputStream in, String contextPath) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[CHUNK_SIZE];
+
+        int read = in.readNBytes(buffer, 0, buffer.length);
+        if (read <= 0) {
+            throw new IllegalArgumentException("檔案不能為空");
+        }
+        ImageType type = ImageType.detect(buffer, read);
+        if (type == null || !allowed.contains(type.getExtension())) {
+            throw new IllegalArgumentException("不支援的檔案格式，僅接受 " + allowedTypes);
+        }
+
+        Path temp = Files.createTempFile(tempDir, "upload", ".part");
+        try {
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                while (read > 0) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new MaxUploadSizeExceededException(maxSize);
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                    read = in.read(buffer);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            String relative = hash.substring(0, 2) + "/" + hash + "." + type.getExtension();
+            Path target = root.resolve(relative);
+            if (Files.exists(target)) {
+                // 相同內容已存在，不需重複儲存
+                log.debug("上傳內容已存在: {}", relative);
+            } else {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new ImageUploadResponse(contextPath + URL_PREFIX + relative, hash, size, type.getContentType());
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * 取得上傳檔案的根目錄
+     *
+     * @return 根目錄的絕對路徑
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 支援的圖片格式與其檔頭
+     */
+    enum ImageType {
+        JPEG("jpg", "image/jpeg", new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}),
+        PNG("png", "image/png", new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}),
+        GIF87A("gif", "image/gif", new byte[] {'G', 'I', 'F', '8', '7', 'a'}),
+        GIF89A("gif", "image/gif", new byte[] {'G', 'I', 'F', '8', '9', 'a'});
+
+        private final String extension;
+        private final String contentType;
+        private final byte[] magic;
+
+        ImageType(String extension, String contentType, byte[] magic) {
+            this.extension = extension;
+            this.contentType = contentType;
+            this.magic = magic;
+        }
+
+        String getExtension() {
+            return extension;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        /**
+         * 以檔頭判定格式
+         *
+         * @param head 檔案開頭
+         * @param length head 中的有效長度
+         * @return 格式；無法辨識時回傳 null
+         */
+        static ImageType detect(byte[] head, int length) {
+            for (ImageType type : values()) {
+                if (length >= type.magic.length
+                        && Arrays.equals(head, 0, type.magic.length, type.magic, 0, type.magic.length)) {
+                    return type;
+                }
+            }
+            return null;
+        }
+    }
+}
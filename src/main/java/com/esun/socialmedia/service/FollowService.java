@@ -0,0 +1,98 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.entity.Follow;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.FollowRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 追蹤服務類別
+ *
+ * 提供追蹤與取消追蹤的業務邏輯處理
+ *
+ * @author 開發團隊
+ */
+@Service
+@Transactional
+public class FollowService {
+
+    private final FollowRepository followRepository;
+    private final UserRepository userRepository;
+    private final TimelineService timelineService;
+    private final EntityCacheService entityCacheService;
+
+    @Autowired
+    public FollowService(FollowRepository followRepository,
+                         UserRepository userRepository,
+                         TimelineService timelineService,
+                         EntityCacheService entityCacheService) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.timelineService = timelineService;
+        this.entityCacheService = entityCacheService;
+    }
+
+    /**
+     * 追蹤使用者
+     *
+     * @param followerId 追蹤者 ID
+     * @param followeeId 被追蹤者 ID
+     */
+    public void follow(Long followerId, Long followeeId) {
+        if (followerId.equals(followeeId)) {
+            throw new IllegalArgumentException("不能追蹤自己");
+        }
+
+        User followee = userRepository.findById(followeeId)
+                .orElseThrow(() -> new IllegalArgumentException("找不到使用者: " + followeeId));
+
+        if (followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId)) {
+            throw new IllegalArgumentException("已經追蹤此使用者");
+        }
+
+        User follower = userRepository.getReferenceById(followerId);
+        try {
+            // IDENTITY 主鍵於 save 時即寫入，並行的重複追蹤在此觸發唯一約束
+            followRepository.save(new Follow(follower, followee));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("已經追蹤此使用者");
+        }
+        userRepository.addToFollowerCount(followeeId, 1L);
+        entityCacheService.evictAfterCommit(User.class, followeeId);
+        timelineService.invalidate(followerId);
+    }
+
+    /**
+     * 取消追蹤使用者
+     *
+     * @param followerId 追蹤者 ID
+     * @param followeeId 被追蹤者 ID
+     */
+    public void unfollow(Long followerId, Long followeeId) {
+        Follow follow = followRepository.findByFollowerIdAndFolloweeId(followerId, followeeId)
+                .orElseThrow(() -> new IllegalArgumentException("尚未追蹤此使用者"));
+
+        followRepository.delete(follow);
+        userRepository.addToFollowerCount(followeeId, -1L);
+        entityCacheService.evictAfterCommit(User.class, followeeId);
+        // 更新後的資料列已鎖定，讀到的數量即為此次減少後的值
+        timelineService.onFollowerCountDecreased(followeeId, userRepository.findFollowerCountById(followeeId));
+        timelineService.invalidate(followerId);
+    }
+
+    /**
+     * 檢查是否已追蹤使用者
+     *
+     * @param followerId 追蹤者 ID
+     * @param followeeId 被追蹤者 ID
+     * @return 是否已追蹤
+     */
+    @Transactional(readOnly = true)
+    public boolean isFollowing(Long followerId, Long followeeId) {
+        return followRepository.existsByFollowerIdAndFolloweeId(followerId, followeeId);
+    }
+}
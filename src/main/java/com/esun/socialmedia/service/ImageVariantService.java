@@ -0,0 +1,407 @@
+package com.esun.socialmedia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 圖片縮圖服務
+ *
+ * 上傳完成後於背景產生固定寬度的縮圖（寬度不超過原圖者略過），
+ * 以 ImageIO 重新編碼，原圖的 EXIF 等中繼資料不會帶到縮圖。
+ * 縮圖與原圖放在同一目錄：{雜湊}_w{寬度}.{jpg|png}（GIF 輸出為 PNG）。
+ *
+ * 工作佇列以檔案保存：每個待處理的原圖在 {upload.dir}/.jobs 下有一個標記檔，處理完成才刪除，
+ * 重新啟動時重新排入。工作由固定大小、佇列有上限的執行緒池處理，
+ * 佇列已滿的工作留在標記檔中，由定期掃描補排，不會遺失。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageVariantService.class);
+
+    // 上傳檔案的 URL：.../uploads/{雜湊前兩碼}/{雜湊}.{副檔名}
+    private static final Pattern UPLOAD_URL =
+            Pattern.compile("^(.*" + FileStorageService.URL_PREFIX + ")([0-9a-f]{2})/(\\2[0-9a-f]{62})\\.(jpg|png|gif)$");
+    private static final Pattern JOB_FILE = Pattern.compile("([0-9a-f]{64})\\.(jpg|png|gif)");
+
+    private final FileStorageService fileStorageService;
+    private final MeterRegistry meterRegistry;
+
+    private Path jobDir;
+    private ThreadPoolExecutor executor;
+    private int[] widths;
+
+    // 已排入執行緒池或處理中的工作，避免重複排入
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    // 雜湊 -> 已完成的縮圖（寬度 -> 檔名），依存取順序淘汰
+    private final Map<String, Map<Integer, String>> ready = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Map<Integer, String>> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private Timer duration;
+    private Counter failed;
+
+    @Value("${app.upload.variant-widths:320,640}")
+    private String variantWidths = "320,640";
+
+    @Value("${app.upload.variant-threads:1}")
+    private int threads = 1;
+
+    @Value("${app.upload.variant-queue-capacity:100}")
+    private int queueCapacity = 100;
+
+    @Value("${app.upload.max-pixels:40000000}")
+    private long maxPixels = 40000000L;
+
+    @Value("${app.upload.variant-cache-size:10000}")
+    private int cacheSize = 10000;
+
+    @Autowired
+    public ImageVariantService(FileStorageService fileStorageService, MeterRegistry meterRegistry) {
+        this.fileStorageService = fileStorageService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 建立執行緒池並重新排入上次未完成的工作
+     */
+    @PostConstruct
+    public void init() {
+        widths = Arrays.stream(variantWidths.split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .filter(width -> width > 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        jobDir = fileStorageService.getRoot().resolve(".jobs");
+        try {
+            Files.createDirectories(jobDir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("無法建立縮圖工作目錄: " + jobDir, e);
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variant-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        duration = Timer.builder("image.variants.duration")
+                .description("產生一張圖片所有縮圖的時間")
+                .register(meterRegistry);
+        failed = Counter.builder("image.variants.failed")
+                .description("無法產生縮圖的圖片數")
+                .register(meterRegistry);
+        Gauge.builder("image.variants.queued", executor, e -> e.getQueue().size())
+                .description("等待中的縮圖工作數量")
+                .register(meterRegistry);
+
+        resubmitPending();
+    }
+
+    /**
+     * 排入縮圖工作
+     *
+     * 先寫入標記檔再排入執行緒池，排入前重新啟動也不會遺失
+     *
+     * @param sha256 原圖內容雜湊
+     * @param contentType 原圖格式
+     */
+    public void enqueue(String sha256, String contentType) {
+        String extension = extensionOf(contentType);
+        try {
+            Files.createFile(jobDir.resolve(sha256 + "." + extension));
+        } catch (FileAlreadyExistsException e) {
+            // 已在佇列中
+        } catch (IOException e) {
+            log.warn("縮圖工作無法寫入佇列，將直接處理: {}", e.getMessage());
+        }
+        submit(sha256, extension);
+    }
+
+    /**
+     * 取得已完成的縮圖 URL
+     *
+     * @param imageUrl 原圖 URL，非本系統上傳的圖片不會有縮圖
+     * @return 寬度 -> 縮圖 URL，由小到大；尚未完成或沒有縮圖時為空
+     */
+    public Map<Integer, String> variants(String imageUrl) {
+        Matcher matcher = imageUrl != null ? UPLOAD_URL.matcher(imageUrl) : null;
+        if (matcher == null || !matcher.matches()) {
+            return Collections.emptyMap();
+        }
+        String hash = matcher.group(3);
+        Map<Integer, String> files = ready(hash, matcher.group(4));
+        if (files.isEmpty()) {
+            return files;
+        }
+        String base = matcher.group(1) + matcher.group(2) + "/";
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        files.forEach((width, file) -> urls.put(width, base + file));
+        return urls;
+    }
+
+    /**
+     * 補排佇列已滿或執行緒池拒絕而留在標記檔中的工作
+     */
+    @Scheduled(fixedDelayString = "${app.upload.variant-sweep-interval:60000}",
+               initialDelayString = "${app.upload.variant-sweep-interval:60000}")
+    public void resubmitPending() {
+        try (DirectoryStream<Path> jobs = Files.newDirectoryStream(jobDir)) {
+            for (Path job : jobs) {
+                Matcher matcher = JOB_FILE.matcher(job.getFileName().toString());
+                if (matcher.matches() && !submit(matcher.group(1), matcher.group(2))) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("縮圖工作佇列讀取失敗: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // 未完成的工作留在標記檔中，下次啟動時重新處理
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return 是否已排入（或早已在處理中）；執行緒池佇列已滿時為 false
+     */
+    private boolean submit(String hash, String extension) {
+        String key = hash + "." + extension;
+        if (!inFlight.add(key)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    duration.record(() -> process(hash, extension));
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            return false;
+        }
+    }
+
+    /**
+     * 產生一張原圖的所有縮圖並移除其標記檔
+     */
+    void process(String hash, String extension) {
+        Path dir = fileStorageService.getRoot().resolve(hash.substring(0, 2));
+        Path source = dir.resolve(hash + "." + extension);
+        Map<Integer, String> created = new LinkedHashMap<>();
+        try {
+            if (Files.exists(source)) {
+                BufferedImage image = read(source);
+                String outputExtension = outputExtension(extension);
+                for (int width : widths) {
+                    if (width >= image.getWidth()) {
+                        break;
+                    }
+                    String name = hash + "_w" + width + "." + outputExtension;
+                    Path target = dir.resolve(name);
+                    if (!Files.exists(target)) {
+                        write(resize(image, width, "jpg".equals(outputExtension)), outputExtension, target);
+                    }
+                    created.put(width, name);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // 無法解碼的圖片重試也不會成功，只記錄後移除工作
+            failed.increment();
+            log.warn("縮圖產生失敗 {}: {}", hash, e.getMessage());
+        }
+        synchronized (ready) {
+            ready.put(hash, Collections.unmodifiableMap(created));
+        }
+        try {
+            Files.deleteIfExists(jobDir.resolve(hash + "." + extension));
+        } catch (IOException e) {
+            log.warn("縮圖工作標記移除失敗 {}: {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * 查詢已完成的縮圖；不在記憶體中時（例如重新啟動後）由檔案系統判定
+     */
+    private Map<Integer, String> ready(String hash, String extension) {
+        synchronized (ready) {
+            Map<Integer, String> files = ready.get(hash);
+            if (files != null) {
+                return files;
+            }
+        }
+        if (Files.exists(jobDir.resolve(hash + "." + extension))) {
+            // 尚在佇列中，完成前不快取
+            return Collections.emptyMap();
+        }
+        Path dir = fileStorageService.getRoot().resolve(hash.substring(0, 2));
+        String outputExtension = outputExtension(extension);
+        Map<Integer, String> files = new LinkedHashMap<>();
+        for (int width : widths) {
+            String name = hash + "_w" + width + "." + outputExtension;
+            if (Files.exists(dir.resolve(name))) {
+                files.put(width, name);
+            }
+        }
+        files = Collections.unmodifiableMap(files);
+        synchronized (ready) {
+            ready.put(hash, files);
+        }
+        return files;
+    }
+
+    private BufferedImage read(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                throw new IOException("無法辨識的圖片格式");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // 解碼前先檢查尺寸，避免極大尺寸的圖片耗盡記憶體
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new IOException("圖片尺寸過大: " + reader.getWidth(0) + "x" + reader.getHeight(0));
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 等比例縮小到指定寬度；縮小超過一半時分次減半，避免單次縮放的鋸齒
+     */
+    static BufferedImage resize(BufferedImage source, int width, boolean opaque) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        int type = opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB;
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            int nextWidth = Math.max(width, currentWidth / 2);
+            int nextHeight = nextWidth == width ? height : Math.max(height, currentHeight / 2);
+            BufferedImage next = new BufferedImage(nextWidth, nextHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                if (opaque) {
+                    // JPEG 沒有透明度，透明區域以白色填滿
+                    graphics.setColor(Color.WHITE);
+                    graphics.fillRect(0, 0, nextWidth, nextHeight);
+                }
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, nextWidth, nextHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+            currentWidth = nextWidth;
+            currentHeight = nextHeight;
+        } while (currentWidth > width);
+        return current;
+    }
+
+    /**
+     * 寫入暫存檔後以原子性的重新命名放到最終位置
+     */
+    private void write(BufferedImage image, String extension, Path target) throws IOException {
+        Path temp = Files.createTempFile(fileStorageService.getRoot().resolve(".tmp"), "variant", ".part");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg".equals(extension) ? "jpeg" : "png").next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                if ("jpg".equals(extension)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(0.85f);
+                }
+                // 不附帶任何中繼資料
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String extensionOf(String contentType) {
+        switch (contentType) {
+            case "image/jpeg":
+                return "jpg";
+            case "image/png":
+                return "png";
+            case "image/gif":
+                return "gif";
+            default:
+                throw new IllegalArgumentException("不支援的檔案格式: " + contentType);
+        }
+    }
+
+    private static String outputExtension(String extension) {
+        return "jpg".equals(extension) ? "jpg" : "png";
+    }
+}
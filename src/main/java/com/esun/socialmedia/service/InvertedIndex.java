@@ -0,0 +1,260 @@
+package com.esun.socialmedia.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 記憶體內反向索引
+ *
+ * 每個詞彙對應一組依文件 ID 排序的倒排列表（long[] 文件 ID 與 int[] 詞頻），
+ * 查詢時所有詞彙都須出現（AND），並以 BM25 計分排序。
+ * 讀取共用讀鎖，新增/移除文件取得寫鎖。
+ *
+ * @author 開發團隊
+ */
+final class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final Comparator<Hit> WORST_FIRST =
+            Comparator.comparingDouble((Hit h) -> h.score).thenComparingLong(h -> h.docId);
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 新增或取代文件
+     *
+     * @param docId 文件 ID
+     * @param text 文件內容
+     */
+    void put(long docId, String text) {
+        List<String> tokens = TextTokenizer.tokenizeForIndex(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+            if (tokens.isEmpty()) {
+                return;
+            }
+            frequencies.forEach((term, tf) ->
+                    postings.computeIfAbsent(term, t -> new Postings()).put(docId, tf));
+            documents.put(docId, new Document(frequencies.keySet().toArray(new String[0]), tokens.size()));
+            totalLength += tokens.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 移除文件
+     *
+     * @param docId 文件 ID
+     */
+    void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 搜尋並依 BM25 分數由高到低排序（同分時新文件優先）
+     *
+     * @param query 查詢字串
+     * @param offset 略過的筆數
+     * @param limit 回傳筆數上限
+     * @return 搜尋結果
+     */
+    SearchHits search(String query, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextTokenizer.tokenizeForQuery(query)));
+        if (terms.isEmpty()) {
+            return SearchHits.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            double[] idf = new double[terms.size()];
+            int n = documents.size();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return SearchHits.empty();
+                }
+                lists.add(list);
+            }
+            // 由最短的倒排列表開始交集
+            Integer[] order = new Integer[lists.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> lists.get(i).size));
+            for (int i = 0; i < lists.size(); i++) {
+                int df = lists.get(i).size;
+                idf[i] = Math.log(1.0 + (n - df + 0.5) / (df + 0.5));
+            }
+
+            double averageLength = n == 0 ? 1.0 : (double) totalLength / n;
+            // 符合筆數不會超過最短的倒排列表，保留數量以此為上限，避免過深的分頁配置過大的佇列
+            Postings shortest = lists.get(order[0]);
+            int keep = offset >= shortest.size ? 0 : (int) Math.min((long) offset + limit, shortest.size);
+            PriorityQueue<Hit> top = new PriorityQueue<>(Math.max(1, keep), WORST_FIRST);
+            int total = 0;
+
+            for (int p = 0; p < shortest.size; p++) {
+                long docId = shortest.ids[p];
+                double lengthNorm = K1 * (1 - B + B * documents.get(docId).length / averageLength);
+                double score = 0.0;
+                boolean matched = true;
+                for (int k = 0; k < order.length; k++) {
+                    int tf = k == 0 ? shortest.tfs[p] : lists.get(order[k]).tf(docId);
+                    if (tf == 0) {
+                        matched = false;
+                        break;
+                    }
+                    score += idf[order[k]] * tf * (K1 + 1) / (tf + lengthNorm);
+                }
+                if (!matched) {
+                    continue;
+                }
+                total++;
+                if (keep > 0) {
+                    top.offer(new Hit(docId, score));
+                    if (top.size() > keep) {
+                        top.poll();
+                    }
+                }
+            }
+
+            List<Long> ranked = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                ranked.add(top.poll().docId);
+            }
+            Collections.reverse(ranked);
+            List<Long> page = offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+            return new SearchHits(new ArrayList<>(page), total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 已索引的文件數量
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 詞彙數量
+     */
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(long docId) {
+        Document document = documents.remove(docId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(docId) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    private static final class Document {
+        private final String[] terms;
+        private final int length;
+
+        private Document(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static final class Hit {
+        private final long docId;
+        private final double score;
+
+        private Hit(long docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+    }
+
+    /**
+     * 倒排列表：依文件 ID 遞增排序的平行陣列
+     */
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int[] tfs = new int[4];
+        private int size;
+
+        void put(long docId, int tf) {
+            int index = Arrays.binarySearch(ids, 0, size, docId);
+            if (index >= 0) {
+                tfs[index] = tf;
+                return;
+            }
+            index = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                tfs = Arrays.copyOf(tfs, size * 2);
+            }
+            System.arraycopy(ids, index, ids, index + 1, size - index);
+            System.arraycopy(tfs, index, tfs, index + 1, size - index);
+            ids[index] = docId;
+            tfs[index] = tf;
+            size++;
+        }
+
+        boolean remove(long docId) {
+            int index = Arrays.binarySearch(ids, 0, size, docId);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            System.arraycopy(tfs, index + 1, tfs, index, size - index - 1);
+            size--;
+            return true;
+        }
+
+        int tf(long docId) {
+            int index = Arrays.binarySearch(ids, 0, size, docId);
+            return index >= 0 ? tfs[index] : 0;
+        }
+    }
+}
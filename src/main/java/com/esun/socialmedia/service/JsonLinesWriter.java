@@ -0,0 +1,68 @@
+package com.esun.socialmedia.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JSON Lines（NDJSON）寫入器
+ *
+ * 每筆物件序列化為一行 JSON 並以換行結尾，逐筆寫入輸出串流，不在記憶體中累積整份內容。
+ * 序列化設定沿用應用程式的 ObjectMapper（欄位命名等）；只有產生器固定大小的緩衝區，
+ * 緩衝區滿時才寫入底層串流，每筆寫入不會各自 flush。
+ *
+ * @author 開發團隊
+ */
+public final class JsonLinesWriter implements Closeable, Flushable {
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private long count;
+
+    /**
+     * @param objectMapper 序列化設定
+     * @param out 輸出串流；關閉寫入器時一併關閉
+     * @throws IOException 建立產生器失敗
+     */
+    public JsonLinesWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // 行與行之間只有換行，不使用預設的空白分隔
+        this.generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * 寫入一筆物件為一行 JSON
+     *
+     * @param value 物件
+     * @throws IOException 寫入失敗（例如用戶端中斷連線）
+     */
+    public void write(Object value) throws IOException {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+        count++;
+    }
+
+    /**
+     * @return 已寫入的行數
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,204 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.comment.CommentResponse;
+import com.esun.socialmedia.dto.common.CursorPage;
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.entity.Comment;
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.repository.CommentRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 最新發文與最新留言緩衝服務
+ *
+ * 以無鎖環狀緩衝區保存已轉換好的最新發文與留言回應，
+ * 建立時附加、更新時替換、刪除時移除，最新列表直接由記憶體提供。
+ * 緩衝區於應用程式開始接收請求前由資料庫預先載入。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class LatestContentService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestContentService.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final CommentCountService commentCountService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final RingBuffer<PostResponse> posts;
+    private final RingBuffer<CommentResponse> comments;
+
+    // 預先載入完成前一律回到資料庫查詢
+    private volatile boolean ready;
+
+    // 預先載入時資料庫的資料是否已全部放入緩衝區
+    private volatile boolean postsComplete;
+    private volatile boolean commentsComplete;
+
+    @Autowired
+    public LatestContentService(PostRepository postRepository,
+                                CommentRepository commentRepository,
+                                CommentCountService commentCountService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.latest.capacity:128}") int capacity) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.commentCountService = commentCountService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // 容量至少要能滿足單次請求的上限
+        int size = Math.max(capacity, CursorPage.MAX_PAGE_SIZE);
+        this.posts = new RingBuffer<>(size);
+        this.comments = new RingBuffer<>(size);
+    }
+
+    /**
+     * 由資料庫預先載入最新發文與留言
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Post> latestPosts = postRepository.findLatestPosts(posts.capacity());
+                for (int i = latestPosts.size() - 1; i >= 0; i--) {
+                    Post post = latestPosts.get(i);
+                    long commentCount = commentCountService.currentCount(post.getId(), post.getCommentCount());
+                    posts.append(PostResponse.fromWithCommentCount(post, commentCount));
+                }
+                postsComplete = latestPosts.size() < posts.capacity();
+
+                List<Comment> latestComments = commentRepository.findLatestComments(comments.capacity());
+                for (int i = latestComments.size() - 1; i >= 0; i--) {
+                    comments.append(CommentResponse.from(latestComments.get(i)));
+                }
+                commentsComplete = latestComments.size() < comments.capacity();
+            });
+            ready = true;
+            log.info("最新內容緩衝區已載入 {} 篇發文、{} 則留言", posts.appended(), comments.appended());
+        } catch (RuntimeException e) {
+            log.warn("最新內容緩衝區載入失敗，最新列表將改由資料庫查詢: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 獲取最新發文
+     *
+     * @param limit 數量限制
+     * @return 最新發文列表；緩衝區無法完整提供時回傳 null
+     */
+    public List<PostResponse> latestPosts(int limit) {
+        return ready ? answer(posts, limit, postsComplete) : null;
+    }
+
+    /**
+     * 獲取最新留言
+     *
+     * @param limit 數量限制
+     * @return 最新留言列表；緩衝區無法完整提供時回傳 null
+     */
+    public List<CommentResponse> latestComments(int limit) {
+        return ready ? answer(comments, limit, commentsComplete) : null;
+    }
+
+    /**
+     * 記錄新發文（於目前交易提交後生效）
+     *
+     * @param post 發文回應
+     */
+    public void onPostCreated(PostResponse post) {
+        AfterCommit.run(() -> posts.append(post));
+    }
+
+    /**
+     * 替換已更新的發文（於目前交易提交後生效）
+     *
+     * @param post 發文回應
+     */
+    public void onPostUpdated(PostResponse post) {
+        AfterCommit.run(() -> posts.replaceIf(p -> p.getId().equals(post.getId()), p -> post));
+    }
+
+    /**
+     * 移除已刪除的發文及其留言（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     */
+    public void onPostDeleted(Long postId) {
+        AfterCommit.run(() -> {
+            posts.removeIf(p -> p.getId().equals(postId));
+            comments.removeIf(c -> Objects.equals(c.getPostId(), postId));
+        });
+    }
+
+    /**
+     * 替換該作者發文與留言內嵌的作者資訊（於目前交易提交後生效）
+     *
+     * @param author 更新後的作者資訊
+     */
+    public void onAuthorUpdated(UserResponse author) {
+        AfterCommit.run(() -> {
+            posts.replaceIf(p -> isAuthor(p.getAuthor(), author), p -> p.withAuthor(author));
+            comments.replaceIf(c -> isAuthor(c.getAuthor(), author), c -> c.withAuthor(author));
+        });
+    }
+
+    /**
+     * 記錄新留言並更新所屬發文的留言數量（於目前交易提交後生效）
+     *
+     * @param comment 留言回應
+     */
+    public void onCommentCreated(CommentResponse comment) {
+        AfterCommit.run(() -> {
+            comments.append(comment);
+            adjustCommentCount(comment.getPostId(), 1L);
+        });
+    }
+
+    /**
+     * 移除已刪除的留言並更新所屬發文的留言數量（於目前交易提交後生效）
+     *
+     * @param commentId 留言 ID
+     * @param postId 所屬發文 ID
+     */
+    public void onCommentDeleted(Long commentId, Long postId) {
+        AfterCommit.run(() -> {
+            comments.removeIf(c -> c.getId().equals(commentId));
+            adjustCommentCount(postId, -1L);
+        });
+    }
+
+    private static boolean isAuthor(UserResponse embedded, UserResponse author) {
+        return embedded != null && author.getId().equals(embedded.getId());
+    }
+
+    private void adjustCommentCount(Long postId, long delta) {
+        posts.replaceIf(p -> p.getId().equals(postId), p -> {
+            long count = p.getCommentCount() != null ? p.getCommentCount() : 0L;
+            return p.withCommentCount(Math.max(0L, count + delta));
+        });
+    }
+
+    private static <T> List<T> answer(RingBuffer<T> buffer, int limit, boolean seededComplete) {
+        List<T> latest = buffer.latest(limit);
+        if (latest.size() >= limit) {
+            return latest;
+        }
+        // 數量不足時，只有資料庫的資料從未被覆寫出緩衝區才能確定已經是全部
+        boolean complete = seededComplete && buffer.appended() <= buffer.capacity();
+        return complete ? latest : null;
+    }
+}
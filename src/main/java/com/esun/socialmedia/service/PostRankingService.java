@@ -0,0 +1,452 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.repository.PostRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * 熱門發文排行服務
+ *
+ * 在記憶體中維護每篇發文隨時間衰減的熱度分數：發文本身與每則留言各貢獻一份權重，
+ * 權重每經過一個半衰期減半。分數以固定基準時間換算（越新的事件權重越大），
+ * 所有發文以相同速率衰減，因此排序不需隨時間重算。
+ * 只保留分數最高的前 N 篇發文及其回應快照，熱門列表直接由記憶體提供，
+ * 並定期將分數寫入快照檔，重啟後據以還原。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class PostRankingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostRankingService.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x52414e4b;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // 新事件的指數超過此值時重設基準時間，避免分數溢位
+    private static final double MAX_EXPONENT = 64.0;
+
+    private static final Comparator<Entry> BY_SCORE =
+            Comparator.comparingDouble((Entry e) -> e.score).reversed()
+                    .thenComparing(Comparator.comparingLong((Entry e) -> e.postId).reversed());
+
+    private final PostRepository postRepository;
+    private final CommentCountService commentCountService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.ranking.capacity:1000}")
+    private int capacity = 1000;
+
+    @Value("${app.ranking.half-life-hours:12}")
+    private double halfLifeHours = 12;
+
+    @Value("${app.ranking.post-weight:1.0}")
+    private double postWeight = 1.0;
+
+    @Value("${app.ranking.comment-weight:1.0}")
+    private double commentWeight = 1.0;
+
+    @Value("${app.ranking.snapshot-file:./data/ranking.snapshot}")
+    private String snapshotFile = "./data/ranking.snapshot";
+
+    // 以下狀態皆由 this 保護
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(BY_SCORE);
+    private long anchorSeconds = LocalDateTime.now().atZone(ZoneId.systemDefault()).toEpochSecond();
+    private boolean dirty;
+
+    // 已排序的熱門列表，寫入後標記失效，讀取時才重建
+    private volatile List<PostResponse> top = List.of();
+
+    @Autowired
+    public PostRankingService(PostRepository postRepository,
+                              CommentCountService commentCountService,
+                              PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.commentCountService = commentCountService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 記錄新發文（於目前交易提交後生效）
+     *
+     * @param post 發文回應
+     */
+    public void onPostCreated(PostResponse post) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                apply(post.getId(), postWeight, post.getCreatedAt(), 0L, post);
+            }
+        });
+    }
+
+    /**
+     * 更新已在排行中的發文快照（於目前交易提交後生效）
+     *
+     * @param post 發文回應
+     */
+    public void onPostUpdated(PostResponse post) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                Entry entry = entries.get(post.getId());
+                if (entry != null) {
+                    entry.post = post;
+                    dirty = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * 替換排行中該作者發文內嵌的作者資訊（於目前交易提交後生效）
+     *
+     * @param author 更新後的作者資訊
+     */
+    public void onAuthorUpdated(UserResponse author) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                for (Entry entry : entries.values()) {
+                    if (entry.post.getAuthor() != null && author.getId().equals(entry.post.getAuthor().getId())) {
+                        entry.post = entry.post.withAuthor(author);
+                        dirty = true;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 將發文移出排行（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     */
+    public void onPostDeleted(Long postId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                Entry entry = entries.remove(postId);
+                if (entry != null) {
+                    ranking.remove(entry);
+                    dirty = true;
+                }
+            }
+        });
+    }
+
+    /**
+     * 記錄新增一則留言（於目前交易提交後生效）
+     *
+     * 發文尚未在排行中時才會呼叫 snapshot 取得回應快照，且在目前交易內完成
+     *
+     * @param postId 發文 ID
+     * @param createdAt 留言建立時間
+     * @param snapshot 發文回應快照（留言數量不含本則留言）
+     */
+    public void onCommentCreated(Long postId, LocalDateTime createdAt, Supplier<PostResponse> snapshot) {
+        PostResponse post = isTracked(postId) ? null : snapshot.get();
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                apply(postId, commentWeight, createdAt, 1L, post);
+            }
+        });
+    }
+
+    /**
+     * 記錄刪除一則留言，扣除該留言當初貢獻的分數（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     * @param createdAt 被刪除留言的建立時間
+     */
+    public void onCommentDeleted(Long postId, LocalDateTime createdAt) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                if (entries.containsKey(postId)) {
+                    apply(postId, -commentWeight, createdAt, -1L, null);
+                }
+            }
+        });
+    }
+
+    /**
+     * 檢查發文是否在排行中
+     *
+     * @param postId 發文 ID
+     * @return 是否在排行中
+     */
+    public synchronized boolean isTracked(Long postId) {
+        return entries.containsKey(postId);
+    }
+
+    /**
+     * 獲取熱門發文（分頁），只讀取記憶體中的排行
+     *
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁大小
+     * @return 熱門發文分頁列表
+     */
+    public Page<PostResponse> getTopPosts(int page, int size) {
+        List<PostResponse> ranked = currentTop();
+        PageRequest pageable = PageRequest.of(page, size);
+        long from = Math.min(pageable.getOffset(), ranked.size());
+        int to = (int) Math.min(from + size, ranked.size());
+        return new PageImpl<>(ranked.subList((int) from, to), pageable, ranked.size());
+    }
+
+    /**
+     * 獲取排行中的發文數量
+     *
+     * @return 發文數量
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 應用程式啟動後由快照檔還原排行，沒有快照時以留言數量最多的發文冷啟動
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        Map<Long, Double> scores = new LinkedHashMap<>();
+        long anchor = readSnapshot(scores);
+        try {
+            List<Post> posts = transactionTemplate.execute(status -> scores.isEmpty()
+                    ? postRepository.findPopularPosts(PageRequest.of(0, capacity))
+                    : postRepository.findAllWithAuthorByIdIn(scores.keySet()));
+            int restored = restore(posts, scores, anchor);
+            log.info("熱門排行已載入 {} 篇發文（{}）", restored, scores.isEmpty() ? "冷啟動" : "快照");
+        } catch (RuntimeException e) {
+            log.warn("熱門排行載入失敗，將由新事件重新累積: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期將排行分數寫入快照檔
+     */
+    @Scheduled(fixedDelayString = "${app.ranking.snapshot-interval:300000}",
+               initialDelayString = "${app.ranking.snapshot-interval:300000}")
+    public void saveSnapshot() {
+        long anchor;
+        long[] postIds;
+        double[] scores;
+        synchronized (this) {
+            anchor = anchorSeconds;
+            postIds = new long[ranking.size()];
+            scores = new double[ranking.size()];
+            int i = 0;
+            for (Entry entry : ranking) {
+                postIds[i] = entry.postId;
+                scores[i] = entry.score;
+                i++;
+            }
+        }
+
+        Path target = Paths.get(snapshotFile);
+        try {
+            Path dir = target.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, "ranking", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(anchor);
+                out.writeInt(postIds.length);
+                for (int i = 0; i < postIds.length; i++) {
+                    out.writeLong(postIds[i]);
+                    out.writeDouble(scores[i]);
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("熱門排行快照寫入失敗: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 應用程式關閉前寫入最後一次快照
+     */
+    @PreDestroy
+    public void shutdown() {
+        saveSnapshot();
+    }
+
+    /**
+     * 以資料庫讀取的發文還原排行，已存在的項目（啟動期間的新事件）優先保留
+     *
+     * @param posts 發文列表
+     * @param scores 快照分數，空值表示冷啟動
+     * @param anchor 快照的基準時間（秒）
+     * @return 還原的發文數量
+     */
+    synchronized int restore(List<Post> posts, Map<Long, Double> scores, long anchor) {
+        int restored = 0;
+        for (Post post : posts) {
+            if (entries.containsKey(post.getId())) {
+                continue;
+            }
+            long commentCount = commentCountService.currentCount(post.getId(), post.getCommentCount());
+            PostResponse response = PostResponse.fromWithCommentCount(post, commentCount);
+            Double saved = scores.get(post.getId());
+            double score;
+            if (saved != null) {
+                score = saved * Math.pow(2, (anchor - anchorSeconds) / halfLifeSeconds());
+            } else {
+                // 冷啟動時不知道留言時間，以發文時間近似
+                score = (postWeight + commentWeight * commentCount) * decayFactor(post.getCreatedAt());
+            }
+            Entry entry = new Entry(post.getId(), score, response);
+            entries.put(entry.postId, entry);
+            ranking.add(entry);
+            restored++;
+        }
+        evictOverflow();
+        dirty = true;
+        return restored;
+    }
+
+    private void apply(Long postId, double weight, LocalDateTime at, long commentDelta, PostResponse snapshot) {
+        rebaseIfNeeded(at);
+        double delta = weight * decayFactor(at);
+
+        Entry entry = entries.get(postId);
+        if (entry == null) {
+            if (snapshot == null) {
+                return;
+            }
+            double base = commentDelta != 0 && snapshot.getCreatedAt() != null
+                    ? postWeight * decayFactor(snapshot.getCreatedAt())
+                    : 0.0;
+            entry = new Entry(postId, base, snapshot);
+            entries.put(postId, entry);
+        } else {
+            ranking.remove(entry);
+        }
+
+        entry.score = Math.max(0.0, entry.score + delta);
+        if (commentDelta != 0) {
+            long count = entry.post.getCommentCount() != null ? entry.post.getCommentCount() : 0L;
+            entry.post = entry.post.withCommentCount(Math.max(0L, count + commentDelta));
+        }
+        ranking.add(entry);
+        evictOverflow();
+        dirty = true;
+    }
+
+    private void evictOverflow() {
+        while (ranking.size() > capacity) {
+            Entry lowest = ranking.pollLast();
+            entries.remove(lowest.postId);
+        }
+    }
+
+    private void rebaseIfNeeded(LocalDateTime at) {
+        long seconds = epochSeconds(at);
+        if ((seconds - anchorSeconds) / halfLifeSeconds() <= MAX_EXPONENT) {
+            return;
+        }
+        double factor = Math.pow(2, (anchorSeconds - seconds) / halfLifeSeconds());
+        List<Entry> all = new ArrayList<>(ranking);
+        ranking.clear();
+        for (Entry entry : all) {
+            entry.score *= factor;
+            ranking.add(entry);
+        }
+        anchorSeconds = seconds;
+    }
+
+    private double decayFactor(LocalDateTime at) {
+        return Math.pow(2, (epochSeconds(at) - anchorSeconds) / halfLifeSeconds());
+    }
+
+    private double halfLifeSeconds() {
+        return halfLifeHours * 3600.0;
+    }
+
+    private static long epochSeconds(LocalDateTime at) {
+        LocalDateTime time = at != null ? at : LocalDateTime.now();
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    private List<PostResponse> currentTop() {
+        synchronized (this) {
+            if (dirty) {
+                List<PostResponse> rebuilt = new ArrayList<>(ranking.size());
+                for (Entry entry : ranking) {
+                    rebuilt.add(entry.post);
+                }
+                top = List.copyOf(rebuilt);
+                dirty = false;
+            }
+            return top;
+        }
+    }
+
+    private long readSnapshot(Map<Long, Double> scores) {
+        Path source = Paths.get(snapshotFile);
+        if (!Files.exists(source)) {
+            return 0L;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("熱門排行快照格式不符，略過: {}", source);
+                return 0L;
+            }
+            long anchor = in.readLong();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                scores.put(in.readLong(), in.readDouble());
+            }
+            return anchor;
+        } catch (IOException e) {
+            log.warn("熱門排行快照讀取失敗，改為冷啟動: {}", e.getMessage());
+            scores.clear();
+            return 0L;
+        }
+    }
+
+    private static final class Entry {
+        private final long postId;
+        private double score;
+        private PostResponse post;
+
+        private Entry(long postId, double score, PostResponse post) {
+            this.postId = postId;
+            this.score = score;
+            this.post = post;
+        }
+    }
+}
@@ -1,24 +1,30 @@
 package com.esun.socialmedia.service;
 
+import com.esun.socialmedia.dto.common.CursorPage;
+import com.esun.socialmedia.dto.common.PageCursor;
 import com.esun.socialmedia.dto.post.CreatePostRequest;
 import com.esun.socialmedia.dto.post.PostResponse;
 import com.esun.socialmedia.dto.post.UpdatePostRequest;
 import com.esun.socialmedia.entity.Post;
 import com.esun.socialmedia.entity.User;
-import com.esun.socialmedia.repository.CommentRepository;
 import com.esun.socialmedia.repository.PostRepository;
 import com.esun.socialmedia.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,15 +40,33 @@ public class PostService {
 
     private final PostRepository postRepository;
     private final UserRepository userRepository;
-    private final CommentRepository commentRepository;
+    private final CommentCountService commentCountService;
+    private final PostRankingService postRankingService;
+    private final TimelineService timelineService;
+    private final LatestContentService latestContentService;
+    private final SearchIndexService searchIndexService;
+    private final ResourceVersionService resourceVersionService;
+    private final ResponseCacheService responseCacheService;
 
     @Autowired
     public PostService(PostRepository postRepository,
                       UserRepository userRepository,
-                      CommentRepository commentRepository) {
+                      CommentCountService commentCountService,
+                      PostRankingService postRankingService,
+                      TimelineService timelineService,
+                      LatestContentService latestContentService,
+                      SearchIndexService searchIndexService,
+                      ResourceVersionService resourceVersionService,
+                      ResponseCacheService responseCacheService) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
-        this.commentRepository = commentRepository;
+        this.commentCountService = commentCountService;
+        this.postRankingService = postRankingService;
+        this.timelineService = timelineService;
+        this.latestContentService = latestContentService;
+        this.searchIndexService = searchIndexService;
+        this.resourceVersionService = resourceVersionService;
+        this.responseCacheService = responseCacheService;
     }
 
     /**
@@ -62,7 +86,14 @@ public class PostService {
         post.setAuthor(author);
 
         Post savedPost = postRepository.save(post);
-        return PostResponse.fromWithCommentCount(savedPost, 0L);
+        PostResponse response = PostResponse.fromWithCommentCount(savedPost, 0L);
+        postRankingService.onPostCreated(response);
+        timelineService.onPostCreated(savedPost.getId(), authorId, author.getFollowerCount());
+        latestContentService.onPostCreated(response);
+        searchIndexService.onPostSaved(savedPost.getId(), savedPost.getContent());
+        resourceVersionService.onPostCreated(authorId);
+        responseCacheService.invalidate(ResponseCacheService.FEED_TAG);
+        return response;
     }
 
     /**
@@ -74,10 +105,7 @@ public class PostService {
     @Transactional(readOnly = true)
     public Optional<PostResponse> getPostById(Long postId) {
         return postRepository.findByIdWithAuthor(postId)
-                .map(post -> {
-                    Long commentCount = commentRepository.countByPostId(postId);
-                    return PostResponse.fromWithCommentCount(post, commentCount);
-                });
+                .map(this::toResponse);
     }
 
     /**
@@ -89,13 +117,31 @@ public class PostService {
      */
     @Transactional(readOnly = true)
     public Page<PostResponse> getAllPosts(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, CursorPage.clampSize(size), Sort.by("createdAt").descending());
         Page<Post> posts = postRepository.findAllByOrderByCreatedAtDesc(pageable);
         
-        return posts.map(post -> {
-            Long commentCount = commentRepository.countByPostId(post.getId());
-            return PostResponse.fromWithCommentCount(post, commentCount);
-        });
+        return toResponsePage(posts);
+    }
+
+    /**
+     * 獲取所有發文（游標分頁）
+     * 
+     * @param cursor 上一頁回傳的游標，空值表示第一頁
+     * @param size 每頁大小
+     * @return 發文游標分頁
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getAllPostsByCursor(String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Post> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findAllByOrderByCreatedAtDescIdDesc(limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            posts = postRepository.findPostsBefore(position.getCreatedAt(), position.getId(), limit);
+        }
+        return CursorPage.from(posts, pageSize, this::toResponse);
     }
 
     /**
@@ -108,18 +154,68 @@ public class PostService {
      */
     @Transactional(readOnly = true)
     public Page<PostResponse> getPostsByAuthor(Long authorId, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, CursorPage.clampSize(size), Sort.by("createdAt").descending());
         Page<Post> posts = postRepository.findByAuthorIdOrderByCreatedAtDesc(authorId, pageable);
         
-        return posts.map(post -> {
-            Long commentCount = commentRepository.countByPostId(post.getId());
-            return PostResponse.fromWithCommentCount(post, commentCount);
-        });
+        return toResponsePage(posts);
+    }
+
+    /**
+     * 根據作者獲取發文（游標分頁）
+     * 
+     * @param authorId 作者 ID
+     * @param cursor 上一頁回傳的游標，空值表示第一頁
+     * @param size 每頁大小
+     * @return 發文游標分頁
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getPostsByAuthorByCursor(Long authorId, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Post> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findByAuthorIdOrderByCreatedAtDescIdDesc(authorId, limit);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            posts = postRepository.findPostsByAuthorBefore(authorId, position.getCreatedAt(), position.getId(), limit);
+        }
+        return CursorPage.from(posts, pageSize, this::toResponse);
+    }
+
+    /**
+     * 獲取使用者的追蹤時間軸（游標分頁）
+     * 
+     * 發文 ID 由時間軸服務提供，再以單一查詢載入發文內容，已刪除的發文會被略過
+     * 
+     * @param userId 使用者 ID
+     * @param cursor 上一頁回傳的游標，空值表示第一頁
+     * @param size 每頁大小
+     * @return 發文游標分頁
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<PostResponse> getTimeline(Long userId, String cursor, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : PageCursor.decode(cursor).getId();
+        List<Long> postIds = timelineService.getPostIds(userId, beforeId, pageSize + 1);
+        if (postIds.isEmpty()) {
+            return CursorPage.from(List.<Post>of(), pageSize, this::toResponse);
+        }
+
+        Map<Long, Post> postsById = postRepository.findAllWithAuthorByIdIn(postIds).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = postIds.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return CursorPage.from(posts, pageSize, this::toResponse);
     }
 
     /**
      * 搜尋發文
      * 
+     * 由全文檢索索引取得依相關度排序的發文 ID，再以單一查詢載入該頁發文；
+     * 索引尚未就緒時改用資料庫關鍵字查詢（依建立時間排序）
+     * 
      * @param keyword 關鍵字
      * @param page 頁碼（從 0 開始）
      * @param size 每頁大小
@@ -127,13 +223,25 @@ public class PostService {
      */
     @Transactional(readOnly = true)
     public Page<PostResponse> searchPosts(String keyword, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        int pageSize = CursorPage.clampSize(size);
+        SearchHits hits = searchIndexService.searchPosts(keyword, page, pageSize);
+        if (hits != null) {
+            Map<Long, Post> postsById = hits.getIds().isEmpty()
+                    ? Map.of()
+                    : postRepository.findAllWithAuthorByIdIn(hits.getIds()).stream()
+                            .collect(Collectors.toMap(Post::getId, Function.identity()));
+            List<PostResponse> content = hits.getIds().stream()
+                    .map(postsById::get)
+                    .filter(Objects::nonNull)
+                    .map(this::toResponse)
+                    .collect(Collectors.toList());
+            return new PageImpl<>(content, PageRequest.of(page, pageSize), hits.getTotal());
+        }
+
+        Pageable pageable = PageRequest.of(page, pageSize, Sort.by("createdAt").descending());
         Page<Post> posts = postRepository.findByContentContaining(keyword, pageable);
         
-        return posts.map(post -> {
-            Long commentCount = commentRepository.countByPostId(post.getId());
-            return PostResponse.fromWithCommentCount(post, commentCount);
-        });
+        return toResponsePage(posts);
     }
 
     /**
@@ -157,9 +265,12 @@ public class PostService {
         post.setImage(request.getImage());
 
         Post updatedPost = postRepository.save(post);
-        Long commentCount = commentRepository.countByPostId(postId);
-        
-        return PostResponse.fromWithCommentCount(updatedPost, commentCount);
+        PostResponse response = toResponse(updatedPost);
+        postRankingService.onPostUpdated(response);
+        latestContentService.onPostUpdated(response);
+        searchIndexService.onPostSaved(updatedPost.getId(), updatedPost.getContent());
+        responseCacheService.invalidate(ResponseCacheService.postTag(postId));
+        return response;
     }
 
     /**
@@ -177,42 +288,49 @@ public class PostService {
             throw new IllegalArgumentException("沒有權限刪除此發文");
         }
 
+        searchIndexService.onPostDeleted(postId);
         postRepository.delete(post);
+        commentCountService.discard(postId);
+        postRankingService.onPostDeleted(postId);
+        timelineService.onPostDeleted(postId, currentUserId, post.getAuthor().getFollowerCount());
+        latestContentService.onPostDeleted(postId);
+        resourceVersionService.onPostDeleted(postId);
+        responseCacheService.invalidate(ResponseCacheService.postTag(postId), ResponseCacheService.FEED_TAG);
     }
 
     /**
      * 獲取熱門發文
      * 
+     * 由記憶體中的熱度排行提供，不開啟交易也不查詢資料庫
+     * 
      * @param page 頁碼（從 0 開始）
      * @param size 每頁大小
      * @return 熱門發文分頁列表
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Page<PostResponse> getPopularPosts(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Post> posts = postRepository.findPopularPosts(pageable);
-        
-        return posts.map(post -> {
-            Long commentCount = commentRepository.countByPostId(post.getId());
-            return PostResponse.fromWithCommentCount(post, commentCount);
-        });
+        return postRankingService.getTopPosts(page, CursorPage.clampSize(size));
     }
 
     /**
      * 獲取最新發文
      * 
+     * 優先由記憶體中的最新發文緩衝區提供，緩衝區無法完整提供時才查詢資料庫
+     * 
      * @param limit 數量限制
      * @return 最新發文列表
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<PostResponse> getLatestPosts(int limit) {
-        List<Post> posts = postRepository.findLatestPosts(limit);
+        List<PostResponse> cached = latestContentService.latestPosts(CursorPage.clampSize(limit));
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Post> posts = postRepository.findLatestPosts(CursorPage.clampSize(limit));
         
         return posts.stream()
-                .map(post -> {
-                    Long commentCount = commentRepository.countByPostId(post.getId());
-                    return PostResponse.fromWithCommentCount(post, commentCount);
-                })
+                .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
@@ -227,13 +345,10 @@ public class PostService {
      */
     @Transactional(readOnly = true)
     public Page<PostResponse> getPostsByDateRange(LocalDateTime startTime, LocalDateTime endTime, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("createdAt").descending());
+        Pageable pageable = PageRequest.of(page, CursorPage.clampSize(size), Sort.by("createdAt").descending());
         Page<Post> posts = postRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(startTime, endTime, pageable);
         
-        return posts.map(post -> {
-            Long commentCount = commentRepository.countByPostId(post.getId());
-            return PostResponse.fromWithCommentCount(post, commentCount);
-        });
+        return toResponsePage(posts);
     }
 
     /**
@@ -247,4 +362,25 @@ public class PostService {
     public boolean isPostAuthor(Long postId, Long userId) {
         return postRepository.isAuthor(postId, userId);
     }
+
+    /**
+     * 將發文分頁轉換為回應 DTO
+     * 
+     * @param posts 發文分頁
+     * @return 發文回應分頁
+     */
+    private Page<PostResponse> toResponsePage(Page<Post> posts) {
+        return posts.map(this::toResponse);
+    }
+
+    /**
+     * 將發文轉換為回應 DTO，留言數量讀取 comment_count 欄位並加上尚未寫回的增減量
+     * 
+     * @param post 發文
+     * @return 發文回應
+     */
+    private PostResponse toResponse(Post post) {
+        long commentCount = commentCountService.currentCount(post.getId(), post.getCommentCount());
+        return PostResponse.fromWithCommentCount(post, commentCount);
+    }
 }
@@ -0,0 +1,31 @@
+package com.esun.socialmedia.service;
+
+/**
+ * 資源版本
+ *
+ * 條件式 GET 使用的驗證器：弱 ETag 與最後修改時間
+ *
+ * @author 開發團隊
+ */
+public final class ResourceVersion {
+
+    private final String etag;
+    private final long lastModified;
+
+    /**
+     * @param etag 弱 ETag（含 W/ 前綴與引號）
+     * @param lastModified 最後修改時間（epoch 毫秒）
+     */
+    public ResourceVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
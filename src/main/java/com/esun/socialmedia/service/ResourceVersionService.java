@@ -0,0 +1,248 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.PostRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 資源版本服務（條件式 GET）
+ *
+ * 單一發文與使用者的版本以投影查詢讀取更新時間等少數欄位計算，不載入實體也不建立 DTO；
+ * 發文的留言數量與縮圖狀態取自記憶體，因此也反映在 ETag 中。
+ *
+ * 發文的留言串與使用者的發文/留言數量沒有可查詢的更新時間，改在交易提交後於記憶體中
+ * 記錄變更的版本水位，輪詢留言列表完全不需查詢資料庫。
+ * 水位以全域遞增序號表示並依存取順序淘汰，淘汰時把下限提高到被淘汰的最大值，
+ * 沒有紀錄的資源回傳下限，版本只會前進，不會誤判為未修改。
+ * 序號在重新啟動後歸零，因此 ETag 另含啟動時間。
+ *
+ * 水位只反映本節點處理的寫入，多節點部署時需以黏性工作階段把同一用戶端導向同一節點。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class ResourceVersionService {
+
+    private final PostRepository postRepository;
+    private final UserRepository userRepository;
+    private final CommentCountService commentCountService;
+    private final ImageVariantService imageVariantService;
+
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${app.conditional-get.max-tracked:100000}")
+    private int maxTracked = 100000;
+
+    // 發文 ID -> 留言串水位
+    private final Watermarks threads = new Watermarks();
+    // 使用者 ID -> 發文/留言數量水位
+    private final Watermarks activity = new Watermarks();
+    // 任一使用者個人資料變更的水位（留言列表內嵌作者資訊）
+    private volatile Mark profiles;
+
+    @Autowired
+    public ResourceVersionService(PostRepository postRepository,
+                                  UserRepository userRepository,
+                                  CommentCountService commentCountService,
+                                  ImageVariantService imageVariantService) {
+        this.postRepository = postRepository;
+        this.userRepository = userRepository;
+        this.commentCountService = commentCountService;
+        this.imageVariantService = imageVariantService;
+        Mark initial = new Mark(0L, startedAt);
+        threads.floor = initial;
+        activity.floor = initial;
+        profiles = initial;
+    }
+
+    /**
+     * 獲取發文版本
+     *
+     * @param postId 發文 ID
+     * @return 發文版本；發文不存在時為空
+     */
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> postVersion(Long postId) {
+        List<Object[]> rows = postRepository.findVersionById(postId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        long updatedAt = toMillis((LocalDateTime) row[0]);
+        long commentCount = commentCountService.currentCount(postId, ((Number) row[1]).longValue());
+        long authorUpdatedAt = toMillis((LocalDateTime) row[3]);
+        long variants = imageVariantService.variants((String) row[2]).size()
+                + imageVariantService.variants((String) row[4]).size();
+        // 留言數量的變更沒有更新時間，以留言串水位補上
+        long lastModified = Math.max(Math.max(updatedAt, authorUpdatedAt), threads.get(postId).modifiedAt);
+        return Optional.of(new ResourceVersion(
+                etag(updatedAt, authorUpdatedAt, commentCount, variants), lastModified));
+    }
+
+    /**
+     * 獲取使用者個人資料版本
+     *
+     * @param userId 使用者 ID
+     * @return 使用者版本；使用者不存在時為空
+     */
+    @Transactional(readOnly = true)
+    public Optional<ResourceVersion> userVersion(Long userId) {
+        List<Object[]> rows = userRepository.findVersionById(userId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        long updatedAt = toMillis((LocalDateTime) row[0]);
+        long variants = imageVariantService.variants((String) row[1]).size();
+        Mark mark = activity.get(userId);
+        return Optional.of(new ResourceVersion(
+                etag(startedAt, updatedAt, mark.version, variants), Math.max(updatedAt, mark.modifiedAt)));
+    }
+
+    /**
+     * 獲取發文留言串的版本（不查詢資料庫）
+     *
+     * 適用於該發文的所有留言列表與分頁
+     *
+     * @param postId 發文 ID
+     * @return 留言串版本
+     */
+    public ResourceVersion commentThreadVersion(Long postId) {
+        Mark mark = threads.get(postId);
+        Mark profile = profiles;
+        return new ResourceVersion(
+                etag(startedAt, mark.version, profile.version), Math.max(mark.modifiedAt, profile.modifiedAt));
+    }
+
+    /**
+     * 記錄新增發文（於目前交易提交後生效）
+     *
+     * @param authorId 作者 ID
+     */
+    public void onPostCreated(Long authorId) {
+        AfterCommit.run(() -> activity.touch(authorId));
+    }
+
+    /**
+     * 記錄刪除發文（於目前交易提交後生效）
+     *
+     * 刪除發文會連帶刪除其他使用者的留言，無法逐一得知，因此讓所有使用者的版本前進
+     *
+     * @param postId 發文 ID
+     */
+    public void onPostDeleted(Long postId) {
+        AfterCommit.run(() -> {
+            threads.touch(postId);
+            activity.touchAll();
+        });
+    }
+
+    /**
+     * 記錄新增或刪除留言（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     * @param authorId 留言作者 ID
+     */
+    public void onCommentChanged(Long postId, Long authorId) {
+        AfterCommit.run(() -> {
+            threads.touch(postId);
+            activity.touch(authorId);
+        });
+    }
+
+    /**
+     * 記錄使用者個人資料變更（於目前交易提交後生效）
+     */
+    public void onProfileUpdated() {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                profiles = next();
+            }
+        });
+    }
+
+    /**
+     * 產生新的水位，序號大於先前產生的所有水位
+     */
+    private Mark next() {
+        return new Mark(sequence.incrementAndGet(), System.currentTimeMillis());
+    }
+
+    private static String etag(long... parts) {
+        StringBuilder etag = new StringBuilder("W/\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                etag.append('.');
+            }
+            etag.append(Long.toString(parts[i], 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time != null ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    /**
+     * 版本水位：全域序號與變更時間
+     */
+    private static final class Mark {
+        private final long version;
+        private final long modifiedAt;
+
+        private Mark(long version, long modifiedAt) {
+            this.version = version;
+            this.modifiedAt = modifiedAt;
+        }
+
+        private static Mark max(Mark a, Mark b) {
+            return a.version >= b.version ? a : b;
+        }
+    }
+
+    /**
+     * 依存取順序淘汰的水位表，沒有紀錄時回傳下限
+     */
+    private final class Watermarks {
+
+        private Mark floor;
+
+        private final Map<Long, Mark> marks = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Mark> eldest) {
+                if (size() > maxTracked) {
+                    floor = Mark.max(floor, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        synchronized Mark get(Long id) {
+            Mark mark = marks.get(id);
+            return mark != null ? mark : floor;
+        }
+
+        // 在鎖內產生水位，同一資源的版本必定遞增且大於下限
+        synchronized void touch(Long id) {
+            marks.put(id, next());
+        }
+
+        synchronized void touchAll() {
+            marks.clear();
+            floor = next();
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 回應快取服務
+ *
+ * 以端點與參數為鍵值，在記憶體中快取匿名請求的公開回應序列化後的 JSON 位元組，
+ * 命中時不查詢資料庫也不重新序列化。每筆快取以其包含的發文與作者標記（tag），
+ * 發文、留言與個人資料的寫入在交易提交後依標記使對應的快取失效；
+ * 會因新增發文而位移的列表另以動態牆標記失效。
+ *
+ * 載入期間若發生任何失效，載入結果不寫入快取，避免讀到舊資料的載入覆蓋失效。
+ * 總位元組數超過上限時依存取順序淘汰；另設存活時間，涵蓋縮圖完成、
+ * 留言數量校正與其他節點的寫入等不經過失效的變更。
+ * 支援條件式 GET 的回應連同載入前取得的資源版本一起快取，命中時以快取的版本比對，
+ * 避免以較新的版本搭配較舊的內容回應，使用戶端持續收到 304。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class ResponseCacheService {
+
+    /**
+     * 會因新增或刪除發文而位移的列表
+     */
+    public static final String FEED_TAG = "feed";
+
+    private static final String CACHE_NAME = "http-responses";
+    // 每筆快取除內容外的估計額外用量（鍵值物件、標記集合與串列節點）
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.response-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.response-cache.max-bytes:16777216}")
+    private long maxBytes = 16777216L;
+
+    @Value("${app.response-cache.ttl:30000}")
+    private long ttlMillis = 30000L;
+
+    // 以下狀態皆以 this 為鎖
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private long usedBytes;
+    // 每次失效遞增，載入前後不同時表示載入期間發生失效
+    private long invalidations;
+
+    private long hits;
+    private long misses;
+
+    private Counter sizeEvictions;
+    private Counter invalidatedEvictions;
+    private Counter expiredEvictions;
+
+    @Autowired
+    public ResponseCacheService(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 註冊監控指標
+     */
+    @PostConstruct
+    public void init() {
+        Tags tags = Tags.of("cache", CACHE_NAME);
+        FunctionCounter.builder("cache.gets", this, cache -> cache.count(true))
+                .description("回應快取命中次數")
+                .tags(tags).tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", this, cache -> cache.count(false))
+                .description("回應快取未命中次數")
+                .tags(tags).tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("cache.hit.ratio", this, ResponseCacheService::hitRatio)
+                .description("回應快取命中率")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ResponseCacheService::size)
+                .description("回應快取筆數")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("cache.memory.used", this, ResponseCacheService::usedBytes)
+                .description("回應快取估計使用的記憶體")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry);
+        sizeEvictions = eviction(tags, "size");
+        invalidatedEvictions = eviction(tags, "invalidated");
+        expiredEvictions = eviction(tags, "expired");
+    }
+
+    /**
+     * 取得快取的回應內容，未命中時載入並序列化
+     *
+     * @param key 快取鍵值（端點與正規化後的參數）
+     * @param loader 載入回應物件；為空表示資源不存在，不快取
+     * @param tagger 依回應物件決定其失效標記
+     * @return 序列化後的 JSON；資源不存在時為空
+     */
+    public <T> Optional<byte[]> get(String key, Supplier<Optional<T>> loader, Function<T, Set<String>> tagger) {
+        return load(key, null, loader, tagger).map(CachedResponse::getBody);
+    }
+
+    /**
+     * 取得快取的回應內容與其資源版本，未命中時先取得版本再載入並序列化
+     *
+     * 版本與內容來自同一次載入，內容不會比版本舊；兩者之間的變更只會讓用戶端多下載一次
+     *
+     * @param key 快取鍵值（端點與正規化後的參數）
+     * @param versioner 取得資源版本；為空表示資源不存在，不快取
+     * @param loader 載入回應物件；為空表示資源不存在，不快取
+     * @param tagger 依回應物件決定其失效標記
+     * @return 序列化後的 JSON 與資源版本；資源不存在時為空
+     */
+    public <T> Optional<CachedResponse> getWithVersion(String key,
+                                                       Supplier<Optional<ResourceVersion>> versioner,
+                                                       Supplier<Optional<T>> loader,
+                                                       Function<T, Set<String>> tagger) {
+        return load(key, versioner, loader, tagger);
+    }
+
+    private <T> Optional<CachedResponse> load(String key,
+                                              Supplier<Optional<ResourceVersion>> versioner,
+                                              Supplier<Optional<T>> loader,
+                                              Function<T, Set<String>> tagger) {
+        long started;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return Optional.of(entry.response);
+            }
+            if (entry != null) {
+                remove(key);
+                expiredEvictions.increment();
+            }
+            misses++;
+            started = invalidations;
+        }
+
+        // 版本須在內容之前取得，且在失效計數的快照之後，期間的寫入會使結果不寫入快取
+        ResourceVersion version = null;
+        if (versioner != null) {
+            Optional<ResourceVersion> loaded = versioner.get();
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            version = loaded.get();
+        }
+        Optional<T> value = loader.get();
+        if (value.isEmpty()) {
+            return Optional.empty();
+        }
+        CachedResponse response = new CachedResponse(serialize(value.get()), version);
+        if (enabled && response.body.length + ENTRY_OVERHEAD <= maxBytes) {
+            Set<String> tags = tagger.apply(value.get());
+            synchronized (this) {
+                if (invalidations == started) {
+                    put(key, new Entry(response, tags, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis)));
+                }
+            }
+        }
+        return Optional.of(response);
+    }
+
+    /**
+     * 使帶有任一指定標記的快取失效（於目前交易提交後生效）
+     *
+     * @param tags 標記
+     */
+    public void invalidate(String... tags) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                invalidations++;
+                for (String tag : tags) {
+                    Set<String> keys = keysByTag.get(tag);
+                    if (keys == null) {
+                        continue;
+                    }
+                    for (String key : keys.toArray(new String[0])) {
+                        remove(key);
+                        invalidatedEvictions.increment();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 移除已過期的快取
+     */
+    @Scheduled(fixedDelayString = "${app.response-cache.ttl:30000}",
+               initialDelayString = "${app.response-cache.ttl:30000}")
+    public synchronized void purgeExpired() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (entry.getValue().expiresAt - now <= 0) {
+                iterator.remove();
+                unindex(entry.getKey(), entry.getValue());
+                expiredEvictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 發文的失效標記
+     *
+     * @param postId 發文 ID
+     * @return 標記
+     */
+    public static String postTag(Long postId) {
+        return "post:" + postId;
+    }
+
+    /**
+     * 使用者（作為作者）的失效標記
+     *
+     * @param userId 使用者 ID
+     * @return 標記
+     */
+    public static String userTag(Long userId) {
+        return "user:" + userId;
+    }
+
+    /**
+     * 發文列表的失效標記：每則發文與其作者
+     *
+     * @param posts 發文
+     * @return 標記
+     */
+    public static Set<String> postTags(Collection<PostResponse> posts) {
+        Set<String> tags = new LinkedHashSet<>();
+        for (PostResponse post : posts) {
+            tags.add(postTag(post.getId()));
+            if (post.getAuthor() != null) {
+                tags.add(userTag(post.getAuthor().getId()));
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * @return 快取筆數
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return 估計使用的位元組數
+     */
+    public synchronized long usedBytes() {
+        return usedBytes;
+    }
+
+    private synchronized double hitRatio() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    private synchronized long count(boolean hit) {
+        return hit ? hits : misses;
+    }
+
+    private void put(String key, Entry entry) {
+        remove(key);
+        entries.put(key, entry);
+        usedBytes += weight(key, entry);
+        for (String tag : entry.tags) {
+            keysByTag.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Entry> victim = eldest.next();
+            eldest.remove();
+            unindex(victim.getKey(), victim.getValue());
+            sizeEvictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            unindex(key, entry);
+        }
+    }
+
+    private void unindex(String key, Entry entry) {
+        usedBytes -= weight(key, entry);
+        for (String tag : entry.tags) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+    private static long weight(String key, Entry entry) {
+        return entry.response.body.length + 2L * key.length() + ENTRY_OVERHEAD;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Counter eviction(Tags tags, String cause) {
+        return Counter.builder("cache.evictions")
+                .description("回應快取淘汰筆數")
+                .tags(tags).tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 快取的回應：序列化後的 JSON 與載入前取得的資源版本（不支援條件式 GET 時為 null）
+     */
+    public static final class CachedResponse {
+        private final byte[] body;
+        private final ResourceVersion version;
+
+        private CachedResponse(byte[] body, ResourceVersion version) {
+            this.body = body;
+            this.version = version;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public ResourceVersion getVersion() {
+            return version;
+        }
+    }
+
+    private static final class Entry {
+        private final CachedResponse response;
+        private final Set<String> tags;
+        private final long expiresAt;
+
+        private Entry(CachedResponse response, Set<String> tags, long expiresAt) {
+            this.response = response;
+            this.tags = tags;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.esun.socialmedia.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * 無鎖固定容量環狀緩衝區
+ *
+ * 寫入者以原子遞增的序號取得槽位，槽位同時記錄序號，
+ * 讀取者只接受序號相符的槽位，因此不會讀到被覆寫前的舊資料或順序錯亂的項目。
+ * 更新與移除以 compare-and-set 替換槽位內容。
+ *
+ * @param <T> 項目型別
+ * @author 開發團隊
+ */
+final class RingBuffer<T> {
+
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * @param capacity 容量（向上取整為 2 的次方）
+     */
+    RingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * 附加一個項目，容量已滿時覆寫最舊的項目
+     *
+     * @param item 項目
+     */
+    void append(T item) {
+        long seq = sequence.getAndIncrement();
+        slots.set(index(seq), new Slot<>(seq, item));
+    }
+
+    /**
+     * 由新到舊取得最多 limit 個項目
+     *
+     * @param limit 數量限制
+     * @return 項目列表
+     */
+    List<T> latest(int limit) {
+        long head = sequence.get();
+        long oldest = Math.max(0L, head - slots.length());
+        List<T> result = new ArrayList<>(Math.min(limit, slots.length()));
+        for (long seq = head - 1; seq >= oldest && result.size() < limit; seq--) {
+            Slot<T> slot = slots.get(index(seq));
+            if (slot != null && slot.seq == seq && slot.item != null) {
+                result.add(slot.item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 替換符合條件的項目
+     *
+     * @param match 比對條件
+     * @param update 替換函式
+     */
+    void replaceIf(Predicate<T> match, UnaryOperator<T> update) {
+        for (int i = 0; i < slots.length(); i++) {
+            Slot<T> slot;
+            do {
+                slot = slots.get(i);
+                if (slot == null || slot.item == null || !match.test(slot.item)) {
+                    break;
+                }
+            } while (!slots.compareAndSet(i, slot, new Slot<>(slot.seq, update.apply(slot.item))));
+        }
+    }
+
+    /**
+     * 移除符合條件的項目（保留槽位序號）
+     *
+     * @param match 比對條件
+     */
+    void removeIf(Predicate<T> match) {
+        for (int i = 0; i < slots.length(); i++) {
+            Slot<T> slot;
+            do {
+                slot = slots.get(i);
+                if (slot == null || slot.item == null || !match.test(slot.item)) {
+                    break;
+                }
+            } while (!slots.compareAndSet(i, slot, new Slot<>(slot.seq, null)));
+        }
+    }
+
+    /**
+     * @return 容量
+     */
+    int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return 累計附加的項目數量
+     */
+    long appended() {
+        return sequence.get();
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+
+    private static final class Slot<T> {
+        private final long seq;
+        private final T item;
+
+        private Slot(long seq, T item) {
+            this.seq = seq;
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.esun.socialmedia.service;
+
+import java.util.List;
+
+/**
+ * 全文檢索結果
+ *
+ * 依相關度排序的單頁文件 ID，以及符合條件的總筆數
+ *
+ * @author 開發團隊
+ */
+public final class SearchHits {
+
+    private static final SearchHits EMPTY = new SearchHits(List.of(), 0L);
+
+    private final List<Long> ids;
+    private final long total;
+
+    SearchHits(List<Long> ids, long total) {
+        this.ids = ids;
+        this.total = total;
+    }
+
+    /**
+     * @return 沒有任何結果
+     */
+    public static SearchHits empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return 依相關度排序的文件 ID
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    /**
+     * @return 符合條件的總筆數
+     */
+    public long getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,183 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.CommentRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 發文與留言全文檢索服務
+ *
+ * 以記憶體內反向索引取代 LIKE '%keyword%' 全表掃描：
+ * 中日韓文字以二元組、英數以單字斷詞，查詢結果以 BM25 相關度排序。
+ * 索引於應用程式開始接收請求前由資料庫建立，之後隨發文/留言的新增、更新、刪除於交易提交後增量更新。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class SearchIndexService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexService.class);
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 可分頁取得的最深位置（offset + size），避免匿名請求以極深的分頁耗用記憶體
+     */
+    static final int MAX_RESULT_WINDOW = 10_000;
+
+    private final InvertedIndex posts = new InvertedIndex();
+    private final InvertedIndex comments = new InvertedIndex();
+
+    @Value("${app.search.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.search.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // 索引建立完成前一律回到資料庫查詢
+    private volatile boolean ready;
+
+    @Autowired
+    public SearchIndexService(PostRepository postRepository,
+                              CommentRepository commentRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 由資料庫建立發文與留言索引
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            log.info("全文檢索索引已停用，搜尋將使用資料庫查詢");
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            load(posts, postRepository::findContentBatch);
+            load(comments, commentRepository::findContentBatch);
+            ready = true;
+            log.info("全文檢索索引已建立：{} 篇發文、{} 則留言，耗時 {} ms",
+                    posts.size(), comments.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("全文檢索索引建立失敗，搜尋將改由資料庫查詢: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 搜尋發文
+     *
+     * @param keyword 關鍵字
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁大小
+     * @return 搜尋結果；索引尚未就緒時回傳 null
+     */
+    public SearchHits searchPosts(String keyword, int page, int size) {
+        return ready ? search(posts, keyword, page, size) : null;
+    }
+
+    /**
+     * 搜尋留言
+     *
+     * @param keyword 關鍵字
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁大小
+     * @return 搜尋結果；索引尚未就緒時回傳 null
+     */
+    public SearchHits searchComments(String keyword, int page, int size) {
+        return ready ? search(comments, keyword, page, size) : null;
+    }
+
+    /**
+     * 索引新發文或更新後的發文（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     * @param content 發文內容
+     */
+    public void onPostSaved(Long postId, String content) {
+        AfterCommit.run(() -> posts.put(postId, content));
+    }
+
+    /**
+     * 移除已刪除的發文及其留言（於目前交易提交後生效）
+     *
+     * 發文刪除時留言會一併刪除，因此須在刪除前的同一交易內取得留言 ID
+     *
+     * @param postId 發文 ID
+     */
+    public void onPostDeleted(Long postId) {
+        List<Long> commentIds = ready ? commentRepository.findIdsByPostId(postId) : List.of();
+        AfterCommit.run(() -> {
+            posts.remove(postId);
+            commentIds.forEach(comments::remove);
+        });
+    }
+
+    /**
+     * 索引新留言（於目前交易提交後生效）
+     *
+     * @param commentId 留言 ID
+     * @param content 留言內容
+     */
+    public void onCommentCreated(Long commentId, String content) {
+        AfterCommit.run(() -> comments.put(commentId, content));
+    }
+
+    /**
+     * 移除已刪除的留言（於目前交易提交後生效）
+     *
+     * @param commentId 留言 ID
+     */
+    public void onCommentDeleted(Long commentId) {
+        AfterCommit.run(() -> comments.remove(commentId));
+    }
+
+    private static SearchHits search(InvertedIndex index, String keyword, int page, int size) {
+        long offset = (long) page * size;
+        if (offset + size > MAX_RESULT_WINDOW) {
+            // 超出可搜尋範圍的分頁只回報總筆數
+            return index.search(keyword, 0, 0);
+        }
+        return index.search(keyword, (int) offset, size);
+    }
+
+    /**
+     * 以主鍵遞增的批次讀取內容，避免一次載入整張資料表
+     */
+    private void load(InvertedIndex index, BiFunction<Long, Pageable, List<Object[]>> batches) {
+        Pageable batch = PageRequest.of(0, batchSize);
+        long afterId = 0L;
+        while (true) {
+            long cursor = afterId;
+            List<Object[]> rows = transactionTemplate.execute(status -> batches.apply(cursor, batch));
+            if (rows == null || rows.isEmpty()) {
+                return;
+            }
+            for (Object[] row : rows) {
+                index.put((Long) row[0], (String) row[1]);
+            }
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+            if (rows.size() < batchSize) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.esun.socialmedia.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 全文檢索斷詞工具
+ *
+ * 中日韓文字沒有空白分隔，以相鄰兩字的二元組（bigram）與單字建立詞彙；
+ * 其他文字（英數等）以連續的字母與數字為一個詞。
+ * 內容先經 NFKC 正規化並轉為小寫，全形英數與半形視為相同。
+ *
+ * @author 開發團隊
+ */
+final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * 索引用斷詞：中日韓文字同時產生單字與二元組
+     *
+     * @param text 內容
+     * @return 詞彙列表（可重複）
+     */
+    static List<String> tokenizeForIndex(String text) {
+        return tokenize(text, true);
+    }
+
+    /**
+     * 查詢用斷詞：中日韓文字連續兩字以上只使用二元組，單獨一字才使用單字
+     *
+     * @param text 查詢字串
+     * @return 詞彙列表（可重複）
+     */
+    static List<String> tokenizeForQuery(String text) {
+        return tokenize(text, false);
+    }
+
+    private static List<String> tokenize(String text, boolean forIndex) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        List<Integer> cjkRun = new ArrayList<>();
+        int i = 0;
+        while (i < normalized.length()) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+
+            if (isCjk(codePoint)) {
+                flushWord(word, tokens);
+                cjkRun.add(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjkRun, tokens, forIndex);
+                word.appendCodePoint(codePoint);
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjkRun, tokens, forIndex);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjkRun, tokens, forIndex);
+        return tokens;
+    }
+
+    private static void flushWord(StringBuilder word, List<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(List<Integer> run, List<String> tokens, boolean forIndex) {
+        if (run.isEmpty()) {
+            return;
+        }
+        if (forIndex || run.size() == 1) {
+            for (int codePoint : run) {
+                tokens.add(new String(Character.toChars(codePoint)));
+            }
+        }
+        for (int j = 0; j + 1 < run.size(); j++) {
+            tokens.add(new StringBuilder()
+                    .appendCodePoint(run.get(j))
+                    .appendCodePoint(run.get(j + 1))
+                    .toString());
+        }
+        run.clear();
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,346 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.FollowRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 追蹤時間軸服務
+ *
+ * 採寫入時扇出：作者發文後，把發文 ID 推入每位追蹤者的時間軸。
+ * 每個時間軸是固定容量、由新到舊排序的 long 陣列，超出容量時捨棄最舊的發文。
+ * 追蹤者數量達到門檻的作者不扇出，改在讀取時以單一查詢合併其發文，
+ * 避免熱門作者一次發文寫入大量時間軸。
+ * 時間軸只保留在記憶體中（以 LRU 限制常駐數量），不在記憶體時於首次讀取重建；
+ * 重建前先登記載入中的時間軸，查詢期間提交的發文由扇出記錄後合併，不會遺漏。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class TimelineService {
+
+    private final FollowRepository followRepository;
+    private final PostRepository postRepository;
+
+    @Value("${app.timeline.capacity:500}")
+    private int capacity = 500;
+
+    @Value("${app.timeline.fanout-threshold:1000}")
+    private long fanoutThreshold = 1000L;
+
+    @Value("${app.timeline.max-resident:10000}")
+    private int maxResident = 10000;
+
+    // 常駐記憶體的時間軸（存取順序，超出上限時移除最久未使用者），由自身同步保護
+    private final Map<Long, Timeline> timelines = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Timeline> eldest) {
+            return size() > maxResident;
+        }
+    };
+
+    @Autowired
+    public TimelineService(FollowRepository followRepository, PostRepository postRepository) {
+        this.followRepository = followRepository;
+        this.postRepository = postRepository;
+    }
+
+    /**
+     * 作者發文後扇出到追蹤者的時間軸（於目前交易提交後生效）
+     *
+     * 作者的追蹤者數量達到門檻時不扇出，由讀取端合併
+     *
+     * @param postId 發文 ID
+     * @param authorId 作者 ID
+     * @param authorFollowerCount 作者的追蹤者數量
+     */
+    public void onPostCreated(Long postId, Long authorId, long authorFollowerCount) {
+        if (authorFollowerCount >= fanoutThreshold) {
+            return;
+        }
+        List<Long> followerIds = followRepository.findFollowerIds(authorId);
+        if (followerIds.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            for (Long followerId : followerIds) {
+                // 不在記憶體的時間軸會在下次讀取時重建，已包含這篇發文
+                Timeline timeline = resident(followerId);
+                if (timeline != null) {
+                    timeline.push(postId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 發文刪除後從追蹤者的時間軸移除（於目前交易提交後生效）
+     *
+     * @param postId 發文 ID
+     * @param authorId 作者 ID
+     * @param authorFollowerCount 作者的追蹤者數量
+     */
+    public void onPostDeleted(Long postId, Long authorId, long authorFollowerCount) {
+        if (authorFollowerCount >= fanoutThreshold) {
+            return;
+        }
+        List<Long> followerIds = followRepository.findFollowerIds(authorId);
+        AfterCommit.run(() -> {
+            for (Long followerId : followerIds) {
+                Timeline timeline = resident(followerId);
+                if (timeline != null) {
+                    timeline.remove(postId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 作者的追蹤者減少後，若追蹤者數量降到門檻以下，捨棄其追蹤者的時間軸（於目前交易提交後生效）
+     *
+     * 達到門檻期間的發文沒有扇出，降到門檻以下後讀取端也不再合併，須重建時間軸才會出現
+     *
+     * @param authorId 作者 ID
+     * @param followerCount 減少後的追蹤者數量
+     */
+    public void onFollowerCountDecreased(Long authorId, long followerCount) {
+        if (followerCount >= fanoutThreshold || followerCount + 1 < fanoutThreshold) {
+            return;
+        }
+        List<Long> followerIds = followRepository.findFollowerIds(authorId);
+        AfterCommit.run(() -> {
+            synchronized (timelines) {
+                followerIds.forEach(timelines::remove);
+            }
+        });
+    }
+
+    /**
+     * 追蹤關係變動後捨棄使用者的時間軸，下次讀取時重建（於目前交易提交後生效）
+     *
+     * @param userId 使用者 ID
+     */
+    public void invalidate(Long userId) {
+        AfterCommit.run(() -> {
+            synchronized (timelines) {
+                timelines.remove(userId);
+            }
+        });
+    }
+
+    /**
+     * 獲取使用者時間軸中指定 ID 之前的發文 ID
+     *
+     * 扇出時間軸與高追蹤數作者的發文依 ID 由新到舊合併
+     *
+     * @param userId 使用者 ID
+     * @param beforeId 只回傳小於此 ID 的發文
+     * @param limit 數量限制
+     * @return 發文 ID 列表（由新到舊）
+     */
+    public List<Long> getPostIds(Long userId, long beforeId, int limit) {
+        Timeline timeline = resident(userId);
+        if (timeline == null) {
+            timeline = rebuild(userId);
+        }
+        long[] fanned = timeline.before(beforeId, limit);
+        List<Long> merged = postRepository.findHighFanoutPostIdsBefore(
+                userId, fanoutThreshold, beforeId, PageRequest.of(0, limit));
+        return merge(fanned, merged, limit);
+    }
+
+    /**
+     * 獲取常駐記憶體的時間軸數量
+     *
+     * @return 時間軸數量
+     */
+    public int residentCount() {
+        synchronized (timelines) {
+            return timelines.size();
+        }
+    }
+
+    private Timeline resident(Long userId) {
+        synchronized (timelines) {
+            return timelines.get(userId);
+        }
+    }
+
+    private Timeline rebuild(Long userId) {
+        // 先登記再查詢：查詢開始後才執行的扇出會記錄在載入中的時間軸，
+        // 之前執行的扇出其發文已提交，必定包含在查詢結果中
+        Timeline timeline = Timeline.loading(capacity);
+        synchronized (timelines) {
+            Timeline existing = timelines.putIfAbsent(userId, timeline);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        try {
+            timeline.fill(postRepository.findFanoutTimelinePostIds(
+                    userId, fanoutThreshold, PageRequest.of(0, capacity)));
+        } catch (RuntimeException e) {
+            synchronized (timelines) {
+                timelines.remove(userId, timeline);
+            }
+            timeline.fail();
+            throw e;
+        }
+        return timeline;
+    }
+
+    private static List<Long> merge(long[] fanned, List<Long> merged, int limit) {
+        List<Long> result = new ArrayList<>(limit);
+        int i = 0;
+        int j = 0;
+        long last = Long.MAX_VALUE;
+        while (result.size() < limit && (i < fanned.length || j < merged.size())) {
+            long next;
+            if (j >= merged.size() || (i < fanned.length && fanned[i] >= merged.get(j))) {
+                next = fanned[i++];
+            } else {
+                next = merged.get(j++);
+            }
+            // 作者跨越門檻前後的發文可能同時出現在兩邊
+            if (next != last) {
+                result.add(next);
+                last = next;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 單一使用者的時間軸：固定容量、由新到舊排序的發文 ID
+     */
+    static final class Timeline {
+        private final long[] postIds;
+        private int size;
+
+        // 重建查詢期間為 true：扇出與刪除先記錄，載入完成後套用；讀取端等待載入完成
+        private boolean loading;
+        private boolean failed;
+        private final List<Long> pendingPushes = new ArrayList<>();
+        private final List<Long> pendingRemovals = new ArrayList<>();
+
+        Timeline(int capacity) {
+            this.postIds = new long[capacity];
+        }
+
+        static Timeline loading(int capacity) {
+            Timeline timeline = new Timeline(capacity);
+            timeline.loading = true;
+            return timeline;
+        }
+
+        synchronized void fill(List<Long> newestFirst) {
+            size = Math.min(newestFirst.size(), postIds.length);
+            for (int i = 0; i < size; i++) {
+                postIds[i] = newestFirst.get(i);
+            }
+            if (loading) {
+                loading = false;
+                // 先刪除再推入，避免被刪除的發文擠掉較舊的發文；載入期間新增又刪除的發文不推入
+                pendingRemovals.forEach(this::remove);
+                for (Long postId : pendingPushes) {
+                    if (!pendingRemovals.contains(postId)) {
+                        push(postId);
+                    }
+                }
+                pendingPushes.clear();
+                pendingRemovals.clear();
+                notifyAll();
+            }
+        }
+
+        synchronized void fail() {
+            loading = false;
+            failed = true;
+            notifyAll();
+        }
+
+        synchronized void push(long postId) {
+            if (loading) {
+                pendingPushes.add(postId);
+                return;
+            }
+            // 發文 ID 遞增，通常直接放在最前面；交易提交順序不同時插入正確位置
+            int index = indexBefore(postId + 1);
+            if (index < size && postIds[index] == postId) {
+                return;
+            }
+            if (size == postIds.length) {
+                if (index == size) {
+                    return;
+                }
+                size--;
+            }
+            System.arraycopy(postIds, index, postIds, index + 1, size - index);
+            postIds[index] = postId;
+            size++;
+        }
+
+        synchronized void remove(long postId) {
+            if (loading) {
+                pendingRemovals.add(postId);
+                return;
+            }
+            int index = indexBefore(postId + 1);
+            if (index < size && postIds[index] == postId) {
+                System.arraycopy(postIds, index + 1, postIds, index, size - index - 1);
+                size--;
+            }
+        }
+
+        synchronized long[] before(long beforeId, int limit) {
+            awaitLoaded();
+            int from = indexBefore(beforeId);
+            return Arrays.copyOfRange(postIds, from, Math.min(size, from + limit));
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void awaitLoaded() {
+            boolean interrupted = false;
+            while (loading) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failed) {
+                throw new IllegalStateException("時間軸載入失敗");
+            }
+        }
+
+        // 第一個小於 id 的位置（陣列由大到小排序）
+        private int indexBefore(long id) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (postIds[mid] >= id) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package com.esun.socialmedia.service;
 
+import com.esun.socialmedia.dto.common.CursorPage;
 import com.esun.socialmedia.dto.user.UpdateProfileRequest;
 import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.dto.user.UserSuggestion;
 import com.esun.socialmedia.entity.User;
 import com.esun.socialmedia.repository.CommentRepository;
 import com.esun.socialmedia.repository.PostRepository;
 import com.esun.socialmedia.repository.UserRepository;
 import com.esun.socialmedia.security.PasswordService;
+import com.esun.socialmedia.security.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -31,16 +42,37 @@ public class UserService {
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final PasswordService passwordService;
+    private final UsernameIndexService usernameIndexService;
+    private final AvailabilityFilterService availabilityFilterService;
+    private final UserPrincipalCache principalCache;
+    private final ResourceVersionService resourceVersionService;
+    private final ResponseCacheService responseCacheService;
+    private final PostRankingService postRankingService;
+    private final LatestContentService latestContentService;
 
     @Autowired
     public UserService(UserRepository userRepository,
                       PostRepository postRepository,
                       CommentRepository commentRepository,
-                      PasswordService passwordService) {
+                      PasswordService passwordService,
+                      UsernameIndexService usernameIndexService,
+                      AvailabilityFilterService availabilityFilterService,
+                      UserPrincipalCache principalCache,
+                      ResourceVersionService resourceVersionService,
+                      ResponseCacheService responseCacheService,
+                      PostRankingService postRankingService,
+                      LatestContentService latestContentService) {
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
         this.passwordService = passwordService;
+        this.usernameIndexService = usernameIndexService;
+        this.availabilityFilterService = availabilityFilterService;
+        this.principalCache = principalCache;
+        this.resourceVersionService = resourceVersionService;
+        this.responseCacheService = responseCacheService;
+        this.postRankingService = postRankingService;
+        this.latestContentService = latestContentService;
     }
 
     /**
@@ -76,7 +108,10 @@ public class UserService {
         user.setPasswordHash(passwordService.encodePassword(rawPassword));
         user.setBiography(biography);
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        usernameIndexService.onUsernameChanged(savedUser.getId(), savedUser.getUsername());
+        availabilityFilterService.onUserSaved(savedUser.getUsername(), savedUser.getEmail());
+        return savedUser;
     }
 
     /**
@@ -151,21 +186,29 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("找不到使用者: " + userId));
 
         // 更新使用者名稱
+        String changedUsername = null;
         if (StringUtils.hasText(request.getUsername()) && 
             !request.getUsername().equals(user.getUsername())) {
             if (userRepository.existsByUsernameAndIdNot(request.getUsername(), userId)) {
                 throw new IllegalArgumentException("使用者名稱已存在: " + request.getUsername());
             }
             user.setUsername(request.getUsername());
+            usernameIndexService.onUsernameChanged(userId, request.getUsername());
+            changedUsername = request.getUsername();
         }
 
         // 更新電子郵件
+        String changedEmail = null;
         if (StringUtils.hasText(request.getEmail()) && 
             !request.getEmail().equals(user.getEmail())) {
             if (userRepository.existsByEmailAndIdNot(request.getEmail(), userId)) {
                 throw new IllegalArgumentException("電子郵件已存在: " + request.getEmail());
             }
             user.setEmail(request.getEmail());
+            changedEmail = request.getEmail();
+        }
+        if (changedUsername != null || changedEmail != null) {
+            availabilityFilterService.onUserSaved(changedUsername, changedEmail);
         }
 
         // 更新個人簡介
@@ -179,6 +222,15 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        // 認證時快取的使用者資訊於提交後失效
+        AfterCommit.run(() -> principalCache.invalidate(userId));
+        // 留言列表內嵌作者資訊
+        resourceVersionService.onProfileUpdated();
+        responseCacheService.invalidate(ResponseCacheService.userTag(userId));
+        // 熱門與最新列表保存已轉換的回應，替換其中內嵌的作者資訊
+        UserResponse author = UserResponse.from(updatedUser);
+        postRankingService.onAuthorUpdated(author);
+        latestContentService.onAuthorUpdated(author);
         
         Long postCount = postRepository.countByAuthorId(userId);
         Long commentCount = commentRepository.countByAuthorId(userId);
@@ -200,26 +252,84 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 以使用者名稱前綴分頁搜尋使用者（不分大小寫，依使用者名稱排序）
+     * 
+     * 由記憶體中的前綴索引取得該頁使用者 ID，再以單一查詢載入；
+     * 索引尚未就緒時改用資料庫前綴查詢
+     * 
+     * @param prefix 使用者名稱前綴
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁大小
+     * @return 符合條件的使用者分頁列表
+     */
+    @Transactional(readOnly = true)
+    public Page<UserResponse> searchUsersByPrefix(String prefix, int page, int size) {
+        int pageSize = CursorPage.clampSize(size);
+        Pageable pageable = PageRequest.of(page, pageSize);
+        SearchHits hits = usernameIndexService.searchByPrefix(prefix, page, pageSize);
+        if (hits == null) {
+            return userRepository.findByUsernamePrefix(prefix, pageable).map(UserResponse::from);
+        }
+
+        Map<Long, User> usersById = hits.getIds().isEmpty()
+                ? Map.of()
+                : userRepository.findAllById(hits.getIds()).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+        List<UserResponse> content = hits.getIds().stream()
+                .map(usersById::get)
+                .filter(Objects::nonNull)
+                .map(UserResponse::from)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, hits.getTotal());
+    }
+
+    /**
+     * 使用者名稱自動完成
+     * 
+     * 由記憶體中的前綴索引提供，不開啟交易也不查詢資料庫；索引尚未就緒時改用資料庫前綴查詢
+     * 
+     * @param prefix 使用者名稱前綴
+     * @param limit 數量限制
+     * @return 建議列表
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<UserSuggestion> suggestUsernames(String prefix, int limit) {
+        int size = Math.max(1, Math.min(limit, UsernameIndexService.MAX_SUGGESTIONS));
+        List<UserSuggestion> suggestions = usernameIndexService.suggest(prefix, size);
+        if (suggestions != null) {
+            return suggestions;
+        }
+
+        return userRepository.findByUsernamePrefix(prefix, PageRequest.of(0, size)).stream()
+                .map(user -> new UserSuggestion(user.getId(), user.getUsername()))
+                .collect(Collectors.toList());
+    }
+
     /**
      * 檢查使用者名稱是否可用
      * 
+     * 布隆過濾器判定不存在時直接回覆可用，只有可能重複時才查詢資料庫
+     * 
      * @param username 使用者名稱
      * @return 是否可用
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isUsernameAvailable(String username) {
-        return !userRepository.existsByUsername(username);
+        return availabilityFilterService.isUsernameAvailable(username, userRepository::existsByUsername);
     }
 
     /**
      * 檢查電子郵件是否可用
      * 
+     * 布隆過濾器判定不存在時直接回覆可用，只有可能重複時才查詢資料庫
+     * 
      * @param email 電子郵件
      * @return 是否可用
      */
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean isEmailAvailable(String email) {
-        return !userRepository.existsByEmail(email);
+        return availabilityFilterService.isEmailAvailable(email, userRepository::existsByEmail);
     }
 
     /**
@@ -0,0 +1,136 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.user.UserSuggestion;
+import com.esun.socialmedia.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 使用者名稱前綴索引服務
+ *
+ * 於應用程式開始接收請求前由資料庫建立不分大小寫的使用者名稱前綴索引，
+ * 註冊與變更使用者名稱時於交易提交後更新，
+ * 提供使用者搜尋分頁與自動完成查詢，不需存取資料庫。
+ *
+ * @author 開發團隊
+ */
+@Service
+public class UsernameIndexService implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(UsernameIndexService.class);
+
+    /**
+     * 自動完成每次回傳的筆數上限
+     */
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UsernamePrefixIndex index = new UsernamePrefixIndex();
+
+    @Value("${app.user-search.batch-size:1000}")
+    private int batchSize = 1000;
+
+    // 索引建立完成前一律回到資料庫查詢
+    private volatile boolean ready;
+
+    @Autowired
+    public UsernameIndexService(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * 由資料庫建立使用者名稱索引
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            List<Long> ids = new ArrayList<>();
+            List<String> usernames = new ArrayList<>();
+            Pageable batch = PageRequest.of(0, batchSize);
+            long afterId = 0L;
+            while (true) {
+                long cursor = afterId;
+                List<Object[]> rows = transactionTemplate.execute(status -> userRepository.findUsernameBatch(cursor, batch));
+                if (rows == null || rows.isEmpty()) {
+                    break;
+                }
+                for (Object[] row : rows) {
+                    ids.add((Long) row[0]);
+                    usernames.add((String) row[1]);
+                }
+                afterId = (Long) rows.get(rows.size() - 1)[0];
+                if (rows.size() < batchSize) {
+                    break;
+                }
+            }
+            index.rebuild(ids, usernames);
+            ready = true;
+            log.info("使用者名稱索引已建立：{} 位使用者", index.size());
+        } catch (RuntimeException e) {
+            log.warn("使用者名稱索引建立失敗，使用者搜尋將改由資料庫查詢: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 查詢使用者名稱以指定前綴開頭的使用者（不分大小寫，依使用者名稱排序）
+     *
+     * @param prefix 前綴
+     * @param page 頁碼（從 0 開始）
+     * @param size 每頁大小
+     * @return 該頁使用者 ID 與符合總數；索引尚未就緒時回傳 null
+     */
+    public SearchHits searchByPrefix(String prefix, int page, int size) {
+        if (!ready) {
+            return null;
+        }
+        // 超出符合筆數的分頁由索引回傳空結果，仍回報總筆數
+        long offset = (long) page * size;
+        UsernamePrefixIndex.Range range = index.find(prefix, (int) Math.min(offset, Integer.MAX_VALUE), size);
+        List<Long> ids = range.getMatches().stream()
+                .map(UsernamePrefixIndex.Match::getId)
+                .collect(Collectors.toList());
+        return new SearchHits(ids, range.getTotal());
+    }
+
+    /**
+     * 使用者名稱自動完成
+     *
+     * @param prefix 前綴
+     * @param limit 數量限制
+     * @return 建議列表；索引尚未就緒時回傳 null
+     */
+    public List<UserSuggestion> suggest(String prefix, int limit) {
+        if (!ready) {
+            return null;
+        }
+        return index.find(prefix, 0, limit).getMatches().stream()
+                .map(match -> new UserSuggestion(match.getId(), match.getUsername()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 記錄新使用者或變更後的使用者名稱（於目前交易提交後生效）
+     *
+     * @param userId 使用者 ID
+     * @param username 使用者名稱
+     */
+    public void onUsernameChanged(Long userId, String username) {
+        AfterCommit.run(() -> index.put(userId, username));
+    }
+}
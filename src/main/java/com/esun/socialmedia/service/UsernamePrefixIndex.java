@@ -0,0 +1,232 @@
+package com.esun.socialmedia.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 使用者名稱前綴索引
+ *
+ * 以不分大小寫的使用者名稱排序的平行陣列，前綴查詢以二分搜尋找出範圍，
+ * 因此取前 k 筆與計算符合總數都只需 O(log n)。
+ * 陣列內容不可變，寫入時複製一份新陣列後替換參考，讀取不需加鎖。
+ *
+ * @author 開發團隊
+ */
+final class UsernamePrefixIndex {
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new long[0], new String[0]);
+
+    /**
+     * 將使用者名稱轉為比對用的格式（NFKC 正規化並轉為小寫）
+     *
+     * @param username 使用者名稱
+     * @return 比對用的鍵值
+     */
+    static String fold(String username) {
+        return Normalizer.normalize(username, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 以完整資料重建索引
+     *
+     * @param ids 使用者 ID
+     * @param usernames 使用者名稱（與 ID 順序對應）
+     */
+    synchronized void rebuild(List<Long> ids, List<String> usernames) {
+        Integer[] order = new Integer[ids.size()];
+        String[] folded = new String[ids.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            folded[i] = fold(usernames.get(i));
+        }
+        Arrays.sort(order, (a, b) -> compare(folded[a], ids.get(a), folded[b], ids.get(b)));
+
+        String[] keys = new String[order.length];
+        long[] sortedIds = new long[order.length];
+        String[] names = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = folded[order[i]];
+            sortedIds[i] = ids.get(order[i]);
+            names[i] = usernames.get(order[i]);
+        }
+        snapshot = new Snapshot(keys, sortedIds, names);
+    }
+
+    /**
+     * 新增使用者，或以新名稱取代既有的使用者
+     *
+     * @param id 使用者 ID
+     * @param username 使用者名稱
+     */
+    synchronized void put(long id, String username) {
+        Snapshot current = withoutId(snapshot, id);
+        String key = fold(username);
+        int index = current.insertionPoint(key, id);
+        int size = current.keys.length;
+
+        String[] keys = new String[size + 1];
+        long[] ids = new long[size + 1];
+        String[] names = new String[size + 1];
+        System.arraycopy(current.keys, 0, keys, 0, index);
+        System.arraycopy(current.ids, 0, ids, 0, index);
+        System.arraycopy(current.names, 0, names, 0, index);
+        keys[index] = key;
+        ids[index] = id;
+        names[index] = username;
+        System.arraycopy(current.keys, index, keys, index + 1, size - index);
+        System.arraycopy(current.ids, index, ids, index + 1, size - index);
+        System.arraycopy(current.names, index, names, index + 1, size - index);
+        snapshot = new Snapshot(keys, ids, names);
+    }
+
+    /**
+     * 查詢以指定前綴開頭的使用者
+     *
+     * @param prefix 前綴
+     * @param offset 略過的筆數
+     * @param limit 回傳筆數上限
+     * @return 依使用者名稱排序的結果
+     */
+    Range find(String prefix, int offset, int limit) {
+        Snapshot current = snapshot;
+        String key = fold(prefix);
+        int from = current.lowerBound(key);
+        int to = current.lowerBound(key + Character.MAX_VALUE);
+
+        int total = to - from;
+        // 先與符合筆數比較再相加，避免極大的 offset 溢位
+        if (offset < 0 || offset >= total || limit <= 0) {
+            return new Range(List.of(), total);
+        }
+        int count = Math.min(limit, total - offset);
+        List<Match> matches = new ArrayList<>(count);
+        for (int i = from + offset; i < from + offset + count; i++) {
+            matches.add(new Match(current.ids[i], current.names[i]));
+        }
+        return new Range(matches, total);
+    }
+
+    /**
+     * @return 索引中的使用者數量
+     */
+    int size() {
+        return snapshot.keys.length;
+    }
+
+    private static Snapshot withoutId(Snapshot current, long id) {
+        int index = -1;
+        for (int i = 0; i < current.ids.length; i++) {
+            if (current.ids[i] == id) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return current;
+        }
+        int size = current.keys.length;
+        String[] keys = new String[size - 1];
+        long[] ids = new long[size - 1];
+        String[] names = new String[size - 1];
+        System.arraycopy(current.keys, 0, keys, 0, index);
+        System.arraycopy(current.ids, 0, ids, 0, index);
+        System.arraycopy(current.names, 0, names, 0, index);
+        System.arraycopy(current.keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(current.ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(current.names, index + 1, names, index, size - index - 1);
+        return new Snapshot(keys, ids, names);
+    }
+
+    private static int compare(String keyA, long idA, String keyB, long idB) {
+        int result = keyA.compareTo(keyB);
+        return result != 0 ? result : Long.compare(idA, idB);
+    }
+
+    /**
+     * 前綴查詢結果
+     */
+    static final class Range {
+        private final List<Match> matches;
+        private final int total;
+
+        private Range(List<Match> matches, int total) {
+            this.matches = matches;
+            this.total = total;
+        }
+
+        List<Match> getMatches() {
+            return matches;
+        }
+
+        int getTotal() {
+            return total;
+        }
+    }
+
+    /**
+     * 符合前綴的使用者
+     */
+    static final class Match {
+        private final long id;
+        private final String username;
+
+        private Match(long id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+
+        long getId() {
+            return id;
+        }
+
+        String getUsername() {
+            return username;
+        }
+    }
+
+    private static final class Snapshot {
+        private final String[] keys;
+        private final long[] ids;
+        private final String[] names;
+
+        private Snapshot(String[] keys, long[] ids, String[] names) {
+            this.keys = keys;
+            this.ids = ids;
+            this.names = names;
+        }
+
+        /**
+         * 第一個鍵值不小於 key 的位置
+         */
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid].compareTo(key) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int insertionPoint(String key, long id) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(keys[mid], ids[mid], key, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -31,4 +31,7 @@ INSERT INTO comments (id, user_id, post_id, content, created_at) VALUES
 (9, 3, 6, '推薦使用 OpenAPI (Swagger) 來文件化 API，自動生成的文件很方便。', '2024-01-22 17:00:00'),
 (10, 1, 4, 'matplotlib 很強大，不過我最近在學 D3.js，想做更互動式的視覺化。', '2024-01-23 09:20:00');
 
+-- 同步發文的留言數量
+UPDATE posts SET comment_count = (SELECT COUNT(*) FROM comments c WHERE c.post_id = posts.id);
+
 -- H2 會自動處理序列值，無需手動更新
@@ -0,0 +1,115 @@
+package com.esun.socialmedia;
+
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.PostRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import com.esun.socialmedia.service.CommentCountService;
+import com.esun.socialmedia.service.FollowService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 不啟動內嵌伺服器時的應用程式上下文測試
+ *
+ * 內嵌 Tomcat 會註冊 classpath: 網址處理器，此測試確保二級快取等設定不依賴它
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:non-web-context;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.jpa.show-sql=false"
+})
+class SocialMediaApplicationNonWebTests {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentCountService commentCountService;
+
+    @Autowired
+    private FollowService followService;
+
+    @DynamicPropertySource
+    static void dataFiles(DynamicPropertyRegistry registry) throws IOException {
+        Path dataDir = Files.createTempDirectory("non-web-context");
+        registry.add("logging.file.name", () -> dataDir.resolve("test.log").toString());
+        registry.add("app.upload.dir", () -> dataDir.resolve("uploads").toString());
+        registry.add("app.revocation.file", () -> dataDir.resolve("revoked-tokens.log").toString());
+        registry.add("app.ranking.snapshot-file", () -> dataDir.resolve("ranking.snapshot").toString());
+        registry.add("app.export.dir", () -> dataDir.resolve("exports").toString());
+    }
+
+    @Test
+    void contextLoads_WithSecondLevelCache() {
+        // When
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        // Then
+        assertThat(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()).isTrue();
+        assertThat(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()).isTrue();
+        assertThat(sessionFactory.getCache().getRegion("users")).isNotNull();
+        assertThat(sessionFactory.getCache().getRegion("posts")).isNotNull();
+    }
+
+    @Test
+    void counterUpdates_EvictOnlyUpdatedEntities() {
+        // Given
+        List<User> users = userRepository.saveAll(List.of(user("counter-a"), user("counter-b"), user("counter-c")));
+        User author = users.get(0);
+        List<Post> posts = postRepository.saveAll(List.of(new Post("計數一", author), new Post("計數二", author)));
+        Long updatedPostId = posts.get(0).getId();
+        Long otherPostId = posts.get(1).getId();
+
+        Cache cache = entityManagerFactory.getCache();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        cache.evictAll();
+        users.forEach(user -> userRepository.findById(user.getId()));
+        posts.forEach(post -> postRepository.findById(post.getId()));
+        postRepository.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, 20));
+        long queryCacheHits = statistics.getQueryCacheHitCount();
+
+        // When
+        commentCountService.recordCommentCreated(updatedPostId);
+        commentCountService.flush();
+        followService.follow(users.get(1).getId(), author.getId());
+        postRepository.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, 20));
+
+        // Then
+        assertThat(cache.contains(Post.class, updatedPostId)).isFalse();
+        assertThat(cache.contains(Post.class, otherPostId)).isTrue();
+        assertThat(cache.contains(User.class, author.getId())).isFalse();
+        assertThat(cache.contains(User.class, users.get(2).getId())).isTrue();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(queryCacheHits + 1);
+        assertThat(postRepository.findById(updatedPostId)).get().extracting(Post::getCommentCount).isEqualTo(1L);
+        assertThat(userRepository.findById(author.getId())).get().extracting(User::getFollowerCount).isEqualTo(1L);
+    }
+
+    private static User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash("test");
+        return user;
+    }
+}
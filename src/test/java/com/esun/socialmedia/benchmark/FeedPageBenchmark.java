@@ -0,0 +1,231 @@
+package com.esun.socialmedia.benchmark;
+
+import com.esun.socialmedia.SocialMediaApplication;
+import com.esun.socialmedia.dto.comment.CreateCommentRequest;
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.PostRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import com.esun.socialmedia.service.CommentService;
+import com.esun.socialmedia.service.FollowService;
+import com.esun.socialmedia.service.PostService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 發文列表每頁的資料庫查詢數與延遲
+ *
+ * 以完整的應用程式內容（記憶體 H2）建立 300 位作者、3000 則發文，輪流讀取前 10 頁（每頁 20 則）。
+ * secondLevelCache=false 時每頁為分頁查詢、總數查詢與一次作者批次查詢；
+ * true 時作者由二級快取載入，分頁與總數查詢命中查詢快取，沒有寫入時每頁不需查詢資料庫。
+ * 每次迭代結束時輸出每頁的 SQL 敘述數（Hibernate 統計）：未啟用時為 3，啟用後為 0。
+ *
+ * concurrentWrites=true 時另有一條執行緒持續新增留言並切換追蹤關係，
+ * 留言數量每秒由排程寫回；計數更新只失效被更新的實體，查詢快取不受影響。
+ * 此時 SQL 敘述數含寫入端的敘述，改以每頁的查詢快取未命中數觀察（啟用快取時應接近 0）。
+ *
+ * 執行方式：
+ * mvn -q test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.esun.socialmedia.benchmark.FeedPageBenchmark
+ *
+ * @author 開發團隊
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FeedPageBenchmark {
+
+    private static final int AUTHORS = 300;
+    private static final int POSTS = 3000;
+    private static final int PAGES = 10;
+    private static final int PAGE_SIZE = 20;
+    private static final long WRITE_INTERVAL_MS = 5;
+
+    @Param({"false", "true"})
+    public boolean secondLevelCache;
+
+    @Param({"false", "true"})
+    public boolean concurrentWrites;
+
+    private ConfigurableApplicationContext context;
+    private PostService postService;
+    private CommentService commentService;
+    private FollowService followService;
+    private Statistics statistics;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private final List<Long> postIds = new ArrayList<>();
+    private volatile boolean writing;
+    private Thread writer;
+
+    private int next;
+    private long pages;
+    private long statements;
+    private long queryCacheMisses;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Path dataDir = Files.createTempDirectory("feed-benchmark");
+        // 以命令列參數傳入，優先於 application.yml
+        context = new SpringApplicationBuilder(SocialMediaApplication.class).run(
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--spring.datasource.url=jdbc:h2:mem:feed-benchmark;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=" + secondLevelCache,
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=" + secondLevelCache,
+                "--logging.level.root=WARN",
+                "--logging.level.com.esun.socialmedia=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "--logging.file.name=" + dataDir.resolve("benchmark.log"),
+                "--app.upload.dir=" + dataDir.resolve("uploads"),
+                "--app.revocation.file=" + dataDir.resolve("revoked-tokens.log"),
+                "--app.ranking.snapshot-file=" + dataDir.resolve("ranking.snapshot"));
+        postService = context.getBean(PostService.class);
+        commentService = context.getBean(CommentService.class);
+        followService = context.getBean(FollowService.class);
+        seed(context.getBean(UserRepository.class), context.getBean(PostRepository.class));
+
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        // 從空的快取開始，由暖機迭代填入
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Setup(Level.Iteration)
+    public void startWriter() {
+        if (!concurrentWrites) {
+            return;
+        }
+        writing = true;
+        writer = new Thread(this::write, "benchmark-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Benchmark
+    public Page<?> feedPage() {
+        long before = statistics.getPrepareStatementCount();
+        long missesBefore = statistics.getQueryCacheMissCount();
+        Page<?> page = postService.getAllPosts(next++ % PAGES, PAGE_SIZE);
+        statements += statistics.getPrepareStatementCount() - before;
+        queryCacheMisses += statistics.getQueryCacheMissCount() - missesBefore;
+        pages++;
+        return page;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportIteration() throws InterruptedException {
+        if (writer != null) {
+            writing = false;
+            writer.join();
+            writer = null;
+        }
+        System.out.printf("%n[secondLevelCache=%s, concurrentWrites=%s] %.2f SQL statements, "
+                        + "%.2f query cache misses per feed page%n",
+                secondLevelCache, concurrentWrites, (double) statements / Math.max(1, pages),
+                (double) queryCacheMisses / Math.max(1, pages));
+        statements = 0;
+        queryCacheMisses = 0;
+        pages = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 持續新增留言並切換追蹤關係，直到迭代結束
+     */
+    private void write() {
+        Random random = new Random();
+        CreateCommentRequest comment = new CreateCommentRequest("benchmark comment");
+        while (writing) {
+            Long postId = postIds.get(random.nextInt(postIds.size()));
+            commentService.createComment(postId, comment, userIds.get(random.nextInt(userIds.size())));
+
+            Long followerId = userIds.get(random.nextInt(userIds.size()));
+            Long followeeId = userIds.get(random.nextInt(userIds.size()));
+            if (!followerId.equals(followeeId)) {
+                if (followService.isFollowing(followerId, followeeId)) {
+                    followService.unfollow(followerId, followeeId);
+                } else {
+                    followService.follow(followerId, followeeId);
+                }
+            }
+            try {
+                Thread.sleep(WRITE_INTERVAL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void seed(UserRepository userRepository, PostRepository postRepository) {
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            User user = new User();
+            user.setUsername("author" + i);
+            user.setEmail("author" + i + "@example.com");
+            user.setPasswordHash("benchmark");
+            authors.add(user);
+        }
+        authors = userRepository.saveAll(authors);
+        authors.forEach(author -> userIds.add(author.getId()));
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Post> posts = new ArrayList<>();
+        for (int i = 0; i < POSTS; i++) {
+            Post post = new Post();
+            post.setContent("benchmark post " + i);
+            post.setAuthor(authors.get(random.nextInt(AUTHORS)));
+            post.setCreatedAt(start.plusSeconds(i));
+            posts.add(post);
+        }
+        postRepository.saveAll(posts).forEach(post -> postIds.add(post.getId()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FeedPageBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
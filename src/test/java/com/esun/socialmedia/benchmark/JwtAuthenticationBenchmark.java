@@ -0,0 +1,169 @@
+package com.esun.socialmedia.benchmark;
+
+import com.esun.socialmedia.security.JwtUtil;
+import com.esun.socialmedia.security.UserPrincipal;
+import com.esun.socialmedia.security.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * JWT 認證每個請求的成本
+ *
+ * legacyFilter 重現原本 JwtAuthenticationFilter 的呼叫順序（isTokenValid、extractUsername、validateToken），
+ * 每次解析都重新解碼密鑰並建立解析器，共驗證簽名五次；
+ * singleParse 為每個請求只驗證一次簽名（快取未命中）；cachedVerify 為快取命中。
+ * cachedVerifyContended 以 8 個執行緒、各自的 Token 同時查詢快取，衡量快取在並行請求下的延遲；
+ * cachedPrincipalContended 另加上認證主體快取的查詢（認證過濾器命中快取時的完整路徑）。
+ *
+ * 執行方式：
+ * mvn -q test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) com.esun.socialmedia.benchmark.JwtAuthenticationBenchmark
+ *
+ * @author 開發團隊
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationBenchmark {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQta2V5LWZvci11bml0LXRlc3RzLTIwMjQ=";
+
+    private JwtUtil cachingJwtUtil;
+    private UserPrincipalCache principalCache;
+    private JwtUtil uncachedJwtUtil;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachingJwtUtil = jwtUtil(10000);
+        uncachedJwtUtil = jwtUtil(0);
+        principalCache = new UserPrincipalCache(new SimpleMeterRegistry());
+        userDetails = User.builder()
+                .username("testuser")
+                .password("password")
+                .authorities(Collections.emptyList())
+                .build();
+        token = cachingJwtUtil.generateToken(userDetails);
+    }
+
+    @Benchmark
+    public boolean legacyFilter() {
+        // isTokenValid：解析一次，isTokenExpired 再解析一次
+        legacyParse(token);
+        boolean valid = !legacyParse(token).getExpiration().before(new Date());
+        // extractUsername
+        String username = legacyParse(token).getSubject();
+        // validateToken：extractUsername 與 isTokenExpired 各解析一次
+        return valid
+                && username.equals(userDetails.getUsername())
+                && legacyParse(token).getSubject().equals(userDetails.getUsername())
+                && !legacyParse(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        return uncachedJwtUtil.validateToken(uncachedJwtUtil.verify(token), userDetails);
+    }
+
+    @Benchmark
+    public boolean cachedVerify() {
+        return cachingJwtUtil.validateToken(cachingJwtUtil.verify(token), userDetails);
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean cachedVerifyContended(PerThread perThread) {
+        return cachingJwtUtil.validateToken(cachingJwtUtil.verify(perThread.token), perThread.userDetails);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UserPrincipal cachedPrincipalContended(PerThread perThread) {
+        cachingJwtUtil.verify(perThread.token);
+        return principalCache.get(perThread.userId, perThread.loader);
+    }
+
+    /**
+     * 每個執行緒各自的使用者與 Token（不同的快取鍵）
+     */
+    @State(Scope.Thread)
+    public static class PerThread {
+
+        private static final AtomicInteger NEXT = new AtomicInteger();
+
+        private Long userId;
+        private UserDetails userDetails;
+        private String token;
+        private Function<Long, UserPrincipal> loader;
+
+        @Setup
+        public void setUp(JwtAuthenticationBenchmark benchmark) {
+            userId = (long) NEXT.incrementAndGet();
+            userDetails = User.builder()
+                    .username("user" + userId)
+                    .password("password")
+                    .authorities(Collections.emptyList())
+                    .build();
+            token = benchmark.cachingJwtUtil.generateToken(userDetails);
+            com.esun.socialmedia.entity.User user = new com.esun.socialmedia.entity.User();
+            user.setId(userId);
+            user.setUsername("user" + userId);
+            UserPrincipal principal = new UserPrincipal(user);
+            loader = id -> principal;
+        }
+    }
+
+    private static JwtUtil jwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 7200000L);
+        ReflectionTestUtils.setField(jwtUtil, "cacheSize", cacheSize);
+        return jwtUtil;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthenticationBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,179 @@
+package com.esun.socialmedia.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UploadedFileServlet 測試類別
+ */
+class UploadedFileServletTest {
+
+    private static final String HASH = "ab" + "0123456789abcdef".repeat(4).substring(2);
+
+    @TempDir
+    Path tempDir;
+
+    private UploadedFileServlet servlet;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Files.createDirectories(tempDir.resolve("ab"));
+        Files.write(tempDir.resolve("ab").resolve(HASH + ".png"), content);
+        servlet = new UploadedFileServlet(tempDir);
+    }
+
+    @Test
+    void testGet_FullContentWithCacheHeaders() throws Exception {
+        // When
+        MockHttpServletResponse response = perform(request("/ab/" + HASH + ".png"));
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + HASH + "\"");
+        assertThat(response.getHeader("Cache-Control")).contains("immutable");
+        assertThat(response.getHeader("Accept-Ranges")).isEqualTo("bytes");
+    }
+
+    @Test
+    void testGet_IfNoneMatchReturnsNotModified() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/ab/" + HASH + ".png");
+        request.addHeader("If-None-Match", "\"other\", \"" + HASH + "\"");
+
+        // When
+        MockHttpServletResponse response = perform(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void testGet_RangeReturnsPartialContent() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/ab/" + HASH + ".png");
+        request.addHeader("Range", "bytes=100-199");
+
+        // When
+        MockHttpServletResponse response = perform(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 100-199/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+    }
+
+    @Test
+    void testGet_SuffixRange() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/ab/" + HASH + ".png");
+        request.addHeader("Range", "bytes=-10");
+
+        // When
+        MockHttpServletResponse response = perform(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes 990-999/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 990, 1000));
+    }
+
+    @Test
+    void testGet_UnsatisfiableRange() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/ab/" + HASH + ".png");
+        request.addHeader("Range", "bytes=2000-");
+
+        // When
+        MockHttpServletResponse response = perform(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader("Content-Range")).isEqualTo("bytes */1000");
+    }
+
+    @Test
+    void testGet_IfRangeMismatchReturnsFullContent() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/ab/" + HASH + ".png");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"stale\"");
+
+        // When
+        MockHttpServletResponse response = perform(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).hasSize(1000);
+    }
+
+    @Test
+    void testGet_UsesSendfileWhenSupported() throws Exception {
+        // Given
+        MockHttpServletRequest request = request("/ab/" + HASH + ".png");
+        request.setAttribute(UploadedFileServlet.SENDFILE_SUPPORTED, Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-");
+
+        // When
+        MockHttpServletResponse response = perform(request);
+
+        // Then：內容交由容器傳送
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getContentLengthLong()).isEqualTo(990);
+        assertThat(request.getAttribute(UploadedFileServlet.SENDFILE_START)).isEqualTo(10L);
+        assertThat(request.getAttribute(UploadedFileServlet.SENDFILE_END)).isEqualTo(1000L);
+    }
+
+    @Test
+    void testGet_VariantHasOwnEtag() throws Exception {
+        // Given
+        Files.write(tempDir.resolve("ab").resolve(HASH + "_w320.jpg"), new byte[] {1, 2, 3});
+
+        // When
+        MockHttpServletResponse response = perform(request("/ab/" + HASH + "_w320.jpg"));
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("image/jpeg");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"" + HASH + "_w320\"");
+        assertThat(response.getContentAsByteArray()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void testGet_RejectsInvalidPaths() throws Exception {
+        // When & Then
+        assertThat(perform(request("/ab/../../etc/passwd")).getStatus()).isEqualTo(404);
+        assertThat(perform(request("/cd/" + HASH + ".png")).getStatus()).isEqualTo(404);
+        assertThat(perform(request("/ab/" + HASH + ".jpg")).getStatus()).isEqualTo(404);
+    }
+
+    private MockHttpServletRequest request(String pathInfo) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/uploads" + pathInfo);
+        request.setContextPath("/api");
+        request.setServletPath("/uploads");
+        request.setPathInfo(pathInfo);
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        servlet.service(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,118 @@
+package com.esun.socialmedia.security;
+
+import com.esun.socialmedia.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * BoundedPasswordEncoder 測試類別
+ */
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (passwordEncoder != null) {
+            passwordEncoder.destroy();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatchesRunOnHashingThreads() {
+        // Given
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 1, meterRegistry);
+
+        // When
+        String encoded = passwordEncoder.encode("password123");
+
+        // Then
+        assertThat(passwordEncoder.matches("password123", encoded)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", encoded)).isFalse();
+        assertThat(meterRegistry.get("password.hashing.duration").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("password.hashing.duration").tag("operation", "matches").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        // Given：一個執行緒、佇列容量一，兩個雜湊卡住後第三個立即被拒絕
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        passwordEncoder = new BoundedPasswordEncoder(blocking(started, release), 1, 1, 3, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("b"));
+        waitForQueueDepth(1);
+
+        // When & Then
+        assertThatThrownBy(() -> passwordEncoder.encode("c"))
+                .isInstanceOf(ServiceUnavailableException.class)
+                .satisfies(e -> assertThat(((ServiceUnavailableException) e).getRetryAfterSeconds()).isEqualTo(3));
+        assertThat(passwordEncoder.upgradeEncoding("$2a$04$abcdefghijklmnopqrstuu")).isFalse();
+        assertThat(meterRegistry.get("password.hashing.rejected").counter().count()).isEqualTo(1.0);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("encoded");
+    }
+
+    @Test
+    void testUpgradeEncodingToConfiguredStrength() {
+        // Given
+        passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 4, 1, meterRegistry);
+        String weaker = new BCryptPasswordEncoder(4).encode("password123");
+        String current = new BCryptPasswordEncoder(5).encode("password123");
+
+        // When & Then
+        assertThat(passwordEncoder.upgradeEncoding(weaker)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(current)).isFalse();
+    }
+
+    private void waitForQueueDepth(double depth) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (meterRegistry.get("password.hashing.queue.depth").gauge().value() >= depth) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static PasswordEncoder blocking(CountDownLatch started, CountDownLatch release) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "encoded";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return false;
+            }
+        };
+    }
+}
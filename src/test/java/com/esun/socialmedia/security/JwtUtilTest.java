@@ -1,14 +1,19 @@
 package com.esun.socialmedia.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * JwtUtil 測試類別
@@ -103,6 +108,102 @@ class JwtUtilTest {
         assertThat(isValid).isFalse();
     }
 
+    @Test
+    void testVerify_CachesVerifiedToken() {
+        // Given
+        String token = jwtUtil.generateToken(userDetails);
+
+        // When
+        VerifiedToken first = jwtUtil.verify(token);
+        VerifiedToken second = jwtUtil.verify(token);
+
+        // Then：第二次直接由快取取得，不重新解析
+        assertThat(first.getUsername()).isEqualTo("testuser");
+        assertThat(first.isRefreshToken()).isFalse();
+        assertThat(second).isSameAs(first);
+        assertThat(jwtUtil.validateToken(first, userDetails)).isTrue();
+    }
+
+    @Test
+    void testVerify_CacheEntryExpiresWithToken() {
+        // Given
+        String token = jwtUtil.generateToken(userDetails);
+
+        // When
+        jwtUtil.verify(token);
+
+        // Then：快取項目的存活時間為 Token 的剩餘有效時間（1 小時，exp 以秒為單位）
+        Cache<ByteBuffer, VerifiedToken> cache = verifiedTokens();
+        ByteBuffer key = cache.asMap().keySet().iterator().next();
+        Optional<Duration> expiresAfter = cache.policy().expireVariably().orElseThrow().getExpiresAfter(key);
+        assertThat(expiresAfter).hasValueSatisfying(duration ->
+                assertThat(duration).isBetween(Duration.ofMinutes(59), Duration.ofHours(1)));
+    }
+
+    @Test
+    void testVerify_CacheKeyDistinguishesNonAsciiTokens() {
+        // Given：只有非 ASCII 字元不同的兩個字串
+        ByteBuffer first = ReflectionTestUtils.invokeMethod(JwtUtil.class, "digest", "token\u00e9");
+        ByteBuffer second = ReflectionTestUtils.invokeMethod(JwtUtil.class, "digest", "token\u00e8");
+
+        // Then
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    void testVerify_RejectsTamperedToken() {
+        // Given：竄改簽名中的一個字元（最後一個字元含未使用的位元，竄改後可能解碼相同）
+        String token = jwtUtil.generateToken(userDetails);
+        jwtUtil.verify(token);
+        int index = token.length() - 10;
+        char original = token.charAt(index);
+        String tampered = token.substring(0, index) + (original == 'A' ? 'B' : 'A') + token.substring(index + 1);
+
+        // When & Then
+        assertThatThrownBy(() -> jwtUtil.verify(tampered))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("無效的 JWT Token");
+        assertThat(jwtUtil.isTokenValid(tampered)).isFalse();
+    }
+
+    @Test
+    void testVerify_RejectsExpiredToken() {
+        // Given
+        ReflectionTestUtils.setField(jwtUtil, "expiration", -1000L);
+        String token = jwtUtil.generateToken(userDetails);
+
+        // When & Then
+        assertThatThrownBy(() -> jwtUtil.verify(token)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(jwtUtil.isTokenValid(token)).isFalse();
+        assertThat(jwtUtil.validateToken(token, userDetails)).isFalse();
+    }
+
+    @Test
+    void testGenerateToken_IncludesUserId() {
+        // Given
+        com.esun.socialmedia.entity.User user = new com.esun.socialmedia.entity.User();
+        user.setId(42L);
+        user.setUsername("testuser");
+
+        // When
+        String token = jwtUtil.generateToken(new UserPrincipal(user));
+
+        // Then
+        assertThat(jwtUtil.verify(token).getUserId()).isEqualTo(42L);
+        assertThat(jwtUtil.verify(jwtUtil.generateToken(userDetails)).getUserId()).isNull();
+    }
+
+    @Test
+    void testGenerateToken_HasUniqueTokenId() {
+        // When
+        String first = jwtUtil.generateToken(userDetails);
+        String second = jwtUtil.generateToken(userDetails);
+
+        // Then
+        assertThat(jwtUtil.extractTokenId(first)).isNotBlank();
+        assertThat(jwtUtil.extractTokenId(first)).isNotEqualTo(jwtUtil.extractTokenId(second));
+    }
+
     @Test
     void testTokenRemainingTime() {
         // Given
@@ -115,4 +216,9 @@ class JwtUtilTest {
         assertThat(remainingTime).isGreaterThan(0);
         assertThat(remainingTime).isLessThanOrEqualTo(3600000L);
     }
+
+    @SuppressWarnings("unchecked")
+    private Cache<ByteBuffer, VerifiedToken> verifiedTokens() {
+        return (Cache<ByteBuffer, VerifiedToken>) ReflectionTestUtils.getField(jwtUtil, "verifiedTokens");
+    }
 }
@@ -0,0 +1,106 @@
+package com.esun.socialmedia.security;
+
+import com.esun.socialmedia.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RateLimitFilter 測試類別
+ */
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "authCapacity", 2);
+        ReflectionTestUtils.setField(filter, "readsCapacity", 3);
+        filter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testAllowedRequestHasRateLimitHeaders() throws Exception {
+        // When
+        MockHttpServletResponse response = perform("GET", "/posts", "10.0.0.1");
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isEqualTo("3");
+        assertThat(response.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("2");
+        assertThat(response.getHeader(RateLimitFilter.RESET_HEADER)).isEqualTo("1");
+    }
+
+    @Test
+    void testLoginIsLimitedPerIp() throws Exception {
+        // Given
+        perform("POST", "/auth/login", "10.0.0.1");
+        perform("POST", "/auth/login", "10.0.0.1");
+
+        // When
+        MockHttpServletResponse rejected = perform("POST", "/auth/login", "10.0.0.1");
+        MockHttpServletResponse otherIp = perform("POST", "/auth/login", "10.0.0.2");
+
+        // Then
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("6");
+        assertThat(rejected.getHeader(RateLimitFilter.REMAINING_HEADER)).isEqualTo("0");
+        assertThat(rejected.getContentAsString()).contains("Too Many Requests");
+        assertThat(otherIp.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void testAuthenticatedUserIsLimitedByUserId() throws Exception {
+        // Given：同一使用者由不同 IP 發出請求
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("testuser");
+        user.setPasswordHash("hashedpassword");
+        UserPrincipal principal = new UserPrincipal(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            perform("GET", "/posts", "10.0.0." + i);
+        }
+        MockHttpServletResponse rejected = perform("GET", "/posts", "10.0.0.9");
+
+        // Then
+        assertThat(rejected.getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void testExcludedPathsAreNotLimited() throws Exception {
+        // When
+        MockHttpServletResponse response = perform("GET", "/actuator/health", "10.0.0.1");
+
+        // Then
+        assertThat(response.getHeader(RateLimitFilter.LIMIT_HEADER)).isNull();
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api" + path);
+        request.setContextPath("/api");
+        request.setServletPath(path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
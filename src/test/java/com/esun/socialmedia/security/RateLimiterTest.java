@@ -0,0 +1,83 @@
+package com.esun.socialmedia.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RateLimiter 測試類別
+ */
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstUpToCapacity() {
+        // Given：容量 3，每秒補充一個
+        RateLimiter limiter = new RateLimiter(3, SECOND);
+        long now = 1000 * SECOND;
+
+        // When & Then
+        long first = limiter.acquire("10.0.0.1", now);
+        assertThat(limiter.remaining(first)).isEqualTo(2);
+        assertThat(limiter.remaining(limiter.acquire("10.0.0.1", now))).isEqualTo(1);
+        long third = limiter.acquire("10.0.0.1", now);
+        assertThat(limiter.remaining(third)).isEqualTo(0);
+        assertThat(third).isEqualTo(3 * SECOND);
+
+        long rejected = limiter.acquire("10.0.0.1", now);
+        assertThat(rejected).isEqualTo(-SECOND);
+    }
+
+    @Test
+    void testRefillOverTime() {
+        // Given
+        RateLimiter limiter = new RateLimiter(2, SECOND);
+        long now = 1000 * SECOND;
+        limiter.acquire(1L, now);
+        limiter.acquire(1L, now);
+        assertThat(limiter.acquire(1L, now)).isNegative();
+
+        // When：半秒後仍不足一個權杖，一秒後恢復一個
+        long halfSecond = limiter.acquire(1L, now + SECOND / 2);
+        long oneSecond = limiter.acquire(1L, now + SECOND);
+
+        // Then
+        assertThat(halfSecond).isEqualTo(-SECOND / 2);
+        assertThat(oneSecond).isPositive();
+        assertThat(limiter.remaining(oneSecond)).isEqualTo(0);
+    }
+
+    @Test
+    void testKeysAreIndependent() {
+        // Given
+        RateLimiter limiter = new RateLimiter(1, SECOND);
+        long now = 1000 * SECOND;
+
+        // When
+        limiter.acquire(1L, now);
+
+        // Then：使用者 ID 與 IP 各自計算
+        assertThat(limiter.acquire(1L, now)).isNegative();
+        assertThat(limiter.acquire(2L, now)).isPositive();
+        assertThat(limiter.acquire("1", now)).isPositive();
+    }
+
+    @Test
+    void testEvictIdleRemovesOnlyFullBuckets() {
+        // Given
+        RateLimiter limiter = new RateLimiter(5, SECOND);
+        long now = 1000 * SECOND;
+        limiter.acquire("idle", now);
+        limiter.acquire("busy", now + 4 * SECOND);
+
+        // When：idle 已於 1 秒後補滿，busy 尚未補滿
+        int evicted = limiter.evictIdle(now + 2 * SECOND);
+
+        // Then
+        assertThat(evicted).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
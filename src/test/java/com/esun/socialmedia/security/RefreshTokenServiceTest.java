@@ -0,0 +1,194 @@
+package com.esun.socialmedia.security;
+
+import com.esun.socialmedia.entity.RefreshTokenFamily;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.RefreshTokenFamilyRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import com.esun.socialmedia.security.RefreshTokenService.IssuedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RefreshTokenService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenFamilyRepository familyRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private JwtUtil jwtUtil;
+    private RefreshTokenService refreshTokenService;
+    private User testUser;
+    private UserPrincipal userPrincipal;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "dGVzdC1zZWNyZXQta2V5LWZvci11bml0LXRlc3RzLTIwMjQ=");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshExpiration", 7200000L);
+
+        refreshTokenService = new RefreshTokenService(familyRepository, userRepository, jwtUtil,
+                transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 7200000L);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        testUser.setEmail("test@example.com");
+        testUser.setPasswordHash("hashedpassword");
+        userPrincipal = new UserPrincipal(testUser);
+    }
+
+    @Test
+    void testIssue_CreatesFamily() {
+        // When
+        IssuedToken issued = issue(7L);
+
+        // Then
+        VerifiedToken token = jwtUtil.verify(issued.getToken());
+        assertThat(issued.getFamilyId()).isEqualTo(7L);
+        assertThat(token.getFamilyId()).isEqualTo(7L);
+        assertThat(jwtUtil.isRefreshToken(issued.getToken())).isTrue();
+        assertThat(refreshTokenService.isRevoked(7L)).isFalse();
+    }
+
+    @Test
+    void testRotate_IssuesNewToken() {
+        // Given
+        IssuedToken issued = issue(7L);
+        VerifiedToken presented = jwtUtil.verify(issued.getToken());
+        when(familyRepository.rotate(eq(7L), eq(presented.getTokenId()), anyString(), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // When
+        IssuedToken rotated = refreshTokenService.rotate(presented, userPrincipal);
+
+        // Then
+        VerifiedToken next = jwtUtil.verify(rotated.getToken());
+        assertThat(rotated.getFamilyId()).isEqualTo(7L);
+        assertThat(next.getFamilyId()).isEqualTo(7L);
+        assertThat(next.getTokenId()).isNotEqualTo(presented.getTokenId());
+        assertThat(refreshTokenService.isRevoked(7L)).isFalse();
+    }
+
+    @Test
+    void testRotate_ReusedTokenRevokesFamily() {
+        // Given：第一次刷新成功後再次使用同一個 Token
+        IssuedToken issued = issue(7L);
+        VerifiedToken presented = jwtUtil.verify(issued.getToken());
+        when(familyRepository.rotate(eq(7L), eq(presented.getTokenId()), anyString(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        IssuedToken rotated = refreshTokenService.rotate(presented, userPrincipal);
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate(presented, userPrincipal))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("無效的 Refresh Token");
+        assertThat(refreshTokenService.isRevoked(7L)).isTrue();
+        verify(familyRepository).revoke(7L);
+
+        // 家族撤銷後，最新的 Token 也不能再使用
+        VerifiedToken latest = jwtUtil.verify(rotated.getToken());
+        assertThatThrownBy(() -> refreshTokenService.rotate(latest, userPrincipal))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testRotate_RolledBackTransactionKeepsPresentedToken() {
+        // Given：刷新後呼叫端的交易回滾，資料庫仍記錄原本的 Token
+        IssuedToken issued = issue(7L);
+        VerifiedToken presented = jwtUtil.verify(issued.getToken());
+        when(familyRepository.rotate(eq(7L), eq(presented.getTokenId()), anyString(), any(LocalDateTime.class)))
+                .thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            refreshTokenService.rotate(presented, userPrincipal);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // When：用戶端以原本的 Token 重試
+        IssuedToken retried = refreshTokenService.rotate(presented, userPrincipal);
+
+        // Then
+        assertThat(retried.getFamilyId()).isEqualTo(7L);
+        assertThat(refreshTokenService.isRevoked(7L)).isFalse();
+        verify(familyRepository, never()).revoke(anyLong());
+    }
+
+    @Test
+    void testRotate_OtherUserRejected() {
+        // Given
+        IssuedToken issued = issue(7L);
+        User otherUser = new User();
+        otherUser.setId(2L);
+        otherUser.setUsername("otheruser");
+        otherUser.setPasswordHash("hashedpassword");
+
+        // When & Then
+        assertThatThrownBy(() -> refreshTokenService.rotate(jwtUtil.verify(issued.getToken()),
+                new UserPrincipal(otherUser)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("無效的 Refresh Token");
+        assertThat(refreshTokenService.isRevoked(7L)).isFalse();
+        verify(familyRepository, never()).rotate(any(), any(), any(), any());
+    }
+
+    @Test
+    void testRotate_UnknownFamilyLoadedFromDatabase() {
+        // Given：由其他執行個體建立的家族
+        IssuedToken issued = issue(7L);
+        RefreshTokenService otherInstance = new RefreshTokenService(familyRepository, userRepository, jwtUtil,
+                transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(otherInstance, "refreshExpiration", 7200000L);
+        VerifiedToken presented = jwtUtil.verify(issued.getToken());
+        RefreshTokenFamily entity = new RefreshTokenFamily(testUser, presented.getTokenId(),
+                LocalDateTime.now().plusHours(1));
+        entity.setId(7L);
+        when(familyRepository.findById(7L)).thenReturn(Optional.of(entity));
+        when(familyRepository.rotate(eq(7L), eq(presented.getTokenId()), anyString(), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // When
+        IssuedToken rotated = otherInstance.rotate(presented, userPrincipal);
+
+        // Then
+        assertThat(rotated.getFamilyId()).isEqualTo(7L);
+    }
+
+    private IssuedToken issue(Long familyId) {
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(familyRepository.save(any(RefreshTokenFamily.class))).thenAnswer(invocation -> {
+            RefreshTokenFamily family = invocation.getArgument(0);
+            family.setId(familyId);
+            return family;
+        });
+        return refreshTokenService.issue(userPrincipal);
+    }
+}
@@ -0,0 +1,172 @@
+package com.esun.socialmedia.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TokenRevocationService 測試類別
+ */
+class TokenRevocationServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path file;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        file = tempDir.resolve("revoked-tokens.log");
+        revocationService = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        revocationService.close();
+    }
+
+    @Test
+    void testRevokedTokenIsRejected() {
+        // When
+        revocationService.revoke("jti-1", System.currentTimeMillis() + 60000);
+
+        // Then
+        assertThat(revocationService.isRevoked("jti-1")).isTrue();
+        assertThat(revocationService.isRevoked("jti-2")).isFalse();
+        assertThat(revocationService.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void testExpiredTokenIsNotStored() {
+        // When
+        revocationService.revoke("jti-1", System.currentTimeMillis() - 1);
+
+        // Then
+        assertThat(revocationService.isRevoked("jti-1")).isFalse();
+        assertThat(revocationService.size()).isZero();
+    }
+
+    @Test
+    void testRevocationsSurviveRestart() throws Exception {
+        // Given
+        long now = System.currentTimeMillis();
+        revocationService.revoke("jti-1", now + 60000);
+        revocationService.revoke("jti-2", now + 60000);
+        revocationService.close();
+        // 模擬寫入中斷留下的不完整紀錄
+        Files.write(file, new byte[]{0, 0, 1}, StandardOpenOption.APPEND);
+
+        // When
+        revocationService = open();
+        revocationService.revoke("jti-3", now + 60000);
+        revocationService.close();
+        revocationService = open();
+
+        // Then
+        assertThat(revocationService.isRevoked("jti-1")).isTrue();
+        assertThat(revocationService.isRevoked("jti-2")).isTrue();
+        assertThat(revocationService.isRevoked("jti-3")).isTrue();
+        assertThat(revocationService.size()).isEqualTo(3);
+    }
+
+    @Test
+    void testEntriesExpireWithToken() throws Exception {
+        // Given：時間輪每格 10 毫秒
+        revocationService.close();
+        revocationService = open(10L);
+        long now = System.currentTimeMillis();
+        revocationService.revoke("short", now + 30);
+        revocationService.revoke("long", now + 60000);
+
+        // When
+        Thread.sleep(60);
+        revocationService.expire();
+
+        // Then
+        assertThat(revocationService.isRevoked("short")).isFalse();
+        assertThat(revocationService.isRevoked("long")).isTrue();
+        assertThat(revocationService.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testCompactionDropsExpiredRecords() throws Exception {
+        // Given：紀錄檔中有大量已過期的撤銷，只有一筆仍有效
+        revocationService.close();
+        long now = System.currentTimeMillis();
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x52564B31);
+            for (int i = 0; i < 1100; i++) {
+                writeRecord(out, "expired-" + i, now - 1000);
+            }
+            writeRecord(out, "live", now + 60000);
+        }
+        long before = Files.size(file);
+        revocationService = open();
+
+        // When
+        revocationService.expire();
+
+        // Then
+        assertThat(Files.size(file)).isLessThan(before / 100);
+        revocationService.close();
+        revocationService = open();
+        assertThat(revocationService.isRevoked("live")).isTrue();
+        assertThat(revocationService.isRevoked("expired-0")).isFalse();
+        assertThat(revocationService.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testTimingWheelHandlesMultipleRotations() {
+        // Given：8 格、每格 10 毫秒，一圈 80 毫秒
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 0);
+        wheel.add("a", 25);
+        wheel.add("b", 95);
+        wheel.add("c", 1000);
+        List<String> expired = new ArrayList<>();
+
+        // When & Then
+        wheel.advance(30, expired::add);
+        assertThat(expired).containsExactly("a");
+        wheel.advance(90, expired::add);
+        assertThat(expired).containsExactly("a");
+        wheel.advance(100, expired::add);
+        assertThat(expired).containsExactly("a", "b");
+        wheel.advance(5000, expired::add);
+        assertThat(expired).containsExactly("a", "b", "c");
+        assertThat(wheel.size()).isZero();
+    }
+
+    private static void writeRecord(DataOutputStream out, String tokenId, long expiresAt) throws IOException {
+        byte[] key = tokenId.getBytes(StandardCharsets.UTF_8);
+        out.writeLong(expiresAt);
+        out.writeShort(key.length);
+        out.write(key);
+    }
+
+    private TokenRevocationService open() {
+        return open(60000L);
+    }
+
+    private TokenRevocationService open(long tickMillis) {
+        TokenRevocationService service = new TokenRevocationService(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "revocationFile", file.toString());
+        ReflectionTestUtils.setField(service, "tickMillis", tickMillis);
+        service.open();
+        return service;
+    }
+}
@@ -0,0 +1,106 @@
+package com.esun.socialmedia.security;
+
+import com.esun.socialmedia.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UserPrincipalCache 測試類別
+ */
+class UserPrincipalCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPrincipalCache principalCache;
+    private AtomicInteger loads;
+    private Function<Long, UserPrincipal> loader;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        principalCache = new UserPrincipalCache(meterRegistry);
+        loads = new AtomicInteger();
+        loader = id -> {
+            loads.incrementAndGet();
+            User user = new User();
+            user.setId(id);
+            user.setUsername("user" + id);
+            return new UserPrincipal(user);
+        };
+    }
+
+    @Test
+    void testHitDoesNotLoad() {
+        // When
+        UserPrincipal first = principalCache.get(1L, loader);
+        UserPrincipal second = principalCache.get(1L, loader);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(principalCache.hitRatio()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("auth.principal.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void testInvalidateReloads() {
+        // Given
+        principalCache.get(1L, loader);
+
+        // When
+        principalCache.invalidate(1L);
+        principalCache.get(1L, loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testInvalidateDuringLoadIsNotOverwritten() {
+        // Given：載入期間個人資料被更新
+        principalCache.get(1L, id -> {
+            principalCache.invalidate(id);
+            return loader.apply(id);
+        });
+
+        // When
+        principalCache.get(1L, loader);
+
+        // Then：變更前載入的資料沒有被快取
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testExpiredEntryReloads() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(principalCache, "ttlMillis", 1L);
+        principalCache.get(1L, loader);
+
+        // When
+        Thread.sleep(5);
+        principalCache.get(1L, loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        // Given
+        ReflectionTestUtils.setField(principalCache, "maxSize", 2);
+
+        // When
+        for (long id = 1; id <= 5; id++) {
+            principalCache.get(id, loader);
+        }
+
+        // Then
+        assertThat(principalCache.size()).isEqualTo(2);
+    }
+}
@@ -5,6 +5,9 @@ import com.esun.socialmedia.dto.auth.LoginRequest;
 import com.esun.socialmedia.dto.auth.RegisterRequest;
 import com.esun.socialmedia.entity.User;
 import com.esun.socialmedia.security.JwtUtil;
+import com.esun.socialmedia.security.RefreshTokenService;
+import com.esun.socialmedia.security.RefreshTokenService.IssuedToken;
+import com.esun.socialmedia.security.TokenRevocationService;
 import com.esun.socialmedia.security.UserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,7 +26,9 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,6 +46,12 @@ class AuthServiceTest {
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private TokenRevocationService revocationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @Mock
     private Authentication authentication;
 
@@ -76,8 +87,8 @@ class AuthServiceTest {
 
         when(userService.createUser(anyString(), anyString(), anyString(), anyString()))
                 .thenReturn(testUser);
-        when(jwtUtil.generateToken(any(UserPrincipal.class))).thenReturn("access-token");
-        when(jwtUtil.generateRefreshToken(any(UserPrincipal.class))).thenReturn("refresh-token");
+        when(refreshTokenService.issue(any(UserPrincipal.class))).thenReturn(new IssuedToken(7L, "refresh-token"));
+        when(jwtUtil.generateToken(any(UserPrincipal.class), eq(7L))).thenReturn("access-token");
 
         // When
         AuthResponse response = authService.register(request);
@@ -117,8 +128,8 @@ class AuthServiceTest {
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
                 .thenReturn(authentication);
         when(authentication.getPrincipal()).thenReturn(userPrincipal);
-        when(jwtUtil.generateToken(any(UserPrincipal.class))).thenReturn("access-token");
-        when(jwtUtil.generateRefreshToken(any(UserPrincipal.class))).thenReturn("refresh-token");
+        when(refreshTokenService.issue(userPrincipal)).thenReturn(new IssuedToken(7L, "refresh-token"));
+        when(jwtUtil.generateToken(userPrincipal, 7L)).thenReturn("access-token");
         when(userService.getUserProfile(1L)).thenReturn(Optional.empty());
 
         // When
@@ -156,8 +167,9 @@ class AuthServiceTest {
         when(jwtUtil.isRefreshToken(refreshToken)).thenReturn(true);
         when(jwtUtil.extractUsername(refreshToken)).thenReturn("testuser");
         when(userService.findByUsernameOrEmail("testuser")).thenReturn(Optional.of(testUser));
-        when(jwtUtil.generateToken(any(UserPrincipal.class))).thenReturn("new-access-token");
-        when(jwtUtil.generateRefreshToken(any(UserPrincipal.class))).thenReturn("new-refresh-token");
+        when(refreshTokenService.rotate(any(), any(UserPrincipal.class)))
+                .thenReturn(new IssuedToken(7L, "new-refresh-token"));
+        when(jwtUtil.generateToken(any(UserPrincipal.class), eq(7L))).thenReturn("new-access-token");
         when(userService.getUserProfile(1L)).thenReturn(Optional.empty());
 
         // When
@@ -196,6 +208,42 @@ class AuthServiceTest {
                 .hasMessageContaining("無效的 Refresh Token");
     }
 
+    @Test
+    void testRefreshToken_RevokedToken() {
+        // Given
+        String refreshToken = "revoked-refresh-token";
+
+        when(jwtUtil.isTokenValid(refreshToken)).thenReturn(true);
+        when(jwtUtil.isRefreshToken(refreshToken)).thenReturn(true);
+        when(jwtUtil.extractTokenId(refreshToken)).thenReturn("jti-1");
+        when(revocationService.isRevoked("jti-1")).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> authService.refreshToken(refreshToken))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("無效的 Refresh Token");
+    }
+
+    @Test
+    void testLogout_RevokesValidTokens() {
+        // Given：以實際的 JwtUtil 產生 Token
+        JwtUtil realJwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(realJwtUtil, "secret", "dGVzdC1zZWNyZXQta2V5LWZvci11bml0LXRlc3RzLTIwMjQ=");
+        ReflectionTestUtils.setField(realJwtUtil, "expiration", 3600000L);
+        ReflectionTestUtils.setField(realJwtUtil, "refreshExpiration", 7200000L);
+        String accessToken = realJwtUtil.generateToken(userPrincipal, 7L);
+        when(jwtUtil.verify(accessToken)).thenReturn(realJwtUtil.verify(accessToken));
+        when(jwtUtil.verify("garbage")).thenThrow(new IllegalArgumentException("無效的 JWT Token"));
+
+        // When
+        authService.logout(accessToken, "garbage");
+
+        // Then
+        verify(revocationService).revoke(eq(realJwtUtil.extractTokenId(accessToken)), anyLong());
+        verify(refreshTokenService).revoke(7L);
+        verifyNoMoreInteractions(revocationService, refreshTokenService);
+    }
+
     @Test
     void testValidateToken_ValidToken() {
         // Given
@@ -0,0 +1,137 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * AvailabilityFilterService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityFilterServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private Predicate<String> exists;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityFilterService availabilityFilterService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        availabilityFilterService = new AvailabilityFilterService(userRepository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void testNotBuiltFallsBackToDatabase() {
+        // Given
+        when(exists.test("alice")).thenReturn(true);
+
+        // When & Then
+        assertThat(availabilityFilterService.isUsernameAvailable("alice", exists)).isFalse();
+        verify(exists).test("alice");
+    }
+
+    @Test
+    void testDefinitelyAvailableSkipsDatabase() {
+        // Given
+        build(user(1L, "alice", "alice@example.com"));
+
+        // When
+        boolean available = availabilityFilterService.isUsernameAvailable("newcomer", exists);
+
+        // Then
+        assertThat(available).isTrue();
+        verifyNoInteractions(exists);
+        assertThat(meterRegistry.get("availability.checks")
+                .tags("type", "username", "result", "filtered").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testPossibleCollisionChecksDatabase() {
+        // Given：大小寫與前後空白不同也視為可能重複
+        build(user(1L, "Alice", "alice@example.com"));
+        when(exists.test(" ALICE@example.com")).thenReturn(false);
+        when(exists.test("Alice")).thenReturn(true);
+
+        // When & Then
+        assertThat(availabilityFilterService.isEmailAvailable(" ALICE@example.com", exists)).isTrue();
+        assertThat(availabilityFilterService.isUsernameAvailable("Alice", exists)).isFalse();
+        assertThat(meterRegistry.get("availability.checks")
+                .tags("type", "email", "result", "false_positive").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testSavedUsersAreAdded() {
+        // Given
+        build();
+        when(exists.test("bob")).thenReturn(true);
+
+        // When：沒有進行中的交易時立即生效
+        availabilityFilterService.onUserSaved("bob", null);
+
+        // Then
+        assertThat(availabilityFilterService.isUsernameAvailable("bob", exists)).isFalse();
+        assertThat(availabilityFilterService.isEmailAvailable("bob", exists)).isTrue();
+    }
+
+    @Test
+    void testFalsePositiveRateStaysNearTarget() {
+        // Given：以預設容量 100000、誤判率 1% 建立（少於一批，避免第二次批次查詢）
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 999; id++) {
+            rows.add(user(id, "user" + id, "user" + id + "@example.com"));
+        }
+        build(rows.toArray(new Object[0][]));
+
+        // When：查詢不存在的值，誤判時才會呼叫資料庫檢查
+        int[] databaseChecks = {0};
+        for (int i = 0; i < 10000; i++) {
+            availabilityFilterService.isUsernameAvailable("someone" + i, value -> {
+                databaseChecks[0]++;
+                return false;
+            });
+        }
+
+        // Then：已存在的值一定交由資料庫判定，誤判次數低於目標
+        for (long id = 1; id <= 999; id++) {
+            assertThat(availabilityFilterService.isUsernameAvailable("user" + id, value -> true)).isFalse();
+        }
+        assertThat(databaseChecks[0]).isLessThan(100);
+        assertThat(meterRegistry.get("availability.filter.bits").tags("type", "username").gauge().value())
+                .isGreaterThan(0);
+        assertThat(meterRegistry.get("availability.filter.false.positive.rate")
+                .tags("type", "username", "kind", "expected").gauge().value()).isLessThan(0.01);
+    }
+
+    private void build(Object[]... rows) {
+        when(userRepository.count()).thenReturn((long) rows.length);
+        when(userRepository.findUsernameAndEmailBatch(eq(0L), any(Pageable.class))).thenReturn(List.of(rows));
+        availabilityFilterService.afterSingletonsInstantiated();
+    }
+
+    private static Object[] user(Long id, String username, String email) {
+        return new Object[]{id, username, email};
+    }
+}
@@ -0,0 +1,206 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * CommentCountService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class CommentCountServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CommentCountService commentCountService;
+
+    @BeforeEach
+    void setUp() {
+        commentCountService = new CommentCountService(postRepository, entityCacheService, transactionManager);
+    }
+
+    @Test
+    void testPendingDeltaAccumulates() {
+        // When
+        commentCountService.recordCommentCreated(1L);
+        commentCountService.recordCommentCreated(1L);
+        commentCountService.recordCommentDeleted(1L);
+        commentCountService.recordCommentCreated(2L);
+
+        // Then
+        assertThat(commentCountService.pendingDelta(1L)).isEqualTo(1L);
+        assertThat(commentCountService.pendingDelta(2L)).isEqualTo(1L);
+        assertThat(commentCountService.currentCount(1L, 10L)).isEqualTo(11L);
+    }
+
+    @Test
+    void testFlushGroupsPostsByDelta() {
+        // Given
+        commentCountService.recordCommentCreated(1L);
+        commentCountService.recordCommentCreated(2L);
+        commentCountService.recordCommentCreated(3L);
+        commentCountService.recordCommentCreated(3L);
+
+        // When
+        int flushed = commentCountService.flush();
+
+        // Then
+        assertThat(flushed).isEqualTo(3);
+        verify(postRepository).addToCommentCount(
+                argThat((Collection<Long> ids) -> ids.containsAll(List.of(1L, 2L)) && ids.size() == 2), eq(1L));
+        verify(postRepository).addToCommentCount(List.of(3L), 2L);
+        verify(entityCacheService).evictAfterCommit(eq(Post.class),
+                argThat((Collection<Long> ids) -> ids.size() == 3 && ids.containsAll(List.of(1L, 2L, 3L))));
+        assertThat(commentCountService.pendingDelta(3L)).isZero();
+    }
+
+    @Test
+    void testFlushFailureKeepsDeltas() {
+        // Given
+        commentCountService.recordCommentCreated(1L);
+        when(postRepository.addToCommentCount(anyCollection(), anyLong()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        // When
+        int flushed = commentCountService.flush();
+
+        // Then
+        assertThat(flushed).isZero();
+        assertThat(commentCountService.pendingDelta(1L)).isEqualTo(1L);
+    }
+
+    @Test
+    void testFlushStopsCountingDeltaOnceCommitted() {
+        // Given：交易提交後、寫回方法返回前讀取增減量
+        AtomicLong pendingAfterCommit = new AtomicLong(-1L);
+        commentCountService = new CommentCountService(postRepository, entityCacheService,
+                new AbstractPlatformTransactionManager() {
+                    @Override
+                    protected Object doGetTransaction() {
+                        return new Object();
+                    }
+
+                    @Override
+                    protected void doBegin(Object transaction, TransactionDefinition definition) {
+                    }
+
+                    @Override
+                    protected void doCommit(DefaultTransactionStatus status) {
+                    }
+
+                    @Override
+                    protected void doRollback(DefaultTransactionStatus status) {
+                    }
+
+                    @Override
+                    protected void doCleanupAfterCompletion(Object transaction) {
+                        pendingAfterCommit.set(commentCountService.pendingDelta(1L));
+                    }
+                });
+        commentCountService.recordCommentCreated(1L);
+
+        // When
+        commentCountService.flush();
+
+        // Then：資料庫欄位已含這筆增減量，不應再重複計入
+        assertThat(pendingAfterCommit.get()).isZero();
+        verify(postRepository).addToCommentCount(List.of(1L), 1L);
+    }
+
+    @Test
+    void testDiscardDropsPendingDelta() {
+        // Given
+        commentCountService.recordCommentCreated(1L);
+
+        // When
+        commentCountService.discard(1L);
+
+        // Then
+        assertThat(commentCountService.pendingDelta(1L)).isZero();
+        assertThat(commentCountService.flush()).isZero();
+    }
+
+    @Test
+    void testReconcileDiscardsDeltasOfCountedComments() {
+        // Given
+        commentCountService.recordCommentCreated(1L);
+        // 校正開始後、UPDATE 執行前另一則留言提交
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            commentCountService.recordCommentCreated(1L);
+            return null;
+        });
+        when(postRepository.reconcileCommentCounts()).thenAnswer(invocation -> {
+            assertThat(commentCountService.pendingDelta(1L)).isEqualTo(2L);
+            return 1;
+        });
+
+        // When
+        int fixed = commentCountService.reconcile();
+
+        // Then
+        assertThat(fixed).isEqualTo(1);
+        assertThat(commentCountService.pendingDelta(1L)).isZero();
+        assertThat(commentCountService.flush()).isZero();
+        verify(postRepository, never()).addToCommentCount(anyCollection(), anyLong());
+    }
+
+    @Test
+    void testReconcileFailureKeepsDeltas() {
+        // Given
+        commentCountService.recordCommentCreated(1L);
+        when(postRepository.reconcileCommentCounts()).thenThrow(new IllegalStateException("db down"));
+
+        // When
+        int fixed = commentCountService.reconcile();
+
+        // Then
+        assertThat(fixed).isZero();
+        assertThat(commentCountService.pendingDelta(1L)).isEqualTo(1L);
+    }
+
+    @Test
+    void testConcurrentUpdatesAreNotLost() throws Exception {
+        // Given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int i = 0; i < 8000; i++) {
+            executor.execute(() -> commentCountService.recordCommentCreated(1L));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        assertThat(commentCountService.pendingDelta(1L)).isEqualTo(8000L);
+    }
+}
@@ -8,15 +8,25 @@ import com.esun.socialmedia.entity.User;
 import com.esun.socialmedia.repository.CommentRepository;
 import com.esun.socialmedia.repository.PostRepository;
 import com.esun.socialmedia.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,6 +48,24 @@ class CommentServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CommentCountService commentCountService;
+
+    @Mock
+    private PostRankingService postRankingService;
+
+    @Mock
+    private LatestContentService latestContentService;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private ResponseCacheService responseCacheService;
+
     @InjectMocks
     private CommentService commentService;
 
@@ -81,6 +109,10 @@ class CommentServiceTest {
         assertThat(result.getAuthor().getUsername()).isEqualTo("testuser");
         assertThat(result.getPostId()).isEqualTo(1L);
         verify(commentRepository).save(any(Comment.class));
+        verify(commentCountService).recordCommentCreated(1L);
+        verify(postRankingService).onCommentCreated(eq(1L), any(), any());
+        verify(latestContentService).onCommentCreated(result);
+        verify(searchIndexService).onCommentCreated(1L, "測試留言內容");
     }
 
     @Test
@@ -148,6 +180,31 @@ class CommentServiceTest {
         assertThat(result.get(0).getContent()).isEqualTo("測試留言內容");
     }
 
+    @Test
+    void testStreamCommentsByPostId_WritesOneLinePerRow() throws IOException {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(commentRepository.streamThreadRows(1L)).thenReturn(Stream.of(
+                new Object[] {1L, "第一則", createdAt, 1L, "testuser", "test@example.com", null, null, createdAt, createdAt},
+                new Object[] {2L, "第二則", createdAt, 2L, "other", "other@example.com", null, null, createdAt, createdAt}));
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long count = commentService.streamCommentsByPostId(1L, new JsonLinesWriter(objectMapper, out));
+
+        // Then
+        assertThat(count).isEqualTo(2);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        CommentResponse first = objectMapper.readValue(lines[0], CommentResponse.class);
+        assertThat(first.getContent()).isEqualTo("第一則");
+        assertThat(first.getPostId()).isEqualTo(1L);
+        assertThat(first.getAuthor().getUsername()).isEqualTo("testuser");
+        verify(commentRepository, never()).findByPostIdOrderByCreatedAtAsc(1L);
+    }
+
     @Test
     void testDeleteComment_Success_CommentAuthor() {
         // Given
@@ -158,6 +215,10 @@ class CommentServiceTest {
 
         // Then
         verify(commentRepository).delete(testComment);
+        verify(commentCountService).recordCommentDeleted(1L);
+        verify(postRankingService).onCommentDeleted(eq(1L), any());
+        verify(latestContentService).onCommentDeleted(1L, 1L);
+        verify(searchIndexService).onCommentDeleted(1L);
     }
 
     @Test
@@ -230,6 +291,35 @@ class CommentServiceTest {
         assertThat(result).isEqualTo(10L);
     }
 
+    @Test
+    void testSearchComments_RankedByIndex() {
+        // Given
+        when(searchIndexService.searchComments("測試", 0, 10)).thenReturn(new SearchHits(List.of(1L), 1L));
+        when(commentRepository.findAllWithAuthorByIdIn(List.of(1L))).thenReturn(List.of(testComment));
+
+        // When
+        Page<CommentResponse> result = commentService.searchComments("測試", 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting(CommentResponse::getId).containsExactly(1L);
+        assertThat(result.getTotalElements()).isEqualTo(1L);
+        verify(commentRepository, never()).findByContentContaining(any(), any());
+    }
+
+    @Test
+    void testSearchComments_FallsBackToDatabase() {
+        // Given：索引尚未就緒
+        when(searchIndexService.searchComments("測試", 0, 10)).thenReturn(null);
+        when(commentRepository.findByContentContaining(eq("測試"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(testComment)));
+
+        // When
+        Page<CommentResponse> result = commentService.searchComments("測試", 0, 10);
+
+        // Then
+        assertThat(result.getContent()).hasSize(1);
+    }
+
     @Test
     void testIsCommentAuthor() {
         // Given
@@ -0,0 +1,207 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.export.DataExportStatus;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.CommentRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * DataExportService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class DataExportServiceTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path exportDir;
+
+    private ObjectMapper objectMapper;
+    private DataExportService dataExportService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        dataExportService = new DataExportService(userRepository, postRepository, commentRepository,
+                objectMapper, new SimpleMeterRegistry(), transactionManager);
+        ReflectionTestUtils.setField(dataExportService, "exportDir", exportDir.toString());
+        ReflectionTestUtils.setField(dataExportService, "recordsPerSecond", 0);
+        dataExportService.init();
+
+        user = new User("testuser", "test@example.com", "hashedpassword");
+        user.setId(1L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataExportService.shutdown();
+    }
+
+    @Test
+    void testExport_WritesProfilePostsAndComments() throws Exception {
+        // Given
+        stubUser(1, 1);
+        when(postRepository.streamExportRows(1L)).thenReturn(Stream.<Object[]>of(
+                new Object[] {10L, "我的發文", null, 1L, CREATED_AT, CREATED_AT}));
+        when(commentRepository.streamExportRows(1L)).thenReturn(Stream.<Object[]>of(
+                new Object[] {20L, 99L, "我的留言", CREATED_AT}));
+
+        // When
+        dataExportService.requestExport(1L);
+        DataExportStatus status = awaitFinished(1L);
+
+        // Then
+        assertThat(status.getState()).isEqualTo(DataExportStatus.State.COMPLETED);
+        assertThat(status.getExportedRecords()).isEqualTo(3);
+        assertThat(status.getProgressPercent()).isEqualTo(100);
+        List<JsonNode> lines = readExport(1L);
+        assertThat(lines).extracting(line -> line.get("type").asText())
+                .containsExactly("profile", "post", "comment");
+        assertThat(lines.get(0).get("data").get("username").asText()).isEqualTo("testuser");
+        assertThat(lines.get(0).get("data").get("post_count").asLong()).isEqualTo(1);
+        assertThat(lines.get(1).get("data").get("content").asText()).isEqualTo("我的發文");
+        assertThat(lines.get(1).get("data").has("author")).isFalse();
+        assertThat(lines.get(2).get("data").get("post_id").asLong()).isEqualTo(99);
+    }
+
+    @Test
+    void testRequestExport_ReturnsActiveJob() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(user);
+        });
+        when(postRepository.countByAuthorId(1L)).thenReturn(0L);
+        when(commentRepository.countByAuthorId(1L)).thenReturn(0L);
+        when(postRepository.streamExportRows(1L)).thenReturn(Stream.empty());
+        when(commentRepository.streamExportRows(1L)).thenReturn(Stream.empty());
+
+        // When
+        DataExportStatus first = dataExportService.requestExport(1L);
+        DataExportStatus second = dataExportService.requestExport(1L);
+        release.countDown();
+
+        // Then
+        assertThat(second.getRequestedAt()).isEqualTo(first.getRequestedAt());
+        assertThat(awaitFinished(1L).getState()).isEqualTo(DataExportStatus.State.COMPLETED);
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testExport_FailureLeavesNoFile() throws Exception {
+        // Given
+        stubUser(1, 0);
+        when(postRepository.streamExportRows(1L)).thenThrow(new IllegalStateException("連線中斷"));
+
+        // When
+        dataExportService.requestExport(1L);
+        DataExportStatus status = awaitFinished(1L);
+
+        // Then
+        assertThat(status.getState()).isEqualTo(DataExportStatus.State.FAILED);
+        assertThat(dataExportService.getExportFile(1L)).isEmpty();
+        try (Stream<Path> files = Files.list(exportDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void testExport_ThrottledToRecordsPerSecond() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(dataExportService, "recordsPerSecond", 1000);
+        stubUser(0, 299);
+        when(postRepository.streamExportRows(1L)).thenReturn(Stream.empty());
+        when(commentRepository.streamExportRows(1L)).thenReturn(IntStream.range(0, 299)
+                .mapToObj(i -> new Object[] {(long) i, 1L, "留言", CREATED_AT}));
+
+        // When
+        long started = System.nanoTime();
+        dataExportService.requestExport(1L);
+        DataExportStatus status = awaitFinished(1L);
+
+        // Then
+        assertThat(status.getExportedRecords()).isEqualTo(300);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isGreaterThanOrEqualTo(290);
+    }
+
+    private void stubUser(long postCount, long commentCount) {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(postRepository.countByAuthorId(1L)).thenReturn(postCount);
+        when(commentRepository.countByAuthorId(1L)).thenReturn(commentCount);
+    }
+
+    private DataExportStatus awaitFinished(Long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        DataExportStatus status = dataExportService.getStatus(userId).orElseThrow();
+        while (!status.getState().equals(DataExportStatus.State.COMPLETED)
+                && !status.getState().equals(DataExportStatus.State.FAILED)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = dataExportService.getStatus(userId).orElseThrow();
+        }
+        return status;
+    }
+
+    private List<JsonNode> readExport(Long userId) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        Path file = dataExportService.getExportFile(userId).orElseThrow();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+}
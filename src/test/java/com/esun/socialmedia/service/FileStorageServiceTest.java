@@ -0,0 +1,120 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.upload.ImageUploadResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * FileStorageService 測試類別
+ */
+class FileStorageServiceTest {
+
+    private static final byte[] PNG_HEADER = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService fileStorageService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new FileStorageService();
+        ReflectionTestUtils.setField(fileStorageService, "uploadDir", tempDir.toString());
+        ReflectionTestUtils.setField(fileStorageService, "maxSize", 200000L);
+        fileStorageService.init();
+    }
+
+    @Test
+    void testStoreImage_ContentAddressed() throws Exception {
+        // Given：超過一個區塊的 PNG
+        byte[] content = image(PNG_HEADER, 100000);
+
+        // When
+        ImageUploadResponse response = fileStorageService.storeImage(new ByteArrayInputStream(content), "/api");
+
+        // Then
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        assertThat(response.getSha256()).isEqualTo(hash);
+        assertThat(response.getUrl()).isEqualTo("/api/uploads/" + hash.substring(0, 2) + "/" + hash + ".png");
+        assertThat(response.getSize()).isEqualTo(content.length);
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(Files.readAllBytes(tempDir.resolve(hash.substring(0, 2)).resolve(hash + ".png")))
+                .isEqualTo(content);
+    }
+
+    @Test
+    void testStoreImage_DuplicateContentStoredOnce() throws Exception {
+        // Given
+        byte[] content = image(new byte[] {'G', 'I', 'F', '8', '7', 'a'}, 1000);
+
+        // When
+        ImageUploadResponse first = fileStorageService.storeImage(new ByteArrayInputStream(content), "");
+        ImageUploadResponse second = fileStorageService.storeImage(new ByteArrayInputStream(content), "");
+
+        // Then
+        assertThat(second.getUrl()).isEqualTo(first.getUrl());
+        assertThat(first.getUrl()).endsWith(".gif");
+        assertThat(countFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void testStoreImage_RejectsUnknownType() throws Exception {
+        // Given：副檔名或 Content-Type 不影響判定
+        byte[] content = "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+
+        // When & Then
+        assertThatThrownBy(() -> fileStorageService.storeImage(new ByteArrayInputStream(content), ""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("不支援的檔案格式");
+        assertThat(countFiles()).isZero();
+    }
+
+    @Test
+    void testStoreImage_RejectsEmptyFile() {
+        // When & Then
+        assertThatThrownBy(() -> fileStorageService.storeImage(new ByteArrayInputStream(new byte[0]), ""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("檔案不能為空");
+    }
+
+    @Test
+    void testStoreImage_RejectsOversizedFileWithoutLeavingTempFile() throws Exception {
+        // Given
+        byte[] content = image(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}, 300000);
+
+        // When & Then
+        assertThatThrownBy(() -> fileStorageService.storeImage(new ByteArrayInputStream(content), ""))
+                .isInstanceOf(MaxUploadSizeExceededException.class);
+        assertThat(countFiles()).isZero();
+    }
+
+    private static byte[] image(byte[] header, int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+        System.arraycopy(header, 0, content, 0, header.length);
+        return content;
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
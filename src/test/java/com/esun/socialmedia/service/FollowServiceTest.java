@@ -0,0 +1,139 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.entity.Follow;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.FollowRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * FollowService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class FollowServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private EntityCacheService entityCacheService;
+
+    @InjectMocks
+    private FollowService followService;
+
+    private User follower;
+    private User followee;
+
+    @BeforeEach
+    void setUp() {
+        follower = new User();
+        follower.setId(1L);
+        follower.setUsername("follower");
+
+        followee = new User();
+        followee.setId(2L);
+        followee.setUsername("followee");
+    }
+
+    @Test
+    void testFollow_Success() {
+        // Given
+        when(userRepository.findById(2L)).thenReturn(Optional.of(followee));
+        when(followRepository.existsByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(false);
+        when(userRepository.getReferenceById(1L)).thenReturn(follower);
+
+        // When
+        followService.follow(1L, 2L);
+
+        // Then
+        verify(followRepository).save(any(Follow.class));
+        verify(userRepository).addToFollowerCount(2L, 1L);
+        verify(entityCacheService).evictAfterCommit(User.class, 2L);
+        verify(timelineService).invalidate(1L);
+    }
+
+    @Test
+    void testFollow_Self() {
+        // When & Then
+        assertThatThrownBy(() -> followService.follow(1L, 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("不能追蹤自己");
+        verifyNoInteractions(followRepository);
+    }
+
+    @Test
+    void testFollow_AlreadyFollowing() {
+        // Given
+        when(userRepository.findById(2L)).thenReturn(Optional.of(followee));
+        when(followRepository.existsByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(true);
+
+        // When & Then
+        assertThatThrownBy(() -> followService.follow(1L, 2L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("已經追蹤此使用者");
+        verify(followRepository, never()).save(any(Follow.class));
+    }
+
+    @Test
+    void testFollow_ConcurrentDuplicate() {
+        // Given：檢查通過後，並行的相同追蹤先寫入
+        when(userRepository.findById(2L)).thenReturn(Optional.of(followee));
+        when(followRepository.existsByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(false);
+        when(userRepository.getReferenceById(1L)).thenReturn(follower);
+        when(followRepository.save(any(Follow.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_follows_follower_followee"));
+
+        // When & Then
+        assertThatThrownBy(() -> followService.follow(1L, 2L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("已經追蹤此使用者");
+        verify(userRepository, never()).addToFollowerCount(anyLong(), anyLong());
+        verify(timelineService, never()).invalidate(anyLong());
+    }
+
+    @Test
+    void testUnfollow_Success() {
+        // Given
+        Follow follow = new Follow(follower, followee);
+        when(followRepository.findByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(Optional.of(follow));
+
+        // When
+        followService.unfollow(1L, 2L);
+
+        // Then
+        verify(followRepository).delete(follow);
+        verify(userRepository).addToFollowerCount(2L, -1L);
+        verify(entityCacheService).evictAfterCommit(User.class, 2L);
+        verify(timelineService).onFollowerCountDecreased(2L, 0L);
+        verify(timelineService).invalidate(1L);
+    }
+
+    @Test
+    void testUnfollow_NotFollowing() {
+        // Given
+        when(followRepository.findByFollowerIdAndFolloweeId(1L, 2L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> followService.unfollow(1L, 2L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("尚未追蹤此使用者");
+    }
+}
@@ -0,0 +1,136 @@
+package com.esun.socialmedia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ImageVariantService 測試類別
+ */
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService fileStorageService;
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void setUp() {
+        fileStorageService = new FileStorageService();
+        ReflectionTestUtils.setField(fileStorageService, "uploadDir", tempDir.toString());
+        fileStorageService.init();
+        imageVariantService = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void testProcess_CreatesVariantsNarrowerThanOriginal() throws Exception {
+        // Given：寬 1000 的 PNG，只有 320 與 640 小於原圖
+        String url = store(image(1000, 500), "png");
+        String hash = hashOf(url);
+
+        // When
+        imageVariantService.process(hash, "png");
+
+        // Then
+        Map<Integer, String> variants = imageVariantService.variants(url);
+        assertThat(variants).containsOnlyKeys(320, 640);
+        assertThat(variants.get(320)).isEqualTo("/api/uploads/" + hash.substring(0, 2) + "/" + hash + "_w320.png");
+        BufferedImage small = ImageIO.read(tempDir.resolve(hash.substring(0, 2)).resolve(hash + "_w320.png").toFile());
+        assertThat(small.getWidth()).isEqualTo(320);
+        assertThat(small.getHeight()).isEqualTo(160);
+        assertThat(tempDir.resolve(".jobs").toFile().list()).isEmpty();
+    }
+
+    @Test
+    void testProcess_SmallImageHasNoVariants() throws Exception {
+        // Given
+        String url = store(image(200, 100), "jpg");
+
+        // When
+        imageVariantService.process(hashOf(url), "jpg");
+
+        // Then
+        assertThat(imageVariantService.variants(url)).isEmpty();
+    }
+
+    @Test
+    void testVariants_PendingJobIsNotExposed() throws Exception {
+        // Given：工作已排入佇列但尚未完成
+        String url = store(image(1000, 500), "png");
+        Files.createFile(tempDir.resolve(".jobs").resolve(hashOf(url) + ".png"));
+
+        // When & Then
+        assertThat(imageVariantService.variants(url)).isEmpty();
+        assertThat(imageVariantService.variants("https://example.com/a.png")).isEmpty();
+        assertThat(imageVariantService.variants(null)).isEmpty();
+    }
+
+    @Test
+    void testPendingJobsResumeAfterRestart() throws Exception {
+        // Given：重新啟動前留下的工作標記
+        String url = store(image(800, 800), "jpg");
+        String hash = hashOf(url);
+        imageVariantService.shutdown();
+        Files.createFile(tempDir.resolve(".jobs").resolve(hash + ".jpg"));
+
+        // When
+        imageVariantService = open();
+
+        // Then
+        Path variant = tempDir.resolve(hash.substring(0, 2)).resolve(hash + "_w640.jpg");
+        for (int i = 0; i < 100 && Files.exists(tempDir.resolve(".jobs").resolve(hash + ".jpg")); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(variant).exists();
+        assertThat(imageVariantService.variants(url)).containsOnlyKeys(320, 640);
+    }
+
+    private ImageVariantService open() {
+        ImageVariantService service = new ImageVariantService(fileStorageService, new SimpleMeterRegistry());
+        service.init();
+        return service;
+    }
+
+    private String store(BufferedImage image, String format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg".equals(format) ? "jpeg" : format, out);
+        return fileStorageService.storeImage(new ByteArrayInputStream(out.toByteArray()), "/api").getUrl();
+    }
+
+    private static String hashOf(String url) {
+        String name = url.substring(url.lastIndexOf('/') + 1);
+        return name.substring(0, name.indexOf('.'));
+    }
+
+    private static BufferedImage image(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,77 @@
+package com.esun.socialmedia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JsonLinesWriter 測試類別
+ */
+class JsonLinesWriterTest {
+
+    @Test
+    void testWrite_OneLinePerValue() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonLinesWriter writer = new JsonLinesWriter(new ObjectMapper(), out);
+
+        // When
+        writer.write(Map.of("id", 1));
+        writer.write(Map.of("id", 2));
+        writer.flush();
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+        assertThat(writer.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testWrite_BuffersUntilFlush() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonLinesWriter writer = new JsonLinesWriter(new ObjectMapper(), out);
+
+        // When
+        writer.write(Map.of("id", 1));
+
+        // Then
+        assertThat(out.size()).isZero();
+        writer.close();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n");
+    }
+
+    @Test
+    void testWrite_UsesMapperSettings() throws IOException {
+        // Given
+        ObjectMapper objectMapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        try (JsonLinesWriter writer = new JsonLinesWriter(objectMapper, out)) {
+            writer.write(new Line("留言"));
+        }
+
+        // Then
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"line_text\":\"留言\"}\n");
+    }
+
+    static class Line {
+        private final String lineText;
+
+        Line(String lineText) {
+            this.lineText = lineText;
+        }
+
+        public String getLineText() {
+            return lineText;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.comment.CommentResponse;
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.entity.Comment;
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.CommentRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * LatestContentService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class LatestContentServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private CommentCountService commentCountService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LatestContentService latestContentService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        latestContentService = new LatestContentService(
+                postRepository, commentRepository, commentCountService, transactionManager, 128);
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+    }
+
+    @Test
+    void testNotReadyFallsBackToDatabase() {
+        // When & Then
+        assertThat(latestContentService.latestPosts(5)).isNull();
+        assertThat(latestContentService.latestComments(5)).isNull();
+    }
+
+    @Test
+    void testSeededBufferServesNewestFirst() {
+        // Given：資料庫回傳由新到舊
+        when(postRepository.findLatestPosts(128)).thenReturn(List.of(post(2L), post(1L)));
+        when(commentRepository.findLatestComments(128)).thenReturn(List.of(comment(1L, 1L)));
+        when(commentCountService.currentCount(anyLong(), anyLong())).thenReturn(0L);
+        latestContentService.afterSingletonsInstantiated();
+
+        // When
+        latestContentService.onPostCreated(PostResponse.fromWithCommentCount(post(3L), 0L));
+
+        // Then：資料量少於容量，數量不足時仍可直接回覆
+        assertThat(latestContentService.latestPosts(10)).extracting(PostResponse::getId).containsExactly(3L, 2L, 1L);
+        assertThat(latestContentService.latestComments(10)).extracting(CommentResponse::getId).containsExactly(1L);
+    }
+
+    @Test
+    void testUpdateDeleteAndCommentCount() {
+        // Given
+        seedEmpty();
+        latestContentService.onPostCreated(PostResponse.fromWithCommentCount(post(1L), 0L));
+        latestContentService.onPostCreated(PostResponse.fromWithCommentCount(post(2L), 0L));
+
+        // When
+        CommentResponse comment = CommentResponse.from(comment(10L, 1L));
+        latestContentService.onCommentCreated(comment);
+        PostResponse updated = PostResponse.fromWithCommentCount(post(2L), 0L);
+        updated.setContent("已編輯");
+        latestContentService.onPostUpdated(updated);
+
+        // Then
+        List<PostResponse> latest = latestContentService.latestPosts(10);
+        assertThat(latest.get(0).getContent()).isEqualTo("已編輯");
+        assertThat(latest.get(1).getCommentCount()).isEqualTo(1L);
+
+        // When：刪除發文同時移除其留言
+        latestContentService.onPostDeleted(1L);
+
+        // Then
+        assertThat(latestContentService.latestPosts(10)).extracting(PostResponse::getId).containsExactly(2L);
+        assertThat(latestContentService.latestComments(10)).isEmpty();
+    }
+
+    @Test
+    void testAuthorUpdateReplacesEmbeddedAuthor() {
+        // Given
+        seedEmpty();
+        latestContentService.onPostCreated(PostResponse.fromWithCommentCount(post(1L), 0L));
+        latestContentService.onCommentCreated(CommentResponse.from(comment(10L, 1L)));
+
+        // When
+        testUser.setUsername("renamed");
+        testUser.setCoverImage("/uploads/cover.png");
+        latestContentService.onAuthorUpdated(UserResponse.from(testUser));
+
+        // Then
+        PostResponse post = latestContentService.latestPosts(10).get(0);
+        assertThat(post.getAuthor().getUsername()).isEqualTo("renamed");
+        assertThat(post.getAuthor().getCoverImage()).isEqualTo("/uploads/cover.png");
+        assertThat(post.getCommentCount()).isEqualTo(1L);
+        assertThat(latestContentService.latestComments(10).get(0).getAuthor().getUsername()).isEqualTo("renamed");
+    }
+
+    @Test
+    void testWrappedBufferWithDeletionsFallsBack() {
+        // Given：已覆寫出緩衝區，再刪除一筆後數量不足
+        seedEmpty();
+        for (long id = 1; id <= 130; id++) {
+            latestContentService.onPostCreated(PostResponse.fromWithCommentCount(post(id), 0L));
+        }
+        latestContentService.onPostDeleted(130L);
+
+        // When & Then
+        assertThat(latestContentService.latestPosts(100)).hasSize(100);
+        assertThat(latestContentService.latestPosts(100).get(0).getId()).isEqualTo(129L);
+        assertThat(latestContentService.latestPosts(128)).isNull();
+    }
+
+    @Test
+    void testConcurrentAppendsKeepOrderAndCapacity() throws Exception {
+        // Given
+        seedEmpty();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        for (long id = 1; id <= 10000; id++) {
+            long postId = id;
+            executor.execute(() -> latestContentService.onPostCreated(PostResponse.fromWithCommentCount(post(postId), 0L)));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Then
+        List<PostResponse> latest = latestContentService.latestPosts(100);
+        assertThat(latest).hasSize(100);
+        List<Long> ids = new ArrayList<>();
+        latest.forEach(p -> ids.add(p.getId()));
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+
+    private void seedEmpty() {
+        when(postRepository.findLatestPosts(anyInt())).thenReturn(List.of());
+        when(commentRepository.findLatestComments(anyInt())).thenReturn(List.of());
+        latestContentService.afterSingletonsInstantiated();
+    }
+
+    private Post post(Long id) {
+        Post post = new Post();
+        post.setId(id);
+        post.setContent("發文 " + id);
+        post.setAuthor(testUser);
+        post.setCreatedAt(LocalDateTime.now());
+        return post;
+    }
+
+    private Comment comment(Long id, Long postId) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("留言 " + id);
+        comment.setAuthor(testUser);
+        comment.setPost(post(postId));
+        comment.setCreatedAt(LocalDateTime.now());
+        return comment;
+    }
+}
@@ -0,0 +1,209 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.post.PostResponse;
+import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.entity.Post;
+import com.esun.socialmedia.entity.User;
+import com.esun.socialmedia.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * PostRankingService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class PostRankingServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentCountService commentCountService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path tempDir;
+
+    private PostRankingService postRankingService;
+
+    private User testUser;
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        postRankingService = new PostRankingService(postRepository, commentCountService, transactionManager);
+        ReflectionTestUtils.setField(postRankingService, "snapshotFile", tempDir.resolve("ranking.snapshot").toString());
+
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setUsername("testuser");
+        now = LocalDateTime.now();
+    }
+
+    @Test
+    void testCommentsRaiseRankAndUpdateCount() {
+        // Given
+        postRankingService.onPostCreated(response(1L, now.minusHours(1)));
+        postRankingService.onPostCreated(response(2L, now));
+
+        // When
+        postRankingService.onCommentCreated(1L, now, () -> null);
+        postRankingService.onCommentCreated(1L, now, () -> null);
+
+        // Then
+        List<PostResponse> top = postRankingService.getTopPosts(0, 10).getContent();
+        assertThat(top).extracting(PostResponse::getId).containsExactly(1L, 2L);
+        assertThat(top.get(0).getCommentCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void testOlderActivityDecays() {
+        // Given：較舊的發文有兩則一天前的留言，新發文只有一則剛剛的留言
+        postRankingService.onPostCreated(response(1L, now.minusDays(1)));
+        postRankingService.onCommentCreated(1L, now.minusDays(1), () -> null);
+        postRankingService.onCommentCreated(1L, now.minusDays(1), () -> null);
+        postRankingService.onPostCreated(response(2L, now));
+
+        // When
+        postRankingService.onCommentCreated(2L, now, () -> null);
+
+        // Then
+        assertThat(postRankingService.getTopPosts(0, 10).getContent())
+                .extracting(PostResponse::getId).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testCommentDeletedRemovesContribution() {
+        // Given
+        postRankingService.onPostCreated(response(1L, now));
+        postRankingService.onPostCreated(response(2L, now));
+        postRankingService.onCommentCreated(1L, now, () -> null);
+
+        // When
+        postRankingService.onCommentDeleted(1L, now);
+
+        // Then
+        List<PostResponse> top = postRankingService.getTopPosts(0, 10).getContent();
+        assertThat(top).extracting(PostResponse::getId).containsExactly(2L, 1L);
+        assertThat(top.get(1).getCommentCount()).isZero();
+    }
+
+    @Test
+    void testCapacityEvictsLowestScore() {
+        // Given
+        ReflectionTestUtils.setField(postRankingService, "capacity", 2);
+
+        // When
+        postRankingService.onPostCreated(response(1L, now.minusDays(2)));
+        postRankingService.onPostCreated(response(2L, now.minusDays(1)));
+        postRankingService.onPostCreated(response(3L, now));
+
+        // Then
+        assertThat(postRankingService.size()).isEqualTo(2);
+        assertThat(postRankingService.isTracked(1L)).isFalse();
+        Page<PostResponse> page = postRankingService.getTopPosts(0, 1);
+        assertThat(page.getTotalElements()).isEqualTo(2L);
+        assertThat(page.getContent()).extracting(PostResponse::getId).containsExactly(3L);
+    }
+
+    @Test
+    void testUntrackedPostJoinsRankingOnComment() {
+        // When
+        postRankingService.onCommentCreated(5L, now, () -> response(5L, now.minusHours(2)));
+
+        // Then
+        assertThat(postRankingService.isTracked(5L)).isTrue();
+        assertThat(postRankingService.getTopPosts(0, 10).getContent().get(0).getCommentCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void testPostDeletedIsRemoved() {
+        // Given
+        postRankingService.onPostCreated(response(1L, now));
+
+        // When
+        postRankingService.onPostDeleted(1L);
+
+        // Then
+        assertThat(postRankingService.getTopPosts(0, 10).getContent()).isEmpty();
+    }
+
+    @Test
+    void testAuthorUpdateReplacesEmbeddedAuthor() {
+        // Given
+        User otherUser = new User();
+        otherUser.setId(2L);
+        otherUser.setUsername("otheruser");
+        postRankingService.onPostCreated(response(1L, now));
+        postRankingService.onPostCreated(PostResponse.fromWithCommentCount(post(2L, now, 0L), 0L)
+                .withAuthor(UserResponse.from(otherUser)));
+        postRankingService.onCommentCreated(1L, now, () -> null);
+        postRankingService.getTopPosts(0, 10);
+
+        // When
+        testUser.setUsername("renamed");
+        postRankingService.onAuthorUpdated(UserResponse.from(testUser));
+
+        // Then
+        List<PostResponse> top = postRankingService.getTopPosts(0, 10).getContent();
+        assertThat(top).extracting(post -> post.getAuthor().getUsername()).containsExactly("renamed", "otheruser");
+        assertThat(top.get(0).getCommentCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void testSnapshotRestoresOrder() {
+        // Given
+        postRankingService.onPostCreated(response(1L, now));
+        postRankingService.onPostCreated(response(2L, now));
+        postRankingService.onCommentCreated(1L, now, () -> null);
+        postRankingService.saveSnapshot();
+
+        PostRankingService restarted = new PostRankingService(postRepository, commentCountService, transactionManager);
+        ReflectionTestUtils.setField(restarted, "snapshotFile", tempDir.resolve("ranking.snapshot").toString());
+        when(postRepository.findAllWithAuthorByIdIn(anyCollection()))
+                .thenReturn(List.of(post(2L, now, 0L), post(1L, now, 1L)));
+        when(commentCountService.currentCount(anyLong(), anyLong()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+
+        // When
+        restarted.warmUp();
+
+        // Then
+        verify(postRepository, never()).findPopularPosts(any());
+        List<PostResponse> top = restarted.getTopPosts(0, 10).getContent();
+        assertThat(top).extracting(PostResponse::getId).containsExactly(1L, 2L);
+        assertThat(top.get(0).getCommentCount()).isEqualTo(1L);
+    }
+
+    private PostResponse response(Long id, LocalDateTime createdAt) {
+        return PostResponse.fromWithCommentCount(post(id, createdAt, 0L), 0L);
+    }
+
+    private Post post(Long id, LocalDateTime createdAt, long commentCount) {
+        Post post = new Post();
+        post.setId(id);
+        post.setContent("發文 " + id);
+        post.setAuthor(testUser);
+        post.setCreatedAt(createdAt);
+        post.setCommentCount(commentCount);
+        return post;
+    }
+}
@@ -1,11 +1,13 @@
 package com.esun.socialmedia.service;
 
+import com.esun.socialmedia.dto.common.CursorPage;
+import com.esun.socialmedia.dto.common.PageCursor;
 import com.esun.socialmedia.dto.post.CreatePostRequest;
 import com.esun.socialmedia.dto.post.PostResponse;
 import com.esun.socialmedia.dto.post.UpdatePostRequest;
+import com.esun.socialmedia.entity.Comment;
 import com.esun.socialmedia.entity.Post;
 import com.esun.socialmedia.entity.User;
-import com.esun.socialmedia.repository.CommentRepository;
 import com.esun.socialmedia.repository.PostRepository;
 import com.esun.socialmedia.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +21,7 @@ import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +29,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -41,7 +45,25 @@ class PostServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private CommentRepository commentRepository;
+    private CommentCountService commentCountService;
+
+    @Mock
+    private PostRankingService postRankingService;
+
+    @Mock
+    private TimelineService timelineService;
+
+    @Mock
+    private LatestContentService latestContentService;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private ResponseCacheService responseCacheService;
 
     @InjectMocks
     private PostService postService;
@@ -77,6 +99,10 @@ class PostServiceTest {
         assertThat(result.getContent()).isEqualTo("測試發文內容");
         assertThat(result.getAuthor().getUsername()).isEqualTo("testuser");
         verify(postRepository).save(any(Post.class));
+        verify(postRankingService).onPostCreated(result);
+        verify(latestContentService).onPostCreated(result);
+        verify(timelineService).onPostCreated(1L, 1L, 0L);
+        verify(searchIndexService).onPostSaved(1L, "測試發文內容");
     }
 
     @Test
@@ -94,8 +120,9 @@ class PostServiceTest {
     @Test
     void testGetPostById_Success() {
         // Given
+        testPost.setCommentCount(5L);
         when(postRepository.findByIdWithAuthor(1L)).thenReturn(Optional.of(testPost));
-        when(commentRepository.countByPostId(1L)).thenReturn(5L);
+        when(commentCountService.currentCount(1L, 5L)).thenReturn(5L);
 
         // When
         Optional<PostResponse> result = postService.getPostById(1L);
@@ -125,8 +152,9 @@ class PostServiceTest {
         Page<Post> postPage = new PageImpl<>(posts);
         Pageable pageable = PageRequest.of(0, 10);
         
+        testPost.setCommentCount(3L);
         when(postRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class))).thenReturn(postPage);
-        when(commentRepository.countByPostId(anyLong())).thenReturn(3L);
+        when(commentCountService.currentCount(1L, 3L)).thenReturn(3L);
 
         // When
         Page<PostResponse> result = postService.getAllPosts(0, 10);
@@ -137,13 +165,78 @@ class PostServiceTest {
         assertThat(result.getContent().get(0).getCommentCount()).isEqualTo(3L);
     }
 
+    @Test
+    void testGetAllPosts_IncludesPendingCommentDelta() {
+        // Given：資料庫欄位為 7，另有 2 則留言尚未寫回
+        testPost.setCommentCount(7L);
+        Page<Post> postPage = new PageImpl<>(List.of(testPost));
+
+        when(postRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class))).thenReturn(postPage);
+        when(commentCountService.currentCount(1L, 7L)).thenReturn(9L);
+
+        // When
+        Page<PostResponse> result = postService.getAllPosts(0, 10);
+
+        // Then
+        assertThat(result.getContent().get(0).getCommentCount()).isEqualTo(9L);
+    }
+
+    @Test
+    void testGetAllPostsByCursor() {
+        // Given：多查一筆以判斷是否有下一頁
+        LocalDateTime now = LocalDateTime.of(2024, 1, 20, 10, 0);
+        testPost.setCreatedAt(now);
+        Post olderPost = new Post();
+        olderPost.setId(2L);
+        olderPost.setContent("較舊的發文");
+        olderPost.setAuthor(testUser);
+        olderPost.setCreatedAt(now.minusMinutes(1));
+
+        when(postRepository.findAllByOrderByCreatedAtDescIdDesc(PageRequest.of(0, 2)))
+                .thenReturn(List.of(testPost, olderPost));
+        when(postRepository.findPostsBefore(now, 1L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(olderPost));
+
+        // When
+        CursorPage<PostResponse> first = postService.getAllPostsByCursor("", 1);
+        CursorPage<PostResponse> second = postService.getAllPostsByCursor(first.getNextCursor(), 1);
+
+        // Then
+        assertThat(first.getContent()).extracting(PostResponse::getId).containsExactly(1L);
+        assertThat(first.isHasNext()).isTrue();
+        assertThat(PageCursor.decode(first.getNextCursor()).getId()).isEqualTo(1L);
+        assertThat(second.getContent()).extracting(PostResponse::getId).containsExactly(2L);
+        assertThat(second.isHasNext()).isFalse();
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    void testGetAllPostsByCursor_InvalidCursor() {
+        // When & Then
+        assertThatThrownBy(() -> postService.getAllPostsByCursor("not-a-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("無效的分頁游標");
+    }
+
+    @Test
+    void testGetAllPosts_PageSizeIsCapped() {
+        // Given
+        when(postRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class))).thenReturn(Page.empty());
+
+        // When
+        postService.getAllPosts(0, 100000);
+
+        // Then
+        verify(postRepository).findAllByOrderByCreatedAtDesc(
+                argThat(pageable -> pageable.getPageSize() == CursorPage.MAX_PAGE_SIZE));
+    }
+
     @Test
     void testUpdatePost_Success() {
         // Given
         UpdatePostRequest request = new UpdatePostRequest("更新的內容");
         when(postRepository.findByIdWithAuthor(1L)).thenReturn(Optional.of(testPost));
         when(postRepository.save(any(Post.class))).thenReturn(testPost);
-        when(commentRepository.countByPostId(1L)).thenReturn(2L);
 
         // When
         PostResponse result = postService.updatePost(1L, request, 1L);
@@ -151,6 +244,7 @@ class PostServiceTest {
         // Then
         assertThat(result).isNotNull();
         verify(postRepository).save(any(Post.class));
+        verify(searchIndexService).onPostSaved(1L, "更新的內容");
     }
 
     @Test
@@ -175,6 +269,11 @@ class PostServiceTest {
 
         // Then
         verify(postRepository).delete(testPost);
+        verify(commentCountService).discard(1L);
+        verify(postRankingService).onPostDeleted(1L);
+        verify(timelineService).onPostDeleted(1L, 1L, 0L);
+        verify(latestContentService).onPostDeleted(1L);
+        verify(searchIndexService).onPostDeleted(1L);
     }
 
     @Test
@@ -194,8 +293,9 @@ class PostServiceTest {
         List<Post> posts = List.of(testPost);
         Page<Post> postPage = new PageImpl<>(posts);
         
+        testPost.setCommentCount(4L);
         when(postRepository.findByAuthorIdOrderByCreatedAtDesc(eq(1L), any(Pageable.class))).thenReturn(postPage);
-        when(commentRepository.countByPostId(anyLong())).thenReturn(4L);
+        when(commentCountService.currentCount(1L, 4L)).thenReturn(4L);
 
         // When
         Page<PostResponse> result = postService.getPostsByAuthor(1L, 0, 10);
@@ -212,8 +312,9 @@ class PostServiceTest {
         List<Post> posts = List.of(testPost);
         Page<Post> postPage = new PageImpl<>(posts);
         
+        testPost.setCommentCount(1L);
         when(postRepository.findByContentContaining(eq("測試"), any(Pageable.class))).thenReturn(postPage);
-        when(commentRepository.countByPostId(anyLong())).thenReturn(1L);
+        when(commentCountService.currentCount(1L, 1L)).thenReturn(1L);
 
         // When
         Page<PostResponse> result = postService.searchPosts("測試", 0, 10);
@@ -224,6 +325,25 @@ class PostServiceTest {
         assertThat(result.getContent().get(0).getCommentCount()).isEqualTo(1L);
     }
 
+    @Test
+    void testSearchPosts_RankedByIndex() {
+        // Given：索引依相關度回傳 2、1，資料庫回傳順序不同
+        Post other = new Post();
+        other.setId(2L);
+        other.setContent("測試測試");
+        other.setAuthor(testUser);
+        when(searchIndexService.searchPosts("測試", 0, 10)).thenReturn(new SearchHits(List.of(2L, 1L), 12L));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(2L, 1L))).thenReturn(List.of(testPost, other));
+
+        // When
+        Page<PostResponse> result = postService.searchPosts("測試", 0, 10);
+
+        // Then
+        assertThat(result.getContent()).extracting(PostResponse::getId).containsExactly(2L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(12L);
+        verify(postRepository, never()).findByContentContaining(any(), any());
+    }
+
     @Test
     void testIsPostAuthor() {
         // Given
@@ -234,4 +354,109 @@ class PostServiceTest {
         assertThat(postService.isPostAuthor(1L, 1L)).isTrue();
         assertThat(postService.isPostAuthor(1L, 2L)).isFalse();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFeedEndpoints_DoNotInitializeComments() {
+        // Given：以 mock 取代 comments 集合，任何存取都會被記錄
+        List<Comment> comments = mock(List.class);
+        testPost.setComments(comments);
+        Page<Post> postPage = new PageImpl<>(List.of(testPost));
+
+        when(postRepository.findByIdWithAuthor(1L)).thenReturn(Optional.of(testPost));
+        when(postRepository.findAllByOrderByCreatedAtDesc(any(Pageable.class))).thenReturn(postPage);
+        when(postRepository.findByAuthorIdOrderByCreatedAtDesc(eq(1L), any(Pageable.class))).thenReturn(postPage);
+        when(postRepository.findByContentContaining(eq("測試"), any(Pageable.class))).thenReturn(postPage);
+        when(latestContentService.latestPosts(5)).thenReturn(null);
+        when(postRepository.findLatestPosts(5)).thenReturn(List.of(testPost));
+        when(postRepository.findByCreatedAtBetweenOrderByCreatedAtDesc(
+                any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class))).thenReturn(postPage);
+
+        // When
+        postService.getPostById(1L);
+        postService.getAllPosts(0, 10);
+        postService.getPostsByAuthor(1L, 0, 10);
+        postService.searchPosts("測試", 0, 10);
+        postService.getLatestPosts(5);
+        postService.getPostsByDateRange(LocalDateTime.now().minusDays(1), LocalDateTime.now(), 0, 10);
+
+        // Then
+        verifyNoInteractions(comments);
+    }
+
+    @Test
+    void testPostResponseFrom_DefaultsToStoredCommentCount() {
+        // Given
+        testPost.setCommentCount(4L);
+
+        // When
+        PostResponse response = PostResponse.from(testPost);
+
+        // Then
+        assertThat(response.getCommentCount()).isEqualTo(4L);
+        assertThat(PostResponse.fromWithCommentCount(testPost, 6L).getCommentCount()).isEqualTo(6L);
+    }
+
+    @Test
+    void testGetPopularPosts_ServedFromRanking() {
+        // Given
+        Page<PostResponse> ranked = new PageImpl<>(List.of(PostResponse.fromWithCommentCount(testPost, 3L)));
+        when(postRankingService.getTopPosts(0, 10)).thenReturn(ranked);
+
+        // When
+        Page<PostResponse> result = postService.getPopularPosts(0, 10);
+
+        // Then
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getCommentCount()).isEqualTo(3L);
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void testGetTimeline_LoadsPostsInTimelineOrder() {
+        // Given：時間軸中的發文 3 已被刪除
+        Post newer = new Post();
+        newer.setId(5L);
+        newer.setContent("較新的發文");
+        newer.setAuthor(testUser);
+        newer.setCreatedAt(LocalDateTime.now());
+        testPost.setCreatedAt(LocalDateTime.now().minusHours(1));
+        when(timelineService.getPostIds(1L, Long.MAX_VALUE, 3)).thenReturn(List.of(5L, 3L, 1L));
+        when(postRepository.findAllWithAuthorByIdIn(List.of(5L, 3L, 1L))).thenReturn(List.of(testPost, newer));
+
+        // When
+        CursorPage<PostResponse> result = postService.getTimeline(1L, null, 2);
+
+        // Then
+        assertThat(result.getContent()).extracting(PostResponse::getId).containsExactly(5L, 1L);
+        assertThat(result.isHasNext()).isFalse();
+    }
+
+    @Test
+    void testGetTimeline_CursorUsesPostId() {
+        // Given
+        String cursor = new PageCursor(LocalDateTime.now(), 5L).encode();
+        when(timelineService.getPostIds(1L, 5L, 11)).thenReturn(List.of());
+
+        // When
+        CursorPage<PostResponse> result = postService.getTimeline(1L, cursor, 10);
+
+        // Then
+        assertThat(result.getContent()).isEmpty();
+        verify(postRepository, never()).findAllWithAuthorByIdIn(any());
+    }
+
+    @Test
+    void testGetLatestPosts_ServedFromBuffer() {
+        // Given
+        List<PostResponse> buffered = List.of(PostResponse.fromWithCommentCount(testPost, 0L));
+        when(latestContentService.latestPosts(5)).thenReturn(buffered);
+
+        // When
+        List<PostResponse> result = postService.getLatestPosts(5);
+
+        // Then
+        assertThat(result).isSameAs(buffered);
+        verifyNoInteractions(postRepository);
+    }
 }
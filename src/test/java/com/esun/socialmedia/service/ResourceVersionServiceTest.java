@@ -0,0 +1,129 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.PostRepository;
+import com.esun.socialmedia.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * ResourceVersionService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class ResourceVersionServiceTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CommentCountService commentCountService;
+
+    @Mock
+    private ImageVariantService imageVariantService;
+
+    private ResourceVersionService resourceVersionService;
+
+    @BeforeEach
+    void setUp() {
+        resourceVersionService = new ResourceVersionService(
+                postRepository, userRepository, commentCountService, imageVariantService);
+    }
+
+    @Test
+    void testCommentThreadVersion_ChangesOnlyAfterWrite() {
+        // Given
+        String before = resourceVersionService.commentThreadVersion(1L).getEtag();
+
+        // When
+        String unchanged = resourceVersionService.commentThreadVersion(1L).getEtag();
+        resourceVersionService.onCommentChanged(1L, 10L);
+        String changed = resourceVersionService.commentThreadVersion(1L).getEtag();
+
+        // Then
+        assertThat(before).startsWith("W/\"");
+        assertThat(unchanged).isEqualTo(before);
+        assertThat(changed).isNotEqualTo(before);
+        assertThat(resourceVersionService.commentThreadVersion(2L).getEtag()).isEqualTo(before);
+        verifyNoInteractions(postRepository, userRepository);
+    }
+
+    @Test
+    void testPostVersion_ReflectsCommentCount() {
+        // Given
+        when(postRepository.findVersionById(1L)).thenReturn(
+                List.<Object[]>of(new Object[] {UPDATED_AT, 3L, null, UPDATED_AT, null}));
+        when(commentCountService.currentCount(1L, 3L)).thenReturn(3L, 4L);
+
+        // When
+        ResourceVersion first = resourceVersionService.postVersion(1L).orElseThrow();
+        ResourceVersion second = resourceVersionService.postVersion(1L).orElseThrow();
+
+        // Then
+        assertThat(second.getEtag()).isNotEqualTo(first.getEtag());
+        assertThat(first.getLastModified()).isGreaterThan(0L);
+    }
+
+    @Test
+    void testPostVersion_NotFound() {
+        // Given
+        when(postRepository.findVersionById(1L)).thenReturn(List.of());
+
+        // When & Then
+        assertThat(resourceVersionService.postVersion(1L)).isEmpty();
+        verifyNoInteractions(commentCountService);
+    }
+
+    @Test
+    void testUserVersion_ChangesWithAuthorActivity() {
+        // Given
+        when(userRepository.findVersionById(10L)).thenReturn(
+                List.<Object[]>of(new Object[] {UPDATED_AT, null}));
+        String before = resourceVersionService.userVersion(10L).orElseThrow().getEtag();
+
+        // When
+        resourceVersionService.onCommentChanged(1L, 20L);
+        String otherAuthor = resourceVersionService.userVersion(10L).orElseThrow().getEtag();
+        resourceVersionService.onCommentChanged(1L, 10L);
+        String ownComment = resourceVersionService.userVersion(10L).orElseThrow().getEtag();
+        resourceVersionService.onPostDeleted(2L);
+        String postDeleted = resourceVersionService.userVersion(10L).orElseThrow().getEtag();
+
+        // Then
+        assertThat(otherAuthor).isEqualTo(before);
+        assertThat(ownComment).isNotEqualTo(before);
+        assertThat(postDeleted).isNotEqualTo(ownComment);
+    }
+
+    @Test
+    void testEviction_NeverReportsStaleVersion() {
+        // Given
+        ReflectionTestUtils.setField(resourceVersionService, "maxTracked", 2);
+        String untracked = resourceVersionService.commentThreadVersion(4L).getEtag();
+        resourceVersionService.onCommentChanged(1L, 10L);
+        String tracked = resourceVersionService.commentThreadVersion(1L).getEtag();
+
+        // When
+        resourceVersionService.onCommentChanged(2L, 10L);
+        resourceVersionService.onCommentChanged(3L, 10L);
+
+        // Then
+        assertThat(resourceVersionService.commentThreadVersion(1L).getEtag()).isEqualTo(tracked);
+        assertThat(resourceVersionService.commentThreadVersion(4L).getEtag()).isNotEqualTo(untracked);
+        resourceVersionService.onCommentChanged(1L, 10L);
+        assertThat(resourceVersionService.commentThreadVersion(1L).getEtag()).isNotEqualTo(tracked);
+    }
+}
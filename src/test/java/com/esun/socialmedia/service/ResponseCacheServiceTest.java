@@ -0,0 +1,149 @@
+package com.esun.socialmedia.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ResponseCacheService 測試類別
+ */
+class ResponseCacheServiceTest {
+
+    private MeterRegistry meterRegistry;
+    private ResponseCacheService responseCacheService;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        responseCacheService = new ResponseCacheService(new ObjectMapper(), meterRegistry);
+        responseCacheService.init();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void testGet_ServesCachedBytes() {
+        // When
+        byte[] first = load("posts/1", "hello", "post:1");
+        byte[] second = load("posts/1", "changed", "post:1");
+
+        // Then
+        assertThat(new String(first, StandardCharsets.UTF_8)).isEqualTo("\"hello\"");
+        assertThat(second).isSameAs(first);
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("cache.memory.used").gauge().value()).isGreaterThan(0.0);
+    }
+
+    @Test
+    void testInvalidate_RemovesOnlyTaggedEntries() {
+        // Given
+        load("posts/1", "one", "post:1", "user:10");
+        load("posts/2", "two", "post:2", "user:20");
+
+        // When
+        responseCacheService.invalidate("user:10");
+
+        // Then
+        assertThat(responseCacheService.size()).isEqualTo(1);
+        assertThat(new String(load("posts/1", "one-updated", "post:1"), StandardCharsets.UTF_8))
+                .isEqualTo("\"one-updated\"");
+        load("posts/2", "two-updated", "post:2");
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("cache.evictions").tag("cause", "invalidated").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testGet_DoesNotCacheWhenInvalidatedDuringLoad() {
+        // When
+        responseCacheService.get("posts?page=0", () -> {
+            // 載入期間發生寫入
+            responseCacheService.invalidate(ResponseCacheService.FEED_TAG);
+            return Optional.of("stale");
+        }, value -> Set.of(ResponseCacheService.FEED_TAG));
+
+        // Then
+        assertThat(responseCacheService.size()).isZero();
+    }
+
+    @Test
+    void testGet_EvictsLeastRecentlyUsedOverBudget() {
+        // Given
+        ReflectionTestUtils.setField(responseCacheService, "maxBytes", 1000L);
+        String body = "x".repeat(200);
+
+        // When
+        load("a", body, "post:1");
+        load("b", body, "post:2");
+        load("a", body, "post:1");
+        load("c", body, "post:3");
+
+        // Then
+        assertThat(responseCacheService.size()).isEqualTo(2);
+        assertThat(responseCacheService.usedBytes()).isLessThanOrEqualTo(1000L);
+        load("a", body, "post:1");
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("cache.evictions").tag("cause", "size").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testGet_NotFoundIsNotCached() {
+        // When
+        Optional<byte[]> result = responseCacheService.get("posts/9", Optional::empty, value -> Set.of());
+
+        // Then
+        assertThat(result).isEmpty();
+        assertThat(responseCacheService.size()).isZero();
+    }
+
+    @Test
+    void testGetWithVersion_ServesVersionCachedWithBody() {
+        // Given：第一次載入時的版本
+        ResponseCacheService.CachedResponse first = responseCacheService.getWithVersion("posts/1",
+                () -> Optional.of(new ResourceVersion("W/\"v1\"", 1000L)),
+                () -> Optional.of("old"), value -> Set.of("post:1")).orElseThrow();
+
+        // When：版本已改變（例如縮圖完成）但快取尚未失效
+        ResponseCacheService.CachedResponse second = responseCacheService.getWithVersion("posts/1",
+                () -> Optional.of(new ResourceVersion("W/\"v2\"", 2000L)),
+                () -> Optional.of("new"), value -> Set.of("post:1")).orElseThrow();
+
+        // Then：回傳的版本與內容一致
+        assertThat(first.getVersion().getEtag()).isEqualTo("W/\"v1\"");
+        assertThat(second.getVersion().getEtag()).isEqualTo("W/\"v1\"");
+        assertThat(new String(second.getBody(), StandardCharsets.UTF_8)).isEqualTo("\"old\"");
+    }
+
+    @Test
+    void testGetWithVersion_MissingVersionIsNotLoaded() {
+        // When
+        Optional<ResponseCacheService.CachedResponse> result = responseCacheService.getWithVersion("posts/9",
+                Optional::empty, () -> {
+                    loads.incrementAndGet();
+                    return Optional.of("orphan");
+                }, value -> Set.of());
+
+        // Then
+        assertThat(result).isEmpty();
+        assertThat(loads.get()).isZero();
+        assertThat(responseCacheService.size()).isZero();
+    }
+
+    private byte[] load(String key, String value, String... tags) {
+        return responseCacheService.get(key, () -> {
+            loads.incrementAndGet();
+            return Optional.of(value);
+        }, loaded -> Set.of(tags)).orElseThrow();
+    }
+}
@@ -0,0 +1,159 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.CommentRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * SearchIndexService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class SearchIndexServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SearchIndexService searchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        searchIndexService = new SearchIndexService(postRepository, commentRepository, transactionManager);
+    }
+
+    @Test
+    void testNotReadyFallsBackToDatabase() {
+        // When & Then
+        assertThat(searchIndexService.searchPosts("測試", 0, 10)).isNull();
+        assertThat(searchIndexService.searchComments("測試", 0, 10)).isNull();
+    }
+
+    @Test
+    void testCjkBigramAndLatinWordSearch() {
+        // Given
+        build(row(1L, "今天天氣很好，適合去玉山爬山"),
+                row(2L, "Spring Boot 的全文檢索"),
+                row(3L, "玉山銀行 ESUN 社群平台"));
+
+        // When & Then：中文片語以二元組比對，不需要完全相同的斷詞
+        assertThat(searchIndexService.searchPosts("玉山", 0, 10).getIds()).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(searchIndexService.searchPosts("爬山", 0, 10).getIds()).containsExactly(1L);
+        // 單一中文字也能搜尋
+        assertThat(searchIndexService.searchPosts("銀", 0, 10).getIds()).containsExactly(3L);
+        // 英文不分大小寫、全形半形視為相同
+        assertThat(searchIndexService.searchPosts("esun", 0, 10).getIds()).containsExactly(3L);
+        assertThat(searchIndexService.searchPosts("ＳＰＲＩＮＧ", 0, 10).getIds()).containsExactly(2L);
+        // 所有詞彙都須出現
+        assertThat(searchIndexService.searchPosts("spring 玉山", 0, 10).getIds()).isEmpty();
+        assertThat(searchIndexService.searchPosts("天山", 0, 10).getIds()).isEmpty();
+    }
+
+    @Test
+    void testRankedByBm25() {
+        // Given：出現次數較多且內容較短的文件相關度較高
+        build(row(1L, "咖啡 一段很長很長的內容，只在這裡順便提到一次咖啡以外的其他事情與許多無關的字"),
+                row(2L, "咖啡咖啡，今天的咖啡"),
+                row(3L, "今天沒有提到"));
+
+        // When
+        SearchHits hits = searchIndexService.searchPosts("咖啡", 0, 10);
+
+        // Then
+        assertThat(hits.getIds()).containsExactly(2L, 1L);
+        assertThat(hits.getTotal()).isEqualTo(2L);
+    }
+
+    @Test
+    void testPagingReportsTotal() {
+        // Given
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            rows.add(row(id, "分頁測試"));
+        }
+        build(rows.toArray(new Object[0][]));
+
+        // When：同分時新文件（ID 較大）優先
+        SearchHits first = searchIndexService.searchPosts("分頁", 0, 10);
+        SearchHits last = searchIndexService.searchPosts("分頁", 2, 10);
+
+        // Then
+        assertThat(first.getIds()).hasSize(10).startsWith(25L, 24L);
+        assertThat(last.getIds()).containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(last.getTotal()).isEqualTo(25L);
+    }
+
+    @Test
+    void testDeepPageOnlyReportsTotal() {
+        // Given
+        build(row(1L, "分頁測試"), row(2L, "分頁測試"));
+
+        // When：超出可搜尋範圍與超出符合筆數的分頁
+        SearchHits deep = searchIndexService.searchPosts("分頁", 20_000_000, 100);
+        SearchHits pastWindow = searchIndexService.searchPosts("分頁",
+                SearchIndexService.MAX_RESULT_WINDOW / 10, 10);
+        SearchHits pastMatches = searchIndexService.searchPosts("分頁", 5, 10);
+
+        // Then
+        assertThat(deep.getIds()).isEmpty();
+        assertThat(deep.getTotal()).isEqualTo(2L);
+        assertThat(pastWindow.getIds()).isEmpty();
+        assertThat(pastWindow.getTotal()).isEqualTo(2L);
+        assertThat(pastMatches.getIds()).isEmpty();
+        assertThat(pastMatches.getTotal()).isEqualTo(2L);
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        // Given
+        build(row(1L, "原本的內容"));
+        when(commentRepository.findIdsByPostId(1L)).thenReturn(List.of(7L));
+        searchIndexService.onCommentCreated(7L, "留言提到原本");
+
+        // When：沒有進行中的交易時立即生效
+        searchIndexService.onPostSaved(2L, "新增的發文");
+        searchIndexService.onPostSaved(1L, "編輯後的內容");
+
+        // Then
+        assertThat(searchIndexService.searchPosts("新增", 0, 10).getIds()).containsExactly(2L);
+        assertThat(searchIndexService.searchPosts("原本", 0, 10).getIds()).isEmpty();
+        assertThat(searchIndexService.searchPosts("編輯", 0, 10).getIds()).containsExactly(1L);
+        assertThat(searchIndexService.searchComments("原本", 0, 10).getIds()).containsExactly(7L);
+
+        // When：刪除發文時一併移除其留言
+        searchIndexService.onPostDeleted(1L);
+
+        // Then
+        assertThat(searchIndexService.searchPosts("編輯", 0, 10).getIds()).isEmpty();
+        assertThat(searchIndexService.searchComments("原本", 0, 10).getIds()).isEmpty();
+    }
+
+    private void build(Object[]... postRows) {
+        when(postRepository.findContentBatch(eq(0L), any(Pageable.class))).thenReturn(List.of(postRows));
+        when(commentRepository.findContentBatch(anyLong(), any(Pageable.class))).thenReturn(List.of());
+        searchIndexService.afterSingletonsInstantiated();
+    }
+
+    private static Object[] row(Long id, String content) {
+        return new Object[]{id, content};
+    }
+}
@@ -0,0 +1,159 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.repository.FollowRepository;
+import com.esun.socialmedia.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * TimelineService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class TimelineServiceTest {
+
+    @Mock
+    private FollowRepository followRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    private TimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        timelineService = new TimelineService(followRepository, postRepository);
+        ReflectionTestUtils.setField(timelineService, "capacity", 3);
+        ReflectionTestUtils.setField(timelineService, "fanoutThreshold", 100L);
+    }
+
+    @Test
+    void testRebuildOnFirstReadThenServeFromMemory() {
+        // Given
+        when(postRepository.findFanoutTimelinePostIds(eq(1L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(9L, 7L, 4L));
+        when(postRepository.findHighFanoutPostIdsBefore(eq(1L), eq(100L), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        List<Long> first = timelineService.getPostIds(1L, Long.MAX_VALUE, 2);
+        List<Long> second = timelineService.getPostIds(1L, 7L, 2);
+
+        // Then
+        assertThat(first).containsExactly(9L, 7L);
+        assertThat(second).containsExactly(4L);
+        verify(postRepository, times(1)).findFanoutTimelinePostIds(eq(1L), eq(100L), any(Pageable.class));
+    }
+
+    @Test
+    void testFanoutPushesToResidentTimelinesAndCaps() {
+        // Given
+        when(postRepository.findFanoutTimelinePostIds(eq(1L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(9L, 7L, 4L));
+        when(postRepository.findHighFanoutPostIdsBefore(eq(1L), eq(100L), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(followRepository.findFollowerIds(2L)).thenReturn(List.of(1L, 3L));
+        timelineService.getPostIds(1L, Long.MAX_VALUE, 10);
+
+        // When
+        timelineService.onPostCreated(12L, 2L, 5L);
+
+        // Then：容量為 3，最舊的發文 4 被捨棄；使用者 3 的時間軸不在記憶體，不會被建立
+        assertThat(timelineService.getPostIds(1L, Long.MAX_VALUE, 10)).containsExactly(12L, 9L, 7L);
+        assertThat(timelineService.residentCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testFanoutDuringRebuildIsMerged() {
+        // Given：重建查詢期間提交了新發文 12 並刪除了發文 7，查詢結果不含這些變更
+        when(followRepository.findFollowerIds(2L)).thenReturn(List.of(1L));
+        when(postRepository.findFanoutTimelinePostIds(eq(1L), eq(100L), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    timelineService.onPostCreated(12L, 2L, 5L);
+                    timelineService.onPostDeleted(7L, 2L, 5L);
+                    return List.of(9L, 7L, 4L);
+                });
+        when(postRepository.findHighFanoutPostIdsBefore(eq(1L), eq(100L), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        // When
+        List<Long> postIds = timelineService.getPostIds(1L, Long.MAX_VALUE, 10);
+
+        // Then
+        assertThat(postIds).containsExactly(12L, 9L, 4L);
+    }
+
+    @Test
+    void testFollowerCountDroppingBelowThresholdDiscardsTimelines() {
+        // Given
+        when(postRepository.findFanoutTimelinePostIds(eq(1L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(9L));
+        when(postRepository.findHighFanoutPostIdsBefore(eq(1L), eq(100L), anyLong(), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(followRepository.findFollowerIds(2L)).thenReturn(List.of(1L));
+        timelineService.getPostIds(1L, Long.MAX_VALUE, 10);
+
+        // When：仍在門檻以上或原本就在門檻以下時不影響；由 100 降到 99 時捨棄
+        timelineService.onFollowerCountDecreased(2L, 100L);
+        timelineService.onFollowerCountDecreased(2L, 50L);
+        int beforeCrossing = timelineService.residentCount();
+        timelineService.onFollowerCountDecreased(2L, 99L);
+
+        // Then
+        assertThat(beforeCrossing).isEqualTo(1);
+        assertThat(timelineService.residentCount()).isZero();
+        verify(followRepository, times(1)).findFollowerIds(2L);
+    }
+
+    @Test
+    void testHighFanoutAuthorIsNotFannedOut() {
+        // When
+        timelineService.onPostCreated(12L, 2L, 100L);
+
+        // Then
+        verifyNoInteractions(followRepository);
+    }
+
+    @Test
+    void testMergeHighFanoutPostsAndDeduplicate() {
+        // Given
+        when(postRepository.findFanoutTimelinePostIds(eq(1L), eq(100L), any(Pageable.class)))
+                .thenReturn(List.of(9L, 7L, 4L));
+        when(postRepository.findHighFanoutPostIdsBefore(eq(1L), eq(100L), eq(Long.MAX_VALUE), any(Pageable.class)))
+                .thenReturn(List.of(10L, 7L, 5L));
+
+        // When
+        List<Long> postIds = timelineService.getPostIds(1L, Long.MAX_VALUE, 4);
+
+        // Then
+        assertThat(postIds).containsExactly(10L, 9L, 7L, 5L);
+    }
+
+    @Test
+    void testTimelineInsertAndRemoveKeepOrder() {
+        // Given
+        TimelineService.Timeline timeline = new TimelineService.Timeline(4);
+
+        // When
+        timeline.push(5L);
+        timeline.push(8L);
+        timeline.push(6L);
+        timeline.push(8L);
+        timeline.remove(5L);
+
+        // Then
+        assertThat(timeline.before(Long.MAX_VALUE, 10)).containsExactly(8L, 6L);
+        assertThat(timeline.size()).isEqualTo(2);
+    }
+}
@@ -2,19 +2,26 @@ package com.esun.socialmedia.service;
 
 import com.esun.socialmedia.dto.user.UpdateProfileRequest;
 import com.esun.socialmedia.dto.user.UserResponse;
+import com.esun.socialmedia.dto.user.UserSuggestion;
 import com.esun.socialmedia.entity.User;
 import com.esun.socialmedia.repository.CommentRepository;
 import com.esun.socialmedia.repository.PostRepository;
 import com.esun.socialmedia.repository.UserRepository;
 import com.esun.socialmedia.security.PasswordService;
+import com.esun.socialmedia.security.UserPrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -40,6 +47,27 @@ class UserServiceTest {
     @Mock
     private PasswordService passwordService;
 
+    @Mock
+    private UsernameIndexService usernameIndexService;
+
+    @Mock
+    private AvailabilityFilterService availabilityFilterService;
+
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private ResponseCacheService responseCacheService;
+
+    @Mock
+    private PostRankingService postRankingService;
+
+    @Mock
+    private LatestContentService latestContentService;
+
     @InjectMocks
     private UserService userService;
 
@@ -71,6 +99,8 @@ class UserServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getUsername()).isEqualTo("testuser");
         verify(userRepository).save(any(User.class));
+        verify(usernameIndexService).onUsernameChanged(1L, "testuser");
+        verify(availabilityFilterService).onUserSaved("testuser", "test@example.com");
     }
 
     @Test
@@ -146,6 +176,11 @@ class UserServiceTest {
         // Then
         assertThat(result).isNotNull();
         verify(userRepository).save(any(User.class));
+        verify(usernameIndexService).onUsernameChanged(1L, "updateduser");
+        verify(availabilityFilterService).onUserSaved("updateduser", null);
+        verify(principalCache).invalidate(1L);
+        verify(postRankingService).onAuthorUpdated(argThat(author -> author.getId().equals(1L)));
+        verify(latestContentService).onAuthorUpdated(argThat(author -> author.getId().equals(1L)));
     }
 
     @Test
@@ -177,8 +212,58 @@ class UserServiceTest {
     }
 
     @Test
-    void testIsUsernameAvailable() {
+    void testSearchUsersByPrefix_ServedFromIndex() {
+        // Given
+        User other = new User();
+        other.setId(2L);
+        other.setUsername("TestAdmin");
+        when(usernameIndexService.searchByPrefix("test", 0, 10)).thenReturn(new SearchHits(List.of(2L, 1L), 2L));
+        when(userRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testUser, other));
+
+        // When
+        Page<UserResponse> result = userService.searchUsersByPrefix("test", 0, 10);
+
+        // Then：保留索引的排序
+        assertThat(result.getContent()).extracting(UserResponse::getId).containsExactly(2L, 1L);
+        assertThat(result.getTotalElements()).isEqualTo(2L);
+        verify(userRepository, never()).findByUsernamePrefix(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void testSuggestUsernames() {
         // Given
+        List<UserSuggestion> suggestions = List.of(new UserSuggestion(1L, "testuser"));
+        when(usernameIndexService.suggest("te", UsernameIndexService.MAX_SUGGESTIONS)).thenReturn(suggestions);
+
+        // When：數量限制超過上限時以上限為準
+        List<UserSuggestion> result = userService.suggestUsernames("te", 100);
+
+        // Then
+        assertThat(result).isSameAs(suggestions);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testSuggestUsernames_FallsBackToDatabase() {
+        // Given：索引尚未就緒
+        when(usernameIndexService.suggest("te", 5)).thenReturn(null);
+        when(userRepository.findByUsernamePrefix(eq("te"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(testUser)));
+
+        // When
+        List<UserSuggestion> result = userService.suggestUsernames("te", 5);
+
+        // Then
+        assertThat(result).extracting(UserSuggestion::getUsername).containsExactly("testuser");
+    }
+
+    @Test
+    void testIsUsernameAvailable() {
+        // Given：過濾器判定可能重複，交由資料庫檢查
+        when(availabilityFilterService.isUsernameAvailable(anyString(), any())).thenAnswer(invocation -> {
+            Predicate<String> exists = invocation.getArgument(1);
+            return !exists.test(invocation.getArgument(0));
+        });
         when(userRepository.existsByUsername("availableuser")).thenReturn(false);
         when(userRepository.existsByUsername("takenuser")).thenReturn(true);
 
@@ -0,0 +1,114 @@
+package com.esun.socialmedia.service;
+
+import com.esun.socialmedia.dto.user.UserSuggestion;
+import com.esun.socialmedia.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * UsernameIndexService 測試類別
+ */
+@ExtendWith(MockitoExtension.class)
+class UsernameIndexServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UsernameIndexService usernameIndexService;
+
+    @BeforeEach
+    void setUp() {
+        usernameIndexService = new UsernameIndexService(userRepository, transactionManager);
+    }
+
+    @Test
+    void testNotReadyFallsBackToDatabase() {
+        // When & Then
+        assertThat(usernameIndexService.suggest("a", 10)).isNull();
+        assertThat(usernameIndexService.searchByPrefix("a", 0, 10)).isNull();
+    }
+
+    @Test
+    void testPrefixIsCaseInsensitiveAndSorted() {
+        // Given
+        build(row(1L, "bob"), row(2L, "Alice"), row(3L, "alfred"), row(4L, "ALBERT"), row(5L, "carol"));
+
+        // When
+        List<UserSuggestion> suggestions = usernameIndexService.suggest("AL", 10);
+
+        // Then：依不分大小寫的名稱排序，保留原本的大小寫
+        assertThat(suggestions).extracting(UserSuggestion::getUsername).containsExactly("ALBERT", "alfred", "Alice");
+        assertThat(usernameIndexService.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void testPagingReportsTotal() {
+        // Given
+        build(row(1L, "user1"), row(2L, "user2"), row(3L, "user3"), row(4L, "user4"), row(5L, "other"));
+
+        // When
+        SearchHits first = usernameIndexService.searchByPrefix("user", 0, 3);
+        SearchHits second = usernameIndexService.searchByPrefix("user", 1, 3);
+        SearchHits beyond = usernameIndexService.searchByPrefix("user", 5, 3);
+
+        // Then
+        assertThat(first.getIds()).containsExactly(1L, 2L, 3L);
+        assertThat(second.getIds()).containsExactly(4L);
+        assertThat(beyond.getIds()).isEmpty();
+        assertThat(first.getTotal()).isEqualTo(4L);
+    }
+
+    @Test
+    void testDeepPageDoesNotOverflow() {
+        // Given
+        build(row(1L, "user1"), row(2L, "user2"), row(3L, "other"));
+
+        // When：offset 接近 int 上限，與索引位置相加會溢位
+        SearchHits deep = usernameIndexService.searchByPrefix("user", Integer.MAX_VALUE, 1);
+        SearchHits beyondInt = usernameIndexService.searchByPrefix("user", Integer.MAX_VALUE, 100);
+
+        // Then
+        assertThat(deep.getIds()).isEmpty();
+        assertThat(deep.getTotal()).isEqualTo(2L);
+        assertThat(beyondInt.getIds()).isEmpty();
+        assertThat(beyondInt.getTotal()).isEqualTo(2L);
+    }
+
+    @Test
+    void testRegisterAndRename() {
+        // Given
+        build(row(1L, "alice"));
+
+        // When：沒有進行中的交易時立即生效
+        usernameIndexService.onUsernameChanged(2L, "alex");
+        usernameIndexService.onUsernameChanged(1L, "zoe");
+
+        // Then
+        assertThat(usernameIndexService.suggest("al", 10)).extracting(UserSuggestion::getId).containsExactly(2L);
+        assertThat(usernameIndexService.suggest("z", 10)).extracting(UserSuggestion::getUsername).containsExactly("zoe");
+    }
+
+    private void build(Object[]... rows) {
+        when(userRepository.findUsernameBatch(eq(0L), any(Pageable.class))).thenReturn(List.of(rows));
+        usernameIndexService.afterSingletonsInstantiated();
+    }
+
+    private static Object[] row(Long id, String username) {
+        return new Object[]{id, username};
+    }
+}